@@ -0,0 +1,58 @@
+package com.cookbook.benchmarks;
+
+import com.cookbook.math.CalculationResult;
+import com.cookbook.math.FunctionWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trapezoidal integration through FunctionWrapper.getIntegral
+ * Unsuccessful result fails the benchmark, so a fast wrong answer is never reported
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntegralBenchmark {
+
+    private static final int max_iteration = 30;
+    private static final int start_point_num = 1000;
+
+    @Param({"1", "4"})
+    public int taskNum;
+
+    @Param({"1e-6", "1e-9"})
+    public double accuracy;
+
+    @Param({"smooth", "spiky"})
+    public String function;
+
+    private FunctionWrapper wrapper;
+
+    @Setup
+    public void setUp() {
+        this.wrapper = TestFunctions.newWrapper(function);
+    }
+
+    @Benchmark
+    public double trapezoidal() {
+        CalculationResult result = wrapper.getIntegral(max_iteration, accuracy, taskNum, start_point_num);
+        if (!result.isSuccess()) {
+            throw new IllegalStateException(result.getFailureReason());
+        }
+        return result.getResult();
+    }
+}
@@ -0,0 +1,51 @@
+package com.cookbook.benchmarks;
+
+import com.cookbook.math.CalculationResult;
+import com.cookbook.math.FunctionWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Broken line minimum search through FunctionWrapper.getMinimum
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MinimumBenchmark {
+
+    @Param({"1e-6", "1e-10"})
+    public double accuracy;
+
+    @Param({"smooth", "spiky"})
+    public String function;
+
+    private FunctionWrapper wrapper;
+
+    @Setup
+    public void setUp() {
+        this.wrapper = TestFunctions.newWrapper(function);
+    }
+
+    @Benchmark
+    public double minimum() {
+        CalculationResult result = wrapper.getMinimum(accuracy);
+        if (!result.isSuccess()) {
+            throw new IllegalStateException(result.getFailureReason());
+        }
+        return result.getResult();
+    }
+}
@@ -0,0 +1,85 @@
+package com.cookbook.benchmarks;
+
+import com.cookbook.processing.csv.CsvDecoderGroup;
+import com.cookbook.processing.interfaces.Consumer;
+import com.cookbook.processing.interfaces.DataSource;
+import com.cookbook.processing.interfaces.Producer;
+import com.cookbook.processing.producers.SimpleProducer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import other.test.examples.DataSourceCsv;
+import other.test.examples.DecoderCsv1;
+import other.test.examples.DecoderCsv2;
+import other.test.examples.OutputResultCsv;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end throughput: DataSourceCsv -> SimpleProducer -> DecoderCsv1, DecoderCsv2 -> consumer
+ * Chain is linked by hand as DataLinker links it, because DataLinker scans class directories and can't see classes inside benchmark jar
+ * Score is throughput per line of source file
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineBenchmark {
+
+    private static final int line_num = 10_000;
+
+    private Path file;
+    private DataSource dataSource;
+    private Blackhole blackhole;
+
+    @Setup
+    public void setUp(Blackhole blackhole) throws IOException {
+        this.blackhole = blackhole;
+        this.file = Files.createTempFile("pipeline", ".csv");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < line_num; i++) {
+                writer.write(i + ",field" + i + "," + (i * 0.5) + ",value" + i + "\n");
+            }
+        }
+        Consumer<OutputResultCsv> consumer = data -> this.blackhole.consume(data);
+        DecoderCsv1 decoder1 = new DecoderCsv1();
+        decoder1.setConsumer(consumer);
+        DecoderCsv2 decoder2 = new DecoderCsv2();
+        decoder2.setConsumer(consumer);
+        CsvDecoderGroup group = new CsvDecoderGroup();
+        group.addDecoder(decoder1);
+        group.addDecoder(decoder2);
+        Producer producer = new SimpleProducer();
+        producer.addDecoder(group);
+        this.dataSource = new DataSourceCsv(file.toString());
+        this.dataSource.setProducer(producer);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(line_num)
+    public void csvToConsumers() {
+        dataSource.getData();
+    }
+}
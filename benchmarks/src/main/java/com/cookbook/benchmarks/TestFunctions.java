@@ -0,0 +1,30 @@
+package com.cookbook.benchmarks;
+
+import com.cookbook.math.FunctionWrapper;
+
+// package private class
+// functions shared by benchmarks: smooth one is cheap for every method, spiky one has narrow peak and forces deep refinement
+final class TestFunctions {
+
+    static final double min = -4.0;
+    static final double max = 3.0;
+    private static final double peak_width = 1e-3;
+    private static final double peak_point = 0.3;
+
+    private TestFunctions() {
+    }
+
+    static FunctionWrapper newWrapper(String name) {
+        switch (name) {
+            case "smooth":
+                return FunctionWrapper.newInstance(x -> 5.0 * Math.sin(2.0 * x) + x * x, min, max);
+            case "spiky":
+                return FunctionWrapper.newInstance(x -> {
+                    double d = x - peak_point;
+                    return Math.sin(x) - peak_width / (peak_width + d * d);
+                }, min, max);
+            default:
+                throw new IllegalArgumentException("Unknown function " + name);
+        }
+    }
+}
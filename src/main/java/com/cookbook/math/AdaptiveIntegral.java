@@ -0,0 +1,97 @@
+package com.cookbook.math;
+
+import java.util.PriorityQueue;
+
+// package private class
+// adaptive Gauss-Kronrod 7/15 quadrature, the worst segment is divided first
+class AdaptiveIntegral {
+
+    private final MathFunction func;
+    private final double min;
+    private final double max;
+    private final long maxIterationCount;
+
+
+    private AdaptiveIntegral(MathFunction func, double min, double max, long maxIterationCount) {
+        this.func = func;
+        this.min = min;
+        this.max = max;
+        this.maxIterationCount = maxIterationCount;
+    }
+
+    /**
+     * Static factory
+     * @param func - function for integral calculating
+     * @param min - minimum integration limit
+     * @param max - maximum integration limit
+     * @param maxIterationCount - max count of segment divisions. For preventing endless cycle
+     * @return new AdaptiveIntegral object
+     * @throws IllegalArgumentException
+     */
+    public static AdaptiveIntegral newInstance(MathFunction func, double min, double max, long maxIterationCount) throws IllegalArgumentException {
+        if (min >= max) {
+            throw new IllegalArgumentException("Bad values for min-max parameters");
+        }
+        if (maxIterationCount <= 0) {
+            throw new IllegalArgumentException("Bad value for max iteration count");
+        }
+        return new AdaptiveIntegral(func, min, max, maxIterationCount);
+    }
+
+    /**
+     * Calculate integral
+     * Segment with the biggest error is divided in half until total error is less than accuracy * max(1, |result|)
+     * @param accuracy calculation accuracy. Be careful, iteration count can't be more that this.maxIterationCount
+     * @return CalculationResult with integral value and error estimate
+     */
+    public CalculationResult calculate(double accuracy) {
+        if (accuracy <= 0) {
+            throw new IllegalArgumentException("Bad value for accuracy");
+        }
+        PriorityQueue<GaussKronrod.Segment> segments =
+                new PriorityQueue<>((s1, s2) -> Double.compare(s2.error, s1.error));
+        GaussKronrod.Segment first = GaussKronrod.integrate(func, min, max);
+        segments.add(first);
+        double result = first.result;
+        double err = first.error;
+        long iteration_count = 0;
+        long evaluation_count = GaussKronrod.point_num;
+
+        while (err > accuracy * Math.max(1.0, Math.abs(result))) {
+            if (++iteration_count > this.maxIterationCount) {
+                return newResult(false, result, err, evaluation_count, iteration_count, "Maximum iteration count");
+            }
+            GaussKronrod.Segment worst = segments.poll();
+            double center = 0.5 * (worst.min + worst.max);
+            // segment can't be divided anymore
+            if (center <= worst.min || center >= worst.max) {
+                segments.add(worst);
+                return newResult(false, result, err, evaluation_count, iteration_count, "Segment can't be divided");
+            }
+            GaussKronrod.Segment left = GaussKronrod.integrate(func, worst.min, center);
+            GaussKronrod.Segment right = GaussKronrod.integrate(func, center, worst.max);
+            evaluation_count += 2 * GaussKronrod.point_num;
+            segments.add(left);
+            segments.add(right);
+            result += left.result + right.result - worst.result;
+            err += left.error + right.error - worst.error;
+        }
+
+        // sum again for preventing accumulation of rounding errors
+        result = 0.0;
+        err = 0.0;
+        for (GaussKronrod.Segment segment : segments) {
+            result += segment.result;
+            err += segment.error;
+        }
+        if (Double.isNaN(result)) {
+            return newResult(false, result, err, evaluation_count, iteration_count, "Result is NaN");
+        }
+        return newResult(true, result, err, evaluation_count, iteration_count, null);
+    }
+
+    private CalculationResult newResult(boolean success, double result, double err, long evaluation_count, long iteration_count,
+                                        String failureReason) {
+        return new CalculationResult(success, result, err, evaluation_count, iteration_count, null, failureReason);
+    }
+}
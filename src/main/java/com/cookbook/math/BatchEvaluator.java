@@ -0,0 +1,48 @@
+package com.cookbook.math;
+
+// package private class
+// evaluate function in bulk if it's BatchMathFunction, point by point otherwise
+final class BatchEvaluator {
+
+    static final int batch_size = 256;
+
+    private BatchEvaluator() {}
+
+    static void evaluate(MathFunction func, double[] xs, double[] out, int n) {
+        if (func instanceof BatchMathFunction) {
+            ((BatchMathFunction) func).getF(xs, out, n);
+        } else {
+            for (int i = 0; i < n; i++) {
+                out[i] = func.getF(xs[i]);
+            }
+        }
+    }
+
+    /**
+     * Sum of function values at points start + i * step, i = 0..count-1
+     */
+    static double sum(MathFunction func, double start, double step, long count) {
+        double result = 0.0;
+        if (func instanceof BatchMathFunction) {
+            BatchMathFunction batchFunc = (BatchMathFunction) func;
+            int size = (int) Math.min(batch_size, count);
+            double[] xs = new double[size];
+            double[] out = new double[size];
+            for (long i = 0; i < count; i += size) {
+                int n = (int) Math.min(size, count - i);
+                for (int j = 0; j < n; j++) {
+                    xs[j] = start + (i + j) * step;
+                }
+                batchFunc.getF(xs, out, n);
+                for (int j = 0; j < n; j++) {
+                    result += out[j];
+                }
+            }
+        } else {
+            for (long i = 0; i < count; i++) {
+                result += func.getF(start + i * step);
+            }
+        }
+        return result;
+    }
+}
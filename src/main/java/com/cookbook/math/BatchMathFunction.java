@@ -0,0 +1,18 @@
+package com.cookbook.math;
+
+/**
+ * Optional extension of MathFunction for evaluating many points per call
+ * Integration and Lipschitz constant scan loops fill arrays of points and evaluate them in bulk
+ * if function implements this interface
+ */
+public interface BatchMathFunction extends MathFunction {
+
+    /**
+     * Calculate function values
+     * @param xs - points
+     * @param out - array for function values, out[i] = f(xs[i])
+     * @param n - count of points, it can be less than arrays length
+     */
+    void getF(double[] xs, double[] out, int n);
+
+}
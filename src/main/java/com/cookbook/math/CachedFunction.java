@@ -0,0 +1,121 @@
+package com.cookbook.math;
+
+/**
+ * NotThreadSafe
+ * Memoizing wrapper for MathFunction
+ * Values are stored at open addressing table with primitive keys (raw bits of x), so there's no Double boxing.
+ * Table size is bounded: if there's no free cell in probe sequence, the first cell of sequence is overwritten
+ */
+public final class CachedFunction implements MathFunction {
+
+    private static final int max_probe = 8;
+
+    private final MathFunction func;
+    private final long[] keys;
+    private final double[] values;
+    private final boolean[] used;
+    private final int mask;
+    private long hitCount;
+    private long missCount;
+
+
+    private CachedFunction(MathFunction func, int capacity) {
+        this.func = func;
+        this.keys = new long[capacity];
+        this.values = new double[capacity];
+        this.used = new boolean[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Static factory
+     * @param func - function for caching
+     * @param capacity - max count of cached values, it's rounded up to power of two
+     * @return new CachedFunction object
+     * @throws IllegalArgumentException
+     */
+    public static CachedFunction newInstance(MathFunction func, int capacity) throws IllegalArgumentException {
+        if (func == null) {
+            throw new IllegalArgumentException("Function must be not null");
+        }
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Bad value for capacity");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        return new CachedFunction(func, size);
+    }
+
+    @Override
+    public double getF(double x) {
+        long key = Double.doubleToRawLongBits(x);
+        int home = hash(key) & mask;
+        int index = home;
+        int slot = home;
+        for (int i = 0; i < max_probe; i++) {
+            if (!used[index]) {
+                slot = index;
+                break;
+            }
+            if (keys[index] == key) {
+                ++hitCount;
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        ++missCount;
+        double value = func.getF(x);
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+        return value;
+    }
+
+    // murmur3 finalizer, neighbour points have close bits
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    /**
+     * @return wrapped function
+     */
+    public MathFunction getFunction() {
+        return func;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return count of wrapped function calls
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return part of getF() calls answered from cache, NaN if there were no calls
+     */
+    public double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? Double.NaN : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CachedFunction{" +
+                "capacity=" + keys.length +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", hitRate=" + getHitRate() +
+                '}';
+    }
+}
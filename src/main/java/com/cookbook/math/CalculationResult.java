@@ -1,21 +1,47 @@
 package com.cookbook.math;
 
 
+import java.util.Arrays;
+
 /*
 * This class presents object for store calculation result
 * success is true if there's no error in calculation
-*
+* error is an estimate of the absolute calculation error, NaN if method doesn't provide it
+* evaluationCount and iterationCount are 0 if method doesn't count them
+* taskTimes contains wall time of every parallel task in nanoseconds, it's empty for serial methods
+* failureReason is null for successful result
 *
 * */
 
 public class CalculationResult {
 
+    private static final long[] no_task_times = new long[0];
+
     private final boolean success;
     private final double result;
+    private final double error;
+    private final long evaluationCount;
+    private final long iterationCount;
+    private final long[] taskTimes;
+    private final String failureReason;
 
     public CalculationResult(boolean success, double result) {
+        this(success, result, Double.NaN);
+    }
+
+    public CalculationResult(boolean success, double result, double error) {
+        this(success, result, error, 0, 0, no_task_times, success ? null : "Unknown");
+    }
+
+    public CalculationResult(boolean success, double result, double error, long evaluationCount, long iterationCount,
+                             long[] taskTimes, String failureReason) {
         this.result = result;
         this.success = success;
+        this.error = error;
+        this.evaluationCount = evaluationCount;
+        this.iterationCount = iterationCount;
+        this.taskTimes = taskTimes == null ? no_task_times : taskTimes;
+        this.failureReason = success ? null : failureReason;
     }
 
     public boolean isSuccess() {
@@ -26,11 +52,48 @@ public class CalculationResult {
         return result;
     }
 
+    public double getError() {
+        return error;
+    }
+
+    /**
+     * @return count of function calls
+     */
+    public long getEvaluationCount() {
+        return evaluationCount;
+    }
+
+    /**
+     * @return count of refinement iterations
+     */
+    public long getIterationCount() {
+        return iterationCount;
+    }
+
+    /**
+     * @return wall time of every parallel task in nanoseconds
+     */
+    public long[] getTaskTimes() {
+        return taskTimes.clone();
+    }
+
+    /**
+     * @return reason of unsuccessful calculation, null if calculation is successful
+     */
+    public String getFailureReason() {
+        return failureReason;
+    }
+
     @Override
     public String toString() {
         return "CalculationResult{" +
                 "success=" + success +
                 ", result=" + result +
+                ", error=" + error +
+                ", evaluationCount=" + evaluationCount +
+                ", iterationCount=" + iterationCount +
+                ", taskTimes=" + Arrays.toString(taskTimes) +
+                ", failureReason=" + failureReason +
                 '}';
     }
 }
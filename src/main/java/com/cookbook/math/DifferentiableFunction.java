@@ -0,0 +1,24 @@
+package com.cookbook.math;
+
+/**
+ * Function with exact derivative, it's calculated with dual numbers
+ * For example: x -> x.multiply(2.0).sin().multiply(5.0).add(x.multiply(x))
+ * FunctionWrapper uses derivative for Lipschitz constant instead of finite differences
+ */
+public interface DifferentiableFunction extends MathFunction {
+
+    Dual getF(Dual x);
+
+    @Override
+    default double getF(double x) {
+        return getF(Dual.constant(x)).getValue();
+    }
+
+    /**
+     * @return function derivative at point x
+     */
+    default double getDerivative(double x) {
+        return getF(Dual.variable(x)).getDerivative();
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.cookbook.math;
+
+/**
+ * Immutable
+ * Dual number value + derivative * eps, eps^2 = 0
+ * Arithmetic with dual numbers calculates function value and exact derivative in one pass (forward-mode automatic differentiation)
+ */
+public final class Dual {
+
+    private final double value;
+    private final double derivative;
+
+
+    private Dual(double value, double derivative) {
+        this.value = value;
+        this.derivative = derivative;
+    }
+
+    /**
+     * @return independent variable x, its derivative is 1
+     */
+    public static Dual variable(double x) {
+        return new Dual(x, 1.0);
+    }
+
+    /**
+     * @return constant, its derivative is 0
+     */
+    public static Dual constant(double c) {
+        return new Dual(c, 0.0);
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public double getDerivative() {
+        return derivative;
+    }
+
+    public Dual add(Dual other) {
+        return new Dual(value + other.value, derivative + other.derivative);
+    }
+
+    public Dual add(double c) {
+        return new Dual(value + c, derivative);
+    }
+
+    public Dual subtract(Dual other) {
+        return new Dual(value - other.value, derivative - other.derivative);
+    }
+
+    public Dual subtract(double c) {
+        return new Dual(value - c, derivative);
+    }
+
+    public Dual multiply(Dual other) {
+        return new Dual(value * other.value, derivative * other.value + value * other.derivative);
+    }
+
+    public Dual multiply(double c) {
+        return new Dual(value * c, derivative * c);
+    }
+
+    public Dual divide(Dual other) {
+        return new Dual(value / other.value,
+                (derivative * other.value - value * other.derivative) / (other.value * other.value));
+    }
+
+    public Dual divide(double c) {
+        return new Dual(value / c, derivative / c);
+    }
+
+    public Dual negate() {
+        return new Dual(-value, -derivative);
+    }
+
+    public Dual pow(double n) {
+        return new Dual(Math.pow(value, n), n * Math.pow(value, n - 1) * derivative);
+    }
+
+    public Dual sqrt() {
+        double root = Math.sqrt(value);
+        return new Dual(root, derivative / (2 * root));
+    }
+
+    public Dual sin() {
+        return new Dual(Math.sin(value), Math.cos(value) * derivative);
+    }
+
+    public Dual cos() {
+        return new Dual(Math.cos(value), -Math.sin(value) * derivative);
+    }
+
+    public Dual tan() {
+        double tan = Math.tan(value);
+        return new Dual(tan, (1 + tan * tan) * derivative);
+    }
+
+    public Dual exp() {
+        double exp = Math.exp(value);
+        return new Dual(exp, exp * derivative);
+    }
+
+    public Dual log() {
+        return new Dual(Math.log(value), derivative / value);
+    }
+
+    public Dual abs() {
+        return value < 0 ? negate() : this;
+    }
+
+    @Override
+    public String toString() {
+        return "Dual{" +
+                "value=" + value +
+                ", derivative=" + derivative +
+                '}';
+    }
+}
@@ -1,5 +1,10 @@
 package com.cookbook.math;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 /**
  * NotThreadSafe
@@ -11,7 +16,12 @@ public class FunctionWrapper {
     private final MathFunction func;
     private final double min;
     private final double max;
+    private volatile CachedFunction minimumCache;
     private static final double min_accuracy = 1e-15;
+    private static final int default_task_num = Runtime.getRuntime().availableProcessors();
+    private static final int default_start_point_num = 1000;
+    private static final int minimum_cache_capacity = 1 << 12;
+    private static final int lipschitz_point_num = 1000;
 
 
     private FunctionWrapper(MathFunction func, double min, double max) {
@@ -32,31 +42,137 @@ public class FunctionWrapper {
 
     public CalculationResult getIntegral(int maxIteration, double accuracy, int taskNum, int startPointNum) {
         Integral calcIntegral = Integral.newInstance(this.func, this.min, this.max, maxIteration);
-        calcIntegral.calculate(startPointNum, accuracy, taskNum);
-        while (!calcIntegral.isCalculated()) {}
-        return calcIntegral.getCalculationResult();
+        return calcIntegral.calculate(startPointNum, accuracy, taskNum);
     }
 
-    // get function derivative at point x
-    private double dx(double x, double delta) {
+    /**
+     * Calculate integral use The Trapezoidal Rule without blocking caller
+     * Cancelling of returned future stops calculating tasks
+     * @param executor - executor for calculating tasks
+     * @return future of CalculationResult
+     */
+    public CompletableFuture<CalculationResult> getIntegralAsync(int maxIteration, double accuracy, int taskNum, int startPointNum, Executor executor) {
+        Integral calcIntegral = Integral.newInstance(this.func, this.min, this.max, maxIteration);
+        CompletableFuture<CalculationResult> future = calcIntegral.calculateAsync(startPointNum, accuracy, taskNum, executor);
+        future.whenComplete((result, ex) -> {
+            if (ex != null) {
+                calcIntegral.cancel();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Calculate integral use The Trapezoidal Rule without blocking caller
+     * If calculating isn't finished before deadline, returned future is completed with TimeoutException and calculating is stopped
+     * @param executor - executor for calculating tasks
+     * @param timeout - time for calculating
+     * @param unit - timeout unit
+     * @return future of CalculationResult
+     */
+    public CompletableFuture<CalculationResult> getIntegralAsync(int maxIteration, double accuracy, int taskNum, int startPointNum,
+                                                                 Executor executor, long timeout, TimeUnit unit) {
+        return getIntegralAsync(maxIteration, accuracy, taskNum, startPointNum, executor).orTimeout(timeout, unit);
+    }
+
+    /**
+     * Calculate integral with selected method
+     * @param method - integration method
+     * @param maxIteration - max iteration count. For adaptive methods it's max count of segment divisions, for Romberg it's max count of levels
+     * @param accuracy - calculation accuracy
+     * @return CalculationResult, it contains error estimate if method provides it
+     */
+    public CalculationResult getIntegral(IntegrationMethod method, int maxIteration, double accuracy) {
+        switch (method) {
+            case GAUSS_KRONROD:
+                return AdaptiveIntegral.newInstance(this.func, this.min, this.max, maxIteration).calculate(accuracy);
+            case ROMBERG:
+                return RombergIntegral.newInstance(this.func, this.min, this.max, maxIteration).calculate(accuracy);
+            case TRAPEZOIDAL:
+            default:
+                return getIntegral(maxIteration, accuracy, default_task_num, default_start_point_num);
+        }
+    }
+
+    /**
+     * Calculate integral with adaptive Gauss-Kronrod method on fork/join pool
+     * Segments with high local error are divided recursively and balanced between pool workers
+     * @param pool - fork/join pool for calculating. Use your own pool for not competing with ForkJoinPool.commonPool() users
+     * @param maxDepth - max depth of segment divisions
+     * @param accuracy - calculation accuracy
+     * @return CalculationResult with error estimate
+     */
+    public CalculationResult getIntegral(ForkJoinPool pool, int maxDepth, double accuracy) {
+        return ParallelIntegral.newInstance(this.func, this.min, this.max, maxDepth).calculate(pool, accuracy);
+    }
+
+    /**
+     * Build cumulative integral table for constant time integral queries inside [min, max]
+     * Table is immutable and can be shared between threads
+     * @param panelNum - count of segments between table knots
+     * @param taskNum - count of building tasks
+     * @param executor - executor for building tasks
+     * @return IntegralTable
+     */
+    public IntegralTable getIntegralTable(int panelNum, int taskNum, Executor executor) {
+        return IntegralTable.newInstance(this.func, this.min, this.max, panelNum, taskNum, executor);
+    }
+
+    /**
+     * Build cubic spline surrogate of the function over [min, max]
+     * Surrogate can be saved to file and loaded by other processes with SplineSurrogate.load()
+     * @param tolerance - max absolute error at interval centers
+     * @param maxKnotNum - max count of spline knots
+     * @return SplineSurrogate
+     * @throws ArithmeticException if tolerance isn't reached
+     */
+    public SplineSurrogate getSurrogate(double tolerance, int maxKnotNum) throws ArithmeticException {
+        return SplineSurrogate.newInstance(this.func, this.min, this.max, tolerance, maxKnotNum);
+    }
+
+    // get function derivative at point x, it's exact for DifferentiableFunction
+    private double dx(MathFunction func, double x, double delta) {
+        if (this.func instanceof DifferentiableFunction) {
+            return Math.abs(((DifferentiableFunction) this.func).getDerivative(x));
+        }
         return Math.abs(func.getF(x+delta) - func.getF(x))/delta;
     }
 
     //get Lipschitz constant
-    private double getL(double min, double max, double delta) {
+    private double getL(MathFunction func, double min, double max, double delta) {
         double L = 0.0;
         double tmp = 0.0;
-        int points = 1000;
+        int points = lipschitz_point_num;
         double h = (max-min)/points;
+        if (this.func instanceof BatchMathFunction && !(this.func instanceof DifferentiableFunction)) {
+            return getBatchL(min, h, points, delta);
+        }
 
-        for(double curr_point=min + h; curr_point<=max; curr_point +=h) {
-          tmp = dx(curr_point, delta);
+        for(int i = 1; i <= points; i++) {
+          tmp = dx(func, min + i*h, delta);
           if(tmp > L) L = tmp;
         }
         return L;
     }
 
-    private double getIntersectionPoint(double min, double max, double L) {
+    //get Lipschitz constant, all points are evaluated by one call
+    private double getBatchL(double min, double h, int points, double delta) {
+        double[] xs = new double[2*points];
+        double[] fs = new double[2*points];
+        for (int i = 0; i < points; i++) {
+            xs[i] = min + (i+1)*h;
+            xs[points + i] = xs[i] + delta;
+        }
+        ((BatchMathFunction) func).getF(xs, fs, 2*points);
+        double L = 0.0;
+        for (int i = 0; i < points; i++) {
+            double tmp = Math.abs(fs[points + i] - fs[i])/delta;
+            if(tmp > L) L = tmp;
+        }
+        return L;
+    }
+
+    private double getIntersectionPoint(MathFunction func, double min, double max, double L) {
         return (func.getF(min) - func.getF(max))/(2*L) + (max+min)/2;
     }
 
@@ -66,35 +182,121 @@ public class FunctionWrapper {
     *
     * */
     public CalculationResult getMinimum(double accuracy) {
+        return calculateMinimum(accuracy, () -> false);
+    }
+
+    /**
+     * Find minimum with broken line method without blocking caller
+     * Cancelling of returned future stops calculating
+     * @param accuracy - calculation accuracy
+     * @param executor - executor for calculating
+     * @return future of CalculationResult
+     */
+    public CompletableFuture<CalculationResult> getMinimumAsync(double accuracy, Executor executor) {
+        CompletableFuture<CalculationResult> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(calculateMinimum(accuracy, future::isDone));
+                } catch (RuntimeException ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    /**
+     * Find minimum with broken line method without blocking caller
+     * If calculating isn't finished before deadline, returned future is completed with TimeoutException and calculating is stopped
+     * @param accuracy - calculation accuracy
+     * @param executor - executor for calculating
+     * @param timeout - time for calculating
+     * @param unit - timeout unit
+     * @return future of CalculationResult
+     */
+    public CompletableFuture<CalculationResult> getMinimumAsync(double accuracy, Executor executor, long timeout, TimeUnit unit) {
+        return getMinimumAsync(accuracy, executor).orTimeout(timeout, unit);
+    }
+
+    /**
+     * Find global minimum with parallel broken line search
+     * Domain is divided into taskNum subintervals, every one has its own adaptive Lipschitz constant.
+     * Task is stopped when its lower bound can't improve the best value found by other tasks
+     * @param accuracy - calculation accuracy
+     * @param maxIteration - max iteration count for every task
+     * @param taskNum - count of parallel tasks
+     * @param executor - executor for search tasks
+     * @return CalculationResult
+     */
+    public CalculationResult getGlobalMinimum(double accuracy, long maxIteration, int taskNum, Executor executor) {
+        return getGlobalMinimumAsync(accuracy, maxIteration, taskNum, executor).join();
+    }
+
+    /**
+     * Find global minimum with parallel broken line search without blocking caller
+     * @see #getGlobalMinimum(double, long, int, Executor)
+     * @return future of CalculationResult
+     */
+    public CompletableFuture<CalculationResult> getGlobalMinimumAsync(double accuracy, long maxIteration, int taskNum, Executor executor) {
         if (accuracy < min_accuracy) {
             throw  new ArithmeticException("Bad value for accuracy");
         }
+        return GlobalMinimizer.newInstance(this.func, this.min, this.max, maxIteration).calculateAsync(accuracy, taskNum, executor);
+    }
+
+    /**
+     * @return part of function evaluations answered from cache at the last getMinimum() call, NaN if there were no calls
+     */
+    public double getMinimumCacheHitRate() {
+        CachedFunction cache = this.minimumCache;
+        return cache == null ? Double.NaN : cache.getHitRate();
+    }
+
+    // isCancelled is checked at every iteration, cancelled calculation returns unsuccessful result
+    // function values are cached per call, so every distinct point is evaluated once
+    private CalculationResult calculateMinimum(double accuracy, BooleanSupplier isCancelled) {
+        if (accuracy < min_accuracy) {
+            throw  new ArithmeticException("Bad value for accuracy");
+        }
+        CachedFunction func = CachedFunction.newInstance(this.func, minimum_cache_capacity);
+        this.minimumCache = func;
         double delta = accuracy;
         double x_L = min;
         double x_M = max;
         double x_i, x_iL, x_iM, x_iP0, x_iP1 = 0.0;
-        double L = getL(x_L, x_M, delta);
+        double L = getL(func, x_L, x_M, delta);
         //calc first intersection point
-        x_i = getIntersectionPoint(x_L,x_M,L);
-        x_iL = getIntersectionPoint(x_L,x_i,L);
-        x_iM = getIntersectionPoint(x_i,x_M,L);
-        x_iP0 = getIntersectionPoint(x_L, x_M, L);
+        x_i = getIntersectionPoint(func, x_L,x_M,L);
+        x_iL = getIntersectionPoint(func, x_L,x_i,L);
+        x_iM = getIntersectionPoint(func, x_i,x_M,L);
+        x_iP0 = getIntersectionPoint(func, x_L, x_M, L);
         double y_0 = func.getF(x_iP0); //calc value;
         double y_1; //y for next step
         double minimun_value = y_0; // save current minimum value
         boolean isInit = true;
         double err = Math.abs(y_0);
+        long iteration_count = 0;
 
         while(isInit || err > accuracy) {
-            x_i = getIntersectionPoint(x_L,x_M,L);
-            x_iL = getIntersectionPoint(x_L,x_i,L);
-            x_iM = getIntersectionPoint(x_i,x_M,L);
+            if (isCancelled.getAsBoolean()) {
+                return minimumResult(false, minimun_value, func, iteration_count, "Calculation is cancelled");
+            }
+            ++iteration_count;
+            x_i = getIntersectionPoint(func, x_L,x_M,L);
+            x_iL = getIntersectionPoint(func, x_L,x_i,L);
+            x_iM = getIntersectionPoint(func, x_i,x_M,L);
             if(func.getF(x_iL) <= func.getF(x_iM)) {
                 x_M = x_i;
             } else {
                 x_L = x_i;
             }
-            y_1 = func.getF(getIntersectionPoint(x_L, x_M, L));
+            y_1 = func.getF(getIntersectionPoint(func, x_L, x_M, L));
             err = Math.abs(y_1 - y_0);
             y_0 = y_1;
             // may be minimum found in first iteration
@@ -102,7 +304,19 @@ public class FunctionWrapper {
             if(isInit) isInit = false; //reset init flag after first iteration
         }
 
-        return new CalculationResult(true, minimun_value);
+        return minimumResult(true, minimun_value, func, iteration_count, null);
+    }
+
+    // getL doesn't use cache for differentiable and batch functions
+    private CalculationResult minimumResult(boolean success, double minimum_value, CachedFunction cache, long iteration_count,
+                                            String failureReason) {
+        long evaluation_count = cache.getMissCount();
+        if (this.func instanceof DifferentiableFunction) {
+            evaluation_count += lipschitz_point_num;
+        } else if (this.func instanceof BatchMathFunction) {
+            evaluation_count += 2 * lipschitz_point_num;
+        }
+        return new CalculationResult(success, minimum_value, Double.NaN, evaluation_count, iteration_count, null, failureReason);
     }
 
 }
@@ -0,0 +1,114 @@
+package com.cookbook.math;
+
+// package private class
+// Gauss-Kronrod 7/15 rule for one segment
+final class GaussKronrod {
+
+    // count of function calls for one segment
+    static final int point_num = 15;
+
+    // Kronrod abscissae, odd indexes are Gauss abscissae
+    private static final double[] XGK = {
+            0.991455371120812639206854697526329,
+            0.949107912342758524526189684047851,
+            0.864864423359769072789712788640926,
+            0.741531185599394439863864773280788,
+            0.586087235467691130294144845693013,
+            0.405845151377397166906606412076961,
+            0.207784955007898467600689403773245,
+            0.000000000000000000000000000000000
+    };
+
+    // Kronrod weights
+    private static final double[] WGK = {
+            0.022935322010529224963732008058970,
+            0.063092092629978553290700663189204,
+            0.104790010322250183839876322541518,
+            0.140653259715525918745189590510238,
+            0.169004726639267902826583426598550,
+            0.190350578064785409913256402421014,
+            0.204432940075298892414161999234649,
+            0.209482141084727828012999174891714
+    };
+
+    // Gauss weights
+    private static final double[] WG = {
+            0.129484966168869693270611432679082,
+            0.279705391489276667901467771423780,
+            0.381830050505118944950369775488975,
+            0.417959183673469387755102040816327
+    };
+
+    private GaussKronrod() {}
+
+    /**
+     * Calculate integral for one segment
+     * @param func - function for integral calculating
+     * @param min - minimum segment limit
+     * @param max - maximum segment limit
+     * @return segment with integral value and error estimate (difference between Kronrod and Gauss values)
+     */
+    static Segment integrate(MathFunction func, double min, double max) {
+        double center = 0.5 * (min + max);
+        double halfLength = 0.5 * (max - min);
+        if (func instanceof BatchMathFunction) {
+            return integrateBatch((BatchMathFunction) func, min, max, center, halfLength);
+        }
+        double fc = func.getF(center);
+        double resultK = fc * WGK[7];
+        double resultG = fc * WG[3];
+        for (int i = 0; i < 7; i++) {
+            double dx = halfLength * XGK[i];
+            double sum = func.getF(center - dx) + func.getF(center + dx);
+            resultK += WGK[i] * sum;
+            if (i % 2 == 1) {
+                resultG += WG[i / 2] * sum;
+            }
+        }
+        resultK *= halfLength;
+        resultG *= halfLength;
+        return new Segment(min, max, resultK, Math.abs(resultK - resultG));
+    }
+
+    // all 15 points are evaluated by one call: xs[i] = center - dx_i, xs[i + 7] = center + dx_i, xs[14] = center
+    private static Segment integrateBatch(BatchMathFunction func, double min, double max, double center, double halfLength) {
+        double[] xs = new double[15];
+        double[] fs = new double[15];
+        for (int i = 0; i < 7; i++) {
+            double dx = halfLength * XGK[i];
+            xs[i] = center - dx;
+            xs[i + 7] = center + dx;
+        }
+        xs[14] = center;
+        func.getF(xs, fs, 15);
+        double resultK = fs[14] * WGK[7];
+        double resultG = fs[14] * WG[3];
+        for (int i = 0; i < 7; i++) {
+            double sum = fs[i] + fs[i + 7];
+            resultK += WGK[i] * sum;
+            if (i % 2 == 1) {
+                resultG += WG[i / 2] * sum;
+            }
+        }
+        resultK *= halfLength;
+        resultG *= halfLength;
+        return new Segment(min, max, resultK, Math.abs(resultK - resultG));
+    }
+
+    /**
+     * Integration segment with calculated value and error estimate
+     */
+    static final class Segment {
+        final double min;
+        final double max;
+        final double result;
+        final double error;
+
+        Segment(double min, double max, double result, double error) {
+            this.min = min;
+            this.max = max;
+            this.result = result;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.cookbook.math;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// package private class
+// parallel global minimum search: domain is divided into subintervals, every task runs broken line (Piyavskii) method
+// with adaptive Lipschitz constants: global one is estimated per task, local ones are tuned per interval. Best found value is shared, so task stops when its lower bound can't improve it
+class GlobalMinimizer {
+
+    private static final int start_sample_num = 16;
+    private static final int max_sample_num = 1 << 12;
+    // Lipschitz constant estimate is multiplied by this coefficient for reliability
+    private static final double lipschitz_reserve = 1.5;
+
+    private final MathFunction func;
+    private final double min;
+    private final double max;
+    private final long maxIterationCount;
+    // raw bits of the best found value, it's shared between tasks
+    private final AtomicLong best = new AtomicLong(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+    private final LongAdder evaluationCount = new LongAdder();
+    private final LongAdder iterationCount = new LongAdder();
+    // function returned NaN, NaN isn't comparable so it can't be stored as best value
+    private volatile boolean hasNaN;
+
+
+    private GlobalMinimizer(MathFunction func, double min, double max, long maxIterationCount) {
+        this.func = func;
+        this.min = min;
+        this.max = max;
+        this.maxIterationCount = maxIterationCount;
+    }
+
+    /**
+     * Static factory
+     * @param func - function for minimum searching
+     * @param min - minimum domain limit
+     * @param max - maximum domain limit
+     * @param maxIterationCount - max iteration count for every task. For preventing endless cycle
+     * @return new GlobalMinimizer object
+     * @throws IllegalArgumentException
+     */
+    public static GlobalMinimizer newInstance(MathFunction func, double min, double max, long maxIterationCount) throws IllegalArgumentException {
+        if (min >= max) {
+            throw new IllegalArgumentException("Bad values for min-max parameters");
+        }
+        if (maxIterationCount <= 0) {
+            throw new IllegalArgumentException("Bad value for max iteration count");
+        }
+        return new GlobalMinimizer(func, min, max, maxIterationCount);
+    }
+
+    /**
+     * Find global minimum
+     * @param accuracy - calculation accuracy for function value
+     * @param taskNum - count of subintervals searched in parallel
+     * @param executor - executor for search tasks
+     * @return future of CalculationResult with minimum value, it's unsuccessful if any task reached max iteration count
+     */
+    public CompletableFuture<CalculationResult> calculateAsync(double accuracy, int taskNum, Executor executor) {
+        if (accuracy <= 0) {
+            throw new IllegalArgumentException("Bad value for accuracy");
+        }
+        if (taskNum <= 0) {
+            throw new IllegalArgumentException("Task num must be positive");
+        }
+        List<CompletableFuture<Boolean>> futureList = new ArrayList<>();
+        long[] taskTimes = new long[taskNum];
+        double len = (max - min) / taskNum;
+        for (int i = 0; i < taskNum; i++) {
+            int task = i;
+            double a = min + i * len;
+            double b = i == taskNum - 1 ? max : a + len;
+            futureList.add(CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                try {
+                    return search(a, b, accuracy);
+                } finally {
+                    taskTimes[task] = System.nanoTime() - start;
+                }
+            }, executor));
+        }
+        return CompletableFuture.allOf(futureList.toArray(new CompletableFuture<?>[0])).handle((v, ex) -> {
+            if (ex != null) {
+                return newResult(false, taskTimes, "Task failed: " + ex.getMessage());
+            }
+            if (!futureList.stream().allMatch(CompletableFuture::join)) {
+                return newResult(false, taskTimes, "Maximum iteration count");
+            }
+            if (hasNaN) {
+                return newResult(false, taskTimes, "Function value is NaN");
+            }
+            return newResult(true, taskTimes, null);
+        });
+    }
+
+    private CalculationResult newResult(boolean success, long[] taskTimes, String failureReason) {
+        return new CalculationResult(success, getBest(), Double.NaN, evaluationCount.sum(), iterationCount.sum(), taskTimes, failureReason);
+    }
+
+    private double getBest() {
+        return Double.longBitsToDouble(best.get());
+    }
+
+    private void updateBest(double value) {
+        if (Double.isNaN(value)) {
+            hasNaN = true;
+            return;
+        }
+        long current = best.get();
+        while (value < Double.longBitsToDouble(current)) {
+            if (best.compareAndSet(current, Double.doubleToLongBits(value))) {
+                return;
+            }
+            current = best.get();
+        }
+    }
+
+    // broken line method on [a, b], return false if max iteration count is reached
+    private boolean search(double a, double b, double accuracy) {
+        // sampling for Lipschitz constant estimation, samples become first intervals
+        int n = start_sample_num;
+        double[] xs = sample(a, b, n);
+        double[] fs = evaluate(xs);
+        double L = slope(xs, fs);
+        while (n < max_sample_num) {
+            n *= 2;
+            double[] new_xs = sample(a, b, n);
+            double[] new_fs = refine(new_xs, fs);
+            double new_L = slope(new_xs, new_fs);
+            xs = new_xs;
+            fs = new_fs;
+            // estimate is stable
+            if (new_L <= L * 1.05) {
+                L = Math.max(L, new_L);
+                break;
+            }
+            L = new_L;
+        }
+        // local tuning: interval uses Lipschitz constant of its neighbourhood, but big intervals use global estimate
+        double globalL = L * lipschitz_reserve + Double.MIN_NORMAL;
+        double maxWidth = (b - a) / n;
+
+        PriorityQueue<Interval> intervals = new PriorityQueue<>((i1, i2) -> Double.compare(i1.bound, i2.bound));
+        for (int i = 0; i < xs.length; i++) {
+            updateBest(fs[i]);
+        }
+        for (int i = 1; i < xs.length; i++) {
+            double localL = slope(xs, fs, i);
+            if (i > 1) localL = Math.max(localL, slope(xs, fs, i - 1));
+            if (i < xs.length - 1) localL = Math.max(localL, slope(xs, fs, i + 1));
+            intervals.add(new Interval(xs[i - 1], fs[i - 1], xs[i], fs[i],
+                    lipschitz(localL, globalL, xs[i] - xs[i - 1], maxWidth)));
+        }
+
+        long iteration_count = 0;
+        while (!intervals.isEmpty() && !hasNaN) {
+            Interval interval = intervals.poll();
+            // the lowest bound of this task can't improve the best value found by any task
+            if (interval.bound >= getBest() - accuracy) {
+                return true;
+            }
+            if (++iteration_count > this.maxIterationCount) {
+                return false;
+            }
+            iterationCount.increment();
+            double x = interval.point;
+            if (x <= interval.x1 || x >= interval.x2) {
+                continue;
+            }
+            double y = func.getF(x);
+            evaluationCount.increment();
+            updateBest(y);
+            double localL = Math.max(Math.abs(y - interval.f1) / (x - interval.x1), Math.abs(interval.f2 - y) / (interval.x2 - x));
+            localL = Math.max(localL, Math.abs(interval.f2 - interval.f1) / (interval.x2 - interval.x1));
+            intervals.add(new Interval(interval.x1, interval.f1, x, y, lipschitz(localL, globalL, x - interval.x1, maxWidth)));
+            intervals.add(new Interval(x, y, interval.x2, interval.f2, lipschitz(localL, globalL, interval.x2 - x, maxWidth)));
+        }
+        return true;
+    }
+
+    private static double lipschitz(double localL, double globalL, double width, double maxWidth) {
+        return Math.max(localL * lipschitz_reserve, globalL * Math.min(1.0, width / maxWidth)) + Double.MIN_NORMAL;
+    }
+
+    private static double slope(double[] xs, double[] fs, int i) {
+        return Math.abs(fs[i] - fs[i - 1]) / (xs[i] - xs[i - 1]);
+    }
+
+    private static double[] sample(double a, double b, int n) {
+        double[] xs = new double[n + 1];
+        double h = (b - a) / n;
+        for (int i = 0; i < n; i++) {
+            xs[i] = a + i * h;
+        }
+        xs[n] = b;
+        return xs;
+    }
+
+    private double[] evaluate(double[] xs) {
+        double[] fs = new double[xs.length];
+        BatchEvaluator.evaluate(func, xs, fs, xs.length);
+        evaluationCount.add(xs.length);
+        return fs;
+    }
+
+    // previous sample contains even points, only odd points are evaluated
+    private double[] refine(double[] xs, double[] previous) {
+        int count = previous.length - 1;
+        double[] points = new double[count];
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            points[i] = xs[2 * i + 1];
+        }
+        BatchEvaluator.evaluate(func, points, values, count);
+        evaluationCount.add(count);
+        double[] fs = new double[xs.length];
+        for (int i = 0; i < count; i++) {
+            fs[2 * i] = previous[i];
+            fs[2 * i + 1] = values[i];
+        }
+        fs[xs.length - 1] = previous[count];
+        return fs;
+    }
+
+    private static double slope(double[] xs, double[] fs) {
+        double L = 0.0;
+        for (int i = 1; i < xs.length; i++) {
+            L = Math.max(L, slope(xs, fs, i));
+        }
+        return L;
+    }
+
+    // interval of broken line with its lower bound
+    private static final class Interval {
+        final double x1;
+        final double f1;
+        final double x2;
+        final double f2;
+        // point of minimum of lower bound
+        final double point;
+        final double bound;
+
+        Interval(double x1, double f1, double x2, double f2, double L) {
+            this.x1 = x1;
+            this.f1 = f1;
+            this.x2 = x2;
+            this.f2 = f2;
+            this.point = (f1 - f2) / (2 * L) + (x1 + x2) / 2;
+            this.bound = (f1 + f2) / 2 - L * (x2 - x1) / 2;
+        }
+    }
+}
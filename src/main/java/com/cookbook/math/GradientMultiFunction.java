@@ -0,0 +1,16 @@
+package com.cookbook.math;
+
+/**
+ * N dimensions function with analytic gradient
+ * If function implements this interface, optimizers don't use finite differences
+ */
+public interface GradientMultiFunction extends MultiFunction {
+
+    /**
+     * Calculate gradient at point x
+     * @param x - point, implementation must not change it
+     * @param gradient - array for gradient values
+     */
+    void getGradient(double[] x, double[] gradient);
+
+}
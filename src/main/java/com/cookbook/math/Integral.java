@@ -2,8 +2,12 @@ package com.cookbook.math;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 // package private class
@@ -14,8 +18,9 @@ class Integral {
     private final double max;
     private final long maxIterationCount;
     private double len;
-    private volatile CalculationResult calculationResult;
-    private volatile boolean isCalculated;
+    private volatile boolean isCancelled;
+    private final LongAdder evaluationCount = new LongAdder();
+    private final LongAdder iterationCount = new LongAdder();
 
 
     private Integral(MathFunction func, double min, double max, long maxIterationCount) {
@@ -47,93 +52,109 @@ class Integral {
     }
 
     /**
-     * Reset isCalculated flag and return calculated result
+     * Stop calculating. Running calculation is finished with unsuccessful result at the next iteration
      * It's use internal synchronize strategy
-     * @return CalculationResult
      */
-    public CalculationResult getCalculationResult() {
-        this.isCalculated = false;
-        return calculationResult;
+    public void cancel() {
+        this.isCancelled = true;
     }
 
     /**
-     * If you need to get an actual calculating result you should wait while this flag is becomes true
-     * If you call
-     * @return true - if integral calculating is end
+     * Calculate integral use The Trapezoidal Rule on ForkJoinPool.commonPool() and wait for result
+     * @param startNumPoint count of numbers to start calculate integral
+     * @param accuracy calculation accuracy. Be careful, iteration count can't be more that this.maxIterationCount
+     * @param taskNum - count of CompletableFuture object for calculating. It's depends on the available CPU count for your system
+     * @return CalculationResult
      */
-    public boolean isCalculated() {
-        return isCalculated;
-    }
-
-    private void setCalculationResult(boolean success, double result) {
-        this.calculationResult = new CalculationResult(success, result);
-        this.isCalculated = true;
+    public CalculationResult calculate(int startNumPoint, double accuracy, int taskNum) {
+        try {
+            return calculateAsync(startNumPoint, accuracy, taskNum, ForkJoinPool.commonPool()).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            cancel();
+            return new CalculationResult(false, 0.0, Double.NaN, evaluationCount.sum(), iterationCount.sum(), null, "Calculation is interrupted");
+        } catch (ExecutionException ex) {
+            return new CalculationResult(false, 0.0, Double.NaN, evaluationCount.sum(), iterationCount.sum(), null, ex.getMessage());
+        }
     }
 
     /**
      * Calculate integral use The Trapezoidal Rule
-     * After calculating store new CalculationResult object at this.calculationResult and set this.isCalculated
-     * If you call getCalculationResult() this.isCalculated will be reset
-     * If you don't call getCalculationResult() you won't get new calculation result
+     * No thread is blocked while waiting for the result: the returned future is completed by the last finished task
      * @param startNumPoint count of numbers to start calculate integral
      * @param accuracy calculation accuracy. Be careful, iteration count can't be more that this.maxIterationCount
      * @param taskNum - count of CompletableFuture object for calculating. It's depends on the available CPU count for your system
-     *
-     * It's use internal synchronize strategy
+     * @param executor - executor for calculating tasks
+     * @return future of CalculationResult, its error is sum of task errors (difference of the last two approximations)
      */
-    public void calculate(int startNumPoint, double accuracy, int taskNum){
+    public CompletableFuture<CalculationResult> calculateAsync(int startNumPoint, double accuracy, int taskNum, Executor executor){
 
         if(taskNum <=0) {
             throw new IllegalArgumentException("Task num must be positive");
         }
+        if(executor == null) {
+            throw new IllegalArgumentException("Executor must be not null");
+        }
 
-        if (!this.isCalculated) {
-            int numPointToThread = startNumPoint / taskNum;
-            List<CompletableFuture<CalculationResult>> calcFutureList = new ArrayList<>();
-            int num_futures = taskNum;
-            double min = this.min;
-            double max = this.min + (len / num_futures);
-            int accuracy_coeff = (int) Math.log10(taskNum);
-            double threadAccuracy = taskNum > 1 ? accuracy * 0.1 * (Math.pow(0.1, (double) accuracy_coeff)) : accuracy;
-            for (int i = 0; i < num_futures - 1; i++) {
-
-                calcFutureList.add(calcIntegralFuture(min, max, this.func, numPointToThread, threadAccuracy));
-                min = max;
-                max += (len / num_futures);
-            }
+        int numPointToThread = startNumPoint / taskNum;
+        List<CompletableFuture<CalculationResult>> calcFutureList = new ArrayList<>();
+        int num_futures = taskNum;
+        long[] taskTimes = new long[num_futures];
+        double min = this.min;
+        double max = this.min + (len / num_futures);
+        int accuracy_coeff = (int) Math.log10(taskNum);
+        double threadAccuracy = taskNum > 1 ? accuracy * 0.1 * (Math.pow(0.1, (double) accuracy_coeff)) : accuracy;
+        for (int i = 0; i < num_futures - 1; i++) {
+
+            calcFutureList.add(calcIntegralFuture(min, max, this.func, numPointToThread, threadAccuracy, executor, taskTimes, i));
+            min = max;
+            max += (len / num_futures);
+        }
 
-            calcFutureList.add(calcIntegralFuture(min, this.max, this.func, startNumPoint - (num_futures - 1) * numPointToThread, threadAccuracy));
+        calcFutureList.add(calcIntegralFuture(min, this.max, this.func, startNumPoint - (num_futures - 1) * numPointToThread, threadAccuracy,
+                executor, taskTimes, num_futures - 1));
 
-            CompletableFuture<Void> allFutures = CompletableFuture.allOf(
-                    calcFutureList.toArray(new CompletableFuture[0])
-            );
+        CompletableFuture<Void> allFutures = CompletableFuture.allOf(
+                calcFutureList.toArray(new CompletableFuture[0])
+        );
 
-            CompletableFuture<List<CalculationResult>> allResults = allFutures.thenApply(v -> {
-                return calcFutureList.stream().map(calcFuture -> calcFuture.join()).collect(Collectors.toList());
-            });
-            try {
-                List<CalculationResult> resultList = allResults.get();
-                double integral_value = 0.0;
-                boolean success = true;
-                for (CalculationResult result : resultList) {
-                    if (result.isSuccess()) {
-                        integral_value += result.getResult();
-                    } else {
-                        success = false;
-                        break;
-                    }
+        return allFutures.handle((v, ex) -> {
+            if (ex != null) {
+                return newResult(false, 0.0, Double.NaN, taskTimes, "Task failed: " + ex.getMessage());
+            }
+            List<CalculationResult> resultList = calcFutureList.stream().map(calcFuture -> calcFuture.join()).collect(Collectors.toList());
+            double integral_value = 0.0;
+            // error of sum is estimated by sum of slice errors
+            double error = 0.0;
+            for (CalculationResult result : resultList) {
+                if (result.isSuccess()) {
+                    integral_value += result.getResult();
+                    error += result.getError();
+                } else {
+                    return newResult(false, 0.0, Double.NaN, taskTimes, result.getFailureReason());
                 }
-                success = !Double.isNaN(integral_value);
-                this.setCalculationResult(success, integral_value);
-
-            } catch (InterruptedException | ExecutionException | IllegalArgumentException ex) {
-                this.setCalculationResult(false, 0.0);
             }
-        }
+            if (Double.isNaN(integral_value)) {
+                return newResult(false, integral_value, Double.NaN, taskTimes, "Result is NaN");
+            }
+            return newResult(true, integral_value, error, taskTimes, null);
+        });
     }
 
-    private CompletableFuture<CalculationResult> calcIntegralFuture(double min, double max, MathFunction func, int segNum, double accuracy) {
-        return CompletableFuture.supplyAsync(() -> calculateIntegral(min, max, func, segNum, accuracy));
+    private CalculationResult newResult(boolean success, double result, double error, long[] taskTimes, String failureReason) {
+        return new CalculationResult(success, result, error, evaluationCount.sum(), iterationCount.sum(), taskTimes, failureReason);
+    }
+
+    private CompletableFuture<CalculationResult> calcIntegralFuture(double min, double max, MathFunction func, int segNum, double accuracy,
+                                                                   Executor executor, long[] taskTimes, int taskIndex) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                return calculateIntegral(min, max, func, segNum, accuracy);
+            } finally {
+                taskTimes[taskIndex] = System.nanoTime() - start;
+            }
+        }, executor);
     }
 
     private CalculationResult calculateIntegral(double min, double max, MathFunction func, int segNum, double accuracy){
@@ -142,15 +163,16 @@ class Integral {
         double dx = (max-min)/segNum*1.0;
         double old_result = 0.0;
         double result = 0.5*(func.getF(min) + func.getF(max));
-        boolean success = true;
         long iteration_count = 0;
+        // difference of the last two approximations
+        double err = Double.NaN;
+        evaluationCount.add(2);
         try {
 
-            for (int i = 1; i < segNum; i++) {
-                result += func.getF(min + i * dx);
-            }
+            result += BatchEvaluator.sum(func, min + dx, dx, segNum - 1);
+            evaluationCount.add(Math.max(0, segNum - 1));
             result = result * dx;
-            double err = Math.max(1, Math.abs(result));
+            err = Math.max(1, Math.abs(result));
 
             while (err > Math.abs(accuracy * result)) {
                 old_result = result;
@@ -158,27 +180,29 @@ class Integral {
                 segments = segments * 2;
                 err = Math.abs(result - old_result);
                 ++iteration_count;
+                iterationCount.increment();
                 if (iteration_count > this.maxIterationCount) {
                     throw new ArithmeticException("Maximum iteration count");
                 }
+                if (this.isCancelled) {
+                    throw new CancellationException("Calculation is cancelled");
+                }
             }
         } catch (Exception ex) {
-            success = false;
-            result = 0.0;
+            return new CalculationResult(false, 0.0, Double.NaN, 0, iteration_count, null, ex.getMessage());
+        }
+        if (Double.isNaN(result)) {
+            return new CalculationResult(false, result, Double.NaN, 0, iteration_count, null, "Result is NaN");
         }
-        success = !Double.isNaN(result);
-        System.out.println(min + " , " + max + " " + result);
-        return new CalculationResult(success, result);
+        return new CalculationResult(true, result, err);
     }
 
     private double calculateRectangle(double min, double max, MathFunction func, int segNum, double rectPointPosition) {
         double dx = (max-min)/segNum*1.0;
         double result = 0.0;
-        boolean success = true;
         double start_point = min + rectPointPosition * dx;
-        for(int i =0; i<segNum; i++) {
-            result+=func.getF(start_point + i*dx);
-        }
+        result = BatchEvaluator.sum(func, start_point, dx, segNum);
+        evaluationCount.add(segNum);
         result = result*dx;
         return result;
     }
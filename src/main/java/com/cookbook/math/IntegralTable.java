@@ -0,0 +1,179 @@
+package com.cookbook.math;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * ThreadSafe, immutable
+ * Precomputed cumulative integral F(x) = integral from min to x over uniform knots
+ * Between knots F is interpolated by cubic Hermite polynomial, F'(x) = f(x) is known exactly at knots
+ * so integral for any [a, b] inside domain is F(b) - F(a) and it's calculated in constant time
+ */
+public final class IntegralTable {
+
+    private final double min;
+    private final double max;
+    private final double h;
+    private final int panels;
+    // cumulative integral values at knots
+    private final double[] integrals;
+    // function values at knots
+    private final double[] values;
+    private final double tolerance;
+
+
+    private IntegralTable(double min, double max, int panels, double[] integrals, double[] values, double tolerance) {
+        this.min = min;
+        this.max = max;
+        this.h = (max - min) / panels;
+        this.panels = panels;
+        this.integrals = integrals;
+        this.values = values;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Static factory, table is built in parallel
+     * @param func - function for integral calculating
+     * @param min - minimum domain limit
+     * @param max - maximum domain limit
+     * @param panels - count of segments between knots
+     * @param taskNum - count of CompletableFuture object for building
+     * @param executor - executor for building tasks
+     * @return new IntegralTable object
+     * @throws IllegalArgumentException
+     */
+    static IntegralTable newInstance(MathFunction func, double min, double max, int panels, int taskNum, Executor executor) throws IllegalArgumentException {
+        if (min >= max) {
+            throw new IllegalArgumentException("Bad values for min-max parameters");
+        }
+        if (panels <= 0) {
+            throw new IllegalArgumentException("Panel num must be positive");
+        }
+        if (taskNum <= 0) {
+            throw new IllegalArgumentException("Task num must be positive");
+        }
+        double h = (max - min) / panels;
+        double[] values = new double[panels + 1];
+        double[] panelIntegrals = new double[panels];
+        // max quadrature and interpolation errors for every task, task writes only its own cells
+        double[] taskErrors = new double[taskNum];
+        double[] interpolationErrors = new double[taskNum];
+
+        List<CompletableFuture<Void>> futureList = new ArrayList<>();
+        int panelsToTask = (panels + taskNum - 1) / taskNum;
+        for (int t = 0; t < taskNum; t++) {
+            int task = t;
+            int from = t * panelsToTask;
+            int to = Math.min(panels, from + panelsToTask);
+            if (from >= to) {
+                break;
+            }
+            futureList.add(CompletableFuture.runAsync(() ->
+                    buildPanels(func, min, h, from, to, values, panelIntegrals, taskErrors, interpolationErrors, task), executor));
+        }
+        CompletableFuture.allOf(futureList.toArray(new CompletableFuture<?>[0])).join();
+
+        double[] integrals = new double[panels + 1];
+        for (int i = 0; i < panels; i++) {
+            integrals[i + 1] = integrals[i] + panelIntegrals[i];
+        }
+        double error = 0.0;
+        double interpolationError = 0.0;
+        for (int t = 0; t < taskNum; t++) {
+            error = Math.max(error, taskErrors[t]);
+            interpolationError = Math.max(interpolationError, interpolationErrors[t]);
+        }
+        double tolerance = 2 * interpolationError + panels * error;
+        if (Double.isNaN(tolerance)) {
+            throw new ArithmeticException("Function value is NaN");
+        }
+        return new IntegralTable(min, max, panels, integrals, values, tolerance);
+    }
+
+    // calculate knot values and panel integrals for panels [from, to), write max quadrature error and max interpolation error of task
+    // panel integral is sum of its halves, so interpolation is checked at panel center against the left half without extra work
+    private static void buildPanels(MathFunction func, double min, double h, int from, int to, double[] values, double[] panelIntegrals,
+                                    double[] taskErrors, double[] interpolationErrors, int task) {
+        double error = 0.0;
+        double interpolationError = 0.0;
+        double left = min + from * h;
+        double fLeft = func.getF(left);
+        for (int i = from; i < to; i++) {
+            double right = min + (i + 1) * h;
+            double center = 0.5 * (left + right);
+            double fRight = func.getF(right);
+            GaussKronrod.Segment leftHalf = GaussKronrod.integrate(func, left, center);
+            GaussKronrod.Segment rightHalf = GaussKronrod.integrate(func, center, right);
+            values[i] = fLeft;
+            panelIntegrals[i] = leftHalf.result + rightHalf.result;
+            error = Math.max(error, leftHalf.error + rightHalf.error);
+            // cubic Hermite value at panel center relative to the left knot
+            double interpolated = 0.5 * panelIntegrals[i] + h / 8 * (fLeft - fRight);
+            interpolationError = Math.max(interpolationError, Math.abs(interpolated - leftHalf.result));
+            left = right;
+            fLeft = fRight;
+        }
+        if (to == values.length - 1) {
+            values[to] = fLeft;
+        }
+        taskErrors[task] = error;
+        interpolationErrors[task] = interpolationError;
+    }
+
+    /**
+     * Get integral value
+     * @param a - minimum integration limit, it must be inside table domain
+     * @param b - maximum integration limit, it must be inside table domain
+     * @return integral value, it differs from exact value not more than getTolerance()
+     * @throws IllegalArgumentException
+     */
+    public double getIntegral(double a, double b) throws IllegalArgumentException {
+        if (a < min || a > max || b < min || b > max) {
+            throw new IllegalArgumentException("Integration limits are out of table domain");
+        }
+        return getCumulative(b) - getCumulative(a);
+    }
+
+    // cubic Hermite interpolation of cumulative integral
+    private double getCumulative(double x) {
+        int i = (int) ((x - min) / h);
+        if (i >= panels) {
+            i = panels - 1;
+        }
+        double t = (x - (min + i * h)) / h;
+        double t2 = t * t;
+        double t3 = t2 * t;
+        return (2 * t3 - 3 * t2 + 1) * integrals[i]
+                + (t3 - 2 * t2 + t) * h * values[i]
+                + (-2 * t3 + 3 * t2) * integrals[i + 1]
+                + (t3 - t2) * h * values[i + 1];
+    }
+
+    /**
+     * @return estimated max absolute error of getIntegral()
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "IntegralTable{" +
+                "min=" + min +
+                ", max=" + max +
+                ", panels=" + panels +
+                ", tolerance=" + tolerance +
+                '}';
+    }
+}
@@ -0,0 +1,13 @@
+package com.cookbook.math;
+
+/**
+ * Integration methods available at FunctionWrapper.getIntegral
+ */
+public enum IntegrationMethod {
+    // The Trapezoidal Rule with uniform refinement
+    TRAPEZOIDAL,
+    // adaptive Gauss-Kronrod 7/15 quadrature
+    GAUSS_KRONROD,
+    // Romberg method, trapezoid sums with Richardson extrapolation
+    ROMBERG
+}
@@ -0,0 +1,13 @@
+package com.cookbook.math;
+
+/**
+ * N dimensions function y = f(x1...xN)
+ */
+public interface MultiFunction {
+
+    /**
+     * Implementation must not change x
+     */
+    double getF(double[] x);
+
+}
@@ -0,0 +1,240 @@
+package com.cookbook.math;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * NotThreadSafe
+ * it's wrapper for N dimensions function
+ * Gradient, velocity and lookahead buffers are created once, optimizer iterations don't allocate memory
+ *
+ * **/
+public class NFunctionWrapper {
+
+    // numeric gradient is calculated in parallel if dimension is not less than this value
+    private static final int parallel_dimension = 1 << 10;
+
+    private final MultiFunction func;
+    private final int dimension;
+    private final NumericGradient numericGradient;
+    private final double[] gradient;
+    private final double[] sampleGradient;
+    private final double[] velocity;
+    private final double[] lookahead;
+
+
+    private NFunctionWrapper(MultiFunction func, int dimension, ForkJoinPool pool) {
+        this.func = func;
+        this.dimension = dimension;
+        this.numericGradient = new NumericGradient(func, dimension,
+                dimension >= parallel_dimension ? pool : null, pool == null ? 0 : pool.getParallelism());
+        this.gradient = new double[dimension];
+        this.sampleGradient = new double[dimension];
+        this.velocity = new double[dimension];
+        this.lookahead = new double[dimension];
+    }
+
+    //static factory
+    public static NFunctionWrapper newInstance(MultiFunction func, int dimension) {
+        return newInstance(func, dimension, null);
+    }
+
+    /**
+     * Static factory
+     * @param func - function for minimum searching
+     * @param dimension - count of function arguments
+     * @param pool - pool for numeric gradient calculating, it's used for big dimensions only. Can be null
+     * @return new NFunctionWrapper object
+     */
+    public static NFunctionWrapper newInstance(MultiFunction func, int dimension, ForkJoinPool pool) {
+        if (func == null) {
+            throw new IllegalArgumentException("Function must be not null");
+        }
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("Dimension must be positive");
+        }
+        return new NFunctionWrapper(func, dimension, pool);
+    }
+
+    /**
+     * Find minimum with Momentum method
+     * v = momentum * v - learningRate * grad(x), x = x + v
+     * @param start - start point, it isn't changed
+     * @param learningRate - learning rate
+     * @param momentum - momentum coefficient from [0, 1)
+     * @param maxIteration - max iteration count
+     * @param accuracy - calculating stops when gradient norm is less than accuracy
+     * @return VectorCalculationResult
+     */
+    public VectorCalculationResult getMinimumMomentum(double[] start, double learningRate, double momentum, long maxIteration, double accuracy) {
+        double[] x = prepare(start, learningRate, momentum, maxIteration, accuracy);
+        long iteration_count = 0;
+        boolean success = false;
+        while (iteration_count < maxIteration) {
+            ++iteration_count;
+            calculateGradient(x, gradient);
+            if (norm(gradient) < accuracy) {
+                success = true;
+                break;
+            }
+            for (int i = 0; i < dimension; i++) {
+                velocity[i] = momentum * velocity[i] - learningRate * gradient[i];
+                x[i] += velocity[i];
+            }
+        }
+        return result(success, x, iteration_count);
+    }
+
+    /**
+     * Find minimum with Nesterov Accelerated Gradient method
+     * v = momentum * v - learningRate * grad(x + momentum * v), x = x + v
+     * @param start - start point, it isn't changed
+     * @param learningRate - learning rate
+     * @param momentum - momentum coefficient from [0, 1)
+     * @param maxIteration - max iteration count
+     * @param accuracy - calculating stops when gradient norm is less than accuracy
+     * @return VectorCalculationResult
+     */
+    public VectorCalculationResult getMinimumNesterov(double[] start, double learningRate, double momentum, long maxIteration, double accuracy) {
+        double[] x = prepare(start, learningRate, momentum, maxIteration, accuracy);
+        long iteration_count = 0;
+        boolean success = false;
+        while (iteration_count < maxIteration) {
+            ++iteration_count;
+            for (int i = 0; i < dimension; i++) {
+                lookahead[i] = x[i] + momentum * velocity[i];
+            }
+            calculateGradient(lookahead, gradient);
+            if (norm(gradient) < accuracy) {
+                System.arraycopy(lookahead, 0, x, 0, dimension);
+                success = true;
+                break;
+            }
+            for (int i = 0; i < dimension; i++) {
+                velocity[i] = momentum * velocity[i] - learningRate * gradient[i];
+                x[i] += velocity[i];
+            }
+        }
+        return result(success, x, iteration_count);
+    }
+
+    /**
+     * Find minimum with mini-batch Stochastic Gradient Descent
+     * Function must implement SampledMultiFunction, every step uses gradient of batchSize random samples
+     * @param start - start point, it isn't changed
+     * @param learningRate - learning rate
+     * @param batchSize - count of samples in mini-batch
+     * @param maxIteration - max iteration count
+     * @param accuracy - calculating stops when mini-batch gradient norm is less than accuracy
+     * @param seed - seed for samples choosing
+     * @return VectorCalculationResult
+     */
+    public VectorCalculationResult getMinimumSgd(double[] start, double learningRate, int batchSize, long maxIteration, double accuracy, long seed) {
+        if (!(func instanceof SampledMultiFunction)) {
+            throw new IllegalArgumentException("SGD needs SampledMultiFunction");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        SampledMultiFunction sampledFunc = (SampledMultiFunction) func;
+        int sampleCount = sampledFunc.getSampleCount();
+        double[] x = prepare(start, learningRate, 0.0, maxIteration, accuracy);
+        SplittableRandom random = new SplittableRandom(seed);
+        long iteration_count = 0;
+        boolean success = false;
+        while (iteration_count < maxIteration) {
+            ++iteration_count;
+            for (int i = 0; i < dimension; i++) {
+                gradient[i] = 0.0;
+            }
+            for (int b = 0; b < batchSize; b++) {
+                sampledFunc.getGradient(x, random.nextInt(sampleCount), sampleGradient);
+                for (int i = 0; i < dimension; i++) {
+                    gradient[i] += sampleGradient[i];
+                }
+            }
+            for (int i = 0; i < dimension; i++) {
+                gradient[i] /= batchSize;
+            }
+            if (norm(gradient) < accuracy) {
+                success = true;
+                break;
+            }
+            for (int i = 0; i < dimension; i++) {
+                x[i] -= learningRate * gradient[i];
+            }
+        }
+        return result(success, x, iteration_count);
+    }
+
+    /**
+     * Calculate integral over box domain with randomized quasi-Monte Carlo method
+     * Every replicate is a Halton sequence with its own random shift and it runs as fork/join task
+     * @param lower - minimum integration limits for every dimension
+     * @param upper - maximum integration limits for every dimension
+     * @param accuracy - calculating stops when standard error is less than accuracy * max(1, |result|)
+     * @param maxPointNum - max count of points for every replicate
+     * @param replicateNum - count of replicates (parallel tasks), it must be 2 or more
+     * @param seed - seed for random shifts
+     * @param pool - fork/join pool for calculating
+     * @return CalculationResult, error is standard error estimate
+     */
+    public CalculationResult getIntegral(double[] lower, double[] upper, double accuracy, long maxPointNum,
+                                         int replicateNum, long seed, ForkJoinPool pool) {
+        if (lower == null || lower.length != dimension) {
+            throw new IllegalArgumentException("Bad dimension of integration limits");
+        }
+        return QuasiMonteCarloIntegral.newInstance(func, lower, upper).calculate(accuracy, maxPointNum, replicateNum, seed, pool);
+    }
+
+    // check parameters, reset velocity and return copy of start point
+    private double[] prepare(double[] start, double learningRate, double momentum, long maxIteration, double accuracy) {
+        if (start == null || start.length != dimension) {
+            throw new IllegalArgumentException("Bad start point dimension");
+        }
+        if (learningRate <= 0) {
+            throw new IllegalArgumentException("Learning rate must be positive");
+        }
+        if (momentum < 0 || momentum >= 1) {
+            throw new IllegalArgumentException("Bad value for momentum");
+        }
+        if (maxIteration <= 0) {
+            throw new IllegalArgumentException("Bad value for max iteration count");
+        }
+        if (accuracy <= 0) {
+            throw new IllegalArgumentException("Bad value for accuracy");
+        }
+        for (int i = 0; i < dimension; i++) {
+            velocity[i] = 0.0;
+        }
+        double[] x = new double[dimension];
+        System.arraycopy(start, 0, x, 0, dimension);
+        return x;
+    }
+
+    private void calculateGradient(double[] x, double[] gradient) {
+        if (func instanceof GradientMultiFunction) {
+            ((GradientMultiFunction) func).getGradient(x, gradient);
+        } else {
+            numericGradient.calculate(x, gradient);
+        }
+    }
+
+    private VectorCalculationResult result(boolean success, double[] x, long iteration_count) {
+        double value = func.getF(x);
+        String failureReason = !success ? "Maximum iteration count" : Double.isNaN(value) ? "Result is NaN" : null;
+        return new VectorCalculationResult(failureReason == null, value, x, iteration_count, failureReason);
+    }
+
+    private static double norm(double[] v) {
+        double result = 0.0;
+        for (double value : v) {
+            result += value * value;
+        }
+        return Math.sqrt(result);
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+}
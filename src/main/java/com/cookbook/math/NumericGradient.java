@@ -0,0 +1,94 @@
+package com.cookbook.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// package private class
+// gradient with central differences, coordinates are divided between fork/join tasks for big dimensions
+// all buffers and tasks are created once and reused at every step
+final class NumericGradient {
+
+    // step for central differences is cbrt(machine epsilon) * max(1, |x|)
+    private static final double step_coeff = Math.cbrt(Math.ulp(1.0));
+
+    private final MultiFunction func;
+    private final ForkJoinPool pool;
+    private final ChunkTask[] tasks;
+    private final RootTask root = new RootTask();
+    private double[] x;
+    private double[] gradient;
+
+
+    NumericGradient(MultiFunction func, int dimension, ForkJoinPool pool, int taskNum) {
+        this.func = func;
+        this.pool = pool;
+        this.tasks = new ChunkTask[pool == null ? 0 : taskNum];
+        int chunk = tasks.length == 0 ? 0 : (dimension + tasks.length - 1) / tasks.length;
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new ChunkTask(new double[dimension], Math.min(dimension, i * chunk), Math.min(dimension, (i + 1) * chunk));
+        }
+    }
+
+    static double step(double x) {
+        return step_coeff * Math.max(1.0, Math.abs(x));
+    }
+
+    /**
+     * Calculate gradient at point x, x isn't changed
+     */
+    void calculate(double[] x, double[] gradient) {
+        if (tasks.length == 0) {
+            calculate(x, gradient, 0, x.length);
+            return;
+        }
+        this.x = x;
+        this.gradient = gradient;
+        root.reinitialize();
+        pool.invoke(root);
+    }
+
+    // x is changed while calculating, but it's restored for every coordinate
+    private void calculate(double[] x, double[] gradient, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double xi = x[i];
+            double h = step(xi);
+            x[i] = xi + h;
+            double f1 = func.getF(x);
+            x[i] = xi - h;
+            double f2 = func.getF(x);
+            x[i] = xi;
+            gradient[i] = (f1 - f2) / (2 * h);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private final class RootTask extends RecursiveAction {
+        @Override
+        protected void compute() {
+            for (ChunkTask task : tasks) {
+                task.reinitialize();
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    // every task has its own copy of point, because coordinates are changed while calculating
+    @SuppressWarnings("serial")
+    private final class ChunkTask extends RecursiveAction {
+        private final double[] point;
+        private final int from;
+        private final int to;
+
+        ChunkTask(double[] point, int from, int to) {
+            this.point = point;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            System.arraycopy(x, 0, point, 0, point.length);
+            calculate(point, gradient, from, to);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.cookbook.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+// package private class
+// adaptive Gauss-Kronrod 7/15 quadrature on fork/join pool
+// segment is divided recursively while its local error is too high, idle workers steal divided segments
+class ParallelIntegral {
+
+    private final MathFunction func;
+    private final double min;
+    private final double max;
+    private final int maxDepth;
+    private final LongAdder divisionCount = new LongAdder();
+
+
+    private ParallelIntegral(MathFunction func, double min, double max, int maxDepth) {
+        this.func = func;
+        this.min = min;
+        this.max = max;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Static factory
+     * @param func - function for integral calculating
+     * @param min - minimum integration limit
+     * @param max - maximum integration limit
+     * @param maxDepth - max depth of segment divisions. For preventing endless recursion
+     * @return new ParallelIntegral object
+     * @throws IllegalArgumentException
+     */
+    public static ParallelIntegral newInstance(MathFunction func, double min, double max, int maxDepth) throws IllegalArgumentException {
+        if (min >= max) {
+            throw new IllegalArgumentException("Bad values for min-max parameters");
+        }
+        if (maxDepth <= 0) {
+            throw new IllegalArgumentException("Bad value for max depth");
+        }
+        return new ParallelIntegral(func, min, max, maxDepth);
+    }
+
+    /**
+     * Calculate integral
+     * Total tolerance is accuracy * max(1, |result|), every segment gets a part of tolerance in proportion to its length
+     * @param pool - fork/join pool for calculating. It isn't shut down after calculating
+     * @param accuracy - calculation accuracy
+     * @return CalculationResult with integral value and error estimate
+     */
+    public CalculationResult calculate(ForkJoinPool pool, double accuracy) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must be not null");
+        }
+        if (accuracy <= 0) {
+            throw new IllegalArgumentException("Bad value for accuracy");
+        }
+        try {
+            GaussKronrod.Segment first = GaussKronrod.integrate(func, min, max);
+            double tolerance = accuracy * Math.max(1.0, Math.abs(first.result));
+            SegmentTask task = new SegmentTask(first, tolerance / (max - min), 0);
+            SegmentResult result = pool.invoke(task);
+            String failureReason = !result.success ? "Maximum depth" : Double.isNaN(result.value) ? "Result is NaN" : null;
+            return newResult(failureReason == null, result.value, result.error, failureReason);
+        } catch (RuntimeException ex) {
+            return newResult(false, 0.0, Double.NaN, ex.getMessage());
+        }
+    }
+
+    // every division integrates two segments
+    private CalculationResult newResult(boolean success, double result, double err, String failureReason) {
+        long divisions = divisionCount.sum();
+        return new CalculationResult(success, result, err, GaussKronrod.point_num * (1 + 2 * divisions), divisions, null, failureReason);
+    }
+
+    @SuppressWarnings("serial")
+    private final class SegmentTask extends RecursiveTask<SegmentResult> {
+
+        private final GaussKronrod.Segment segment;
+        // tolerance per unit length
+        private final double density;
+        private final int depth;
+
+        SegmentTask(GaussKronrod.Segment segment, double density, int depth) {
+            this.segment = segment;
+            this.density = density;
+            this.depth = depth;
+        }
+
+        @Override
+        protected SegmentResult compute() {
+            if (segment.error <= density * (segment.max - segment.min)) {
+                return new SegmentResult(true, segment.result, segment.error);
+            }
+            double center = 0.5 * (segment.min + segment.max);
+            if (depth >= maxDepth || center <= segment.min || center >= segment.max) {
+                return new SegmentResult(false, segment.result, segment.error);
+            }
+            divisionCount.increment();
+            SegmentTask left = new SegmentTask(GaussKronrod.integrate(func, segment.min, center), density, depth + 1);
+            SegmentTask right = new SegmentTask(GaussKronrod.integrate(func, center, segment.max), density, depth + 1);
+            left.fork();
+            SegmentResult rightResult = right.compute();
+            SegmentResult leftResult = left.join();
+            return new SegmentResult(leftResult.success && rightResult.success,
+                    leftResult.value + rightResult.value, leftResult.error + rightResult.error);
+        }
+    }
+
+    private static final class SegmentResult {
+        final boolean success;
+        final double value;
+        final double error;
+
+        SegmentResult(boolean success, double value, double error) {
+            this.success = success;
+            this.value = value;
+            this.error = error;
+        }
+    }
+}
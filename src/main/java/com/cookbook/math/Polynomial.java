@@ -0,0 +1,83 @@
+package com.cookbook.math;
+
+import java.util.Arrays;
+
+/**
+ * Polynomial y = c[0] + c[1]*x + ... + c[n]*x^n
+ * Bulk evaluation uses Horner scheme over SIMD lanes of jdk.incubator.vector when the module is resolved
+ * (run with --add-modules jdk.incubator.vector), otherwise the inner loop is over points, so JIT can vectorize it
+ */
+public final class Polynomial implements BatchMathFunction {
+
+    private static final boolean vectorized = isVectorModuleResolved();
+
+    private final double[] coefficients;
+
+    private Polynomial(double[] coefficients) {
+        this.coefficients = coefficients;
+    }
+
+    /**
+     * Static factory
+     * @param coefficients - coefficients from x^0 to x^n
+     * @return new Polynomial object
+     * @throws IllegalArgumentException
+     */
+    public static Polynomial newInstance(double... coefficients) throws IllegalArgumentException {
+        if (coefficients == null || coefficients.length == 0) {
+            throw new IllegalArgumentException("Polynomial must have coefficients");
+        }
+        return new Polynomial(Arrays.copyOf(coefficients, coefficients.length));
+    }
+
+    @Override
+    public double getF(double x) {
+        double result = coefficients[coefficients.length - 1];
+        for (int i = coefficients.length - 2; i >= 0; i--) {
+            result = result * x + coefficients[i];
+        }
+        return result;
+    }
+
+    @Override
+    public void getF(double[] xs, double[] out, int n) {
+        if (vectorized) {
+            PolynomialVectorKernel.evaluate(coefficients, xs, out, n);
+            return;
+        }
+        double last = coefficients[coefficients.length - 1];
+        for (int j = 0; j < n; j++) {
+            out[j] = last;
+        }
+        for (int i = coefficients.length - 2; i >= 0; i--) {
+            double c = coefficients[i];
+            for (int j = 0; j < n; j++) {
+                out[j] = out[j] * xs[j] + c;
+            }
+        }
+    }
+
+    static boolean isVectorized() {
+        return vectorized;
+    }
+
+    private static boolean isVectorModuleResolved() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            // initialization of the kernel fails if vector classes can't be linked
+            Class.forName(PolynomialVectorKernel.class.getName(), true, Polynomial.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Polynomial{" +
+                "coefficients=" + Arrays.toString(coefficients) +
+                '}';
+    }
+}
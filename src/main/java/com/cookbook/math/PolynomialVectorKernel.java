@@ -0,0 +1,39 @@
+package com.cookbook.math;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Horner scheme over SIMD lanes of jdk.incubator.vector, rest of points is evaluated by scalar loop.
+ * Class links only when the module is resolved (--add-modules jdk.incubator.vector), Polynomial checks it before use.
+ * Multiply and add aren't fused, so results are the same as of scalar Polynomial.getF(double)
+ */
+final class PolynomialVectorKernel {
+
+    private static final VectorSpecies<Double> species = DoubleVector.SPECIES_PREFERRED;
+
+    private PolynomialVectorKernel() {
+    }
+
+    static void evaluate(double[] coefficients, double[] xs, double[] out, int n) {
+        int last = coefficients.length - 1;
+        int bound = species.loopBound(n);
+        int j = 0;
+        for (; j < bound; j += species.length()) {
+            DoubleVector x = DoubleVector.fromArray(species, xs, j);
+            DoubleVector result = DoubleVector.broadcast(species, coefficients[last]);
+            for (int i = last - 1; i >= 0; i--) {
+                result = result.mul(x).add(coefficients[i]);
+            }
+            result.intoArray(out, j);
+        }
+        for (; j < n; j++) {
+            double x = xs[j];
+            double result = coefficients[last];
+            for (int i = last - 1; i >= 0; i--) {
+                result = result * x + coefficients[i];
+            }
+            out[j] = result;
+        }
+    }
+}
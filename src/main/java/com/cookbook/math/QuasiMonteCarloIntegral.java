@@ -0,0 +1,214 @@
+package com.cookbook.math;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+// package private class
+// randomized quasi-Monte Carlo integration over box domain
+// every replicate uses Halton sequence with its own random shift (SplittableRandom stream) and runs as fork/join task.
+// Replicates are independent, so standard error is estimated from their spread
+class QuasiMonteCarloIntegral {
+
+    private static final long start_point_num = 1 << 10;
+
+    private final MultiFunction func;
+    private final double[] lower;
+    private final double[] upper;
+    private final int dimension;
+    private final double volume;
+    private final int[] bases;
+
+
+    private QuasiMonteCarloIntegral(MultiFunction func, double[] lower, double[] upper) {
+        this.func = func;
+        this.lower = lower.clone();
+        this.upper = upper.clone();
+        this.dimension = lower.length;
+        double volume = 1.0;
+        for (int i = 0; i < dimension; i++) {
+            volume *= upper[i] - lower[i];
+        }
+        this.volume = volume;
+        this.bases = primes(dimension);
+    }
+
+    /**
+     * Static factory
+     * @param func - function for integral calculating
+     * @param lower - minimum integration limits for every dimension
+     * @param upper - maximum integration limits for every dimension
+     * @return new QuasiMonteCarloIntegral object
+     * @throws IllegalArgumentException
+     */
+    public static QuasiMonteCarloIntegral newInstance(MultiFunction func, double[] lower, double[] upper) throws IllegalArgumentException {
+        if (lower == null || upper == null || lower.length == 0 || lower.length != upper.length) {
+            throw new IllegalArgumentException("Bad dimension of integration limits");
+        }
+        for (int i = 0; i < lower.length; i++) {
+            if (lower[i] >= upper[i]) {
+                throw new IllegalArgumentException("Bad values for min-max parameters");
+            }
+        }
+        return new QuasiMonteCarloIntegral(func, lower, upper);
+    }
+
+    /**
+     * Calculate integral
+     * Point count of every replicate is doubled at every round until standard error is less than accuracy * max(1, |result|)
+     * @param accuracy - calculation accuracy
+     * @param maxPointNum - max count of points for every replicate
+     * @param replicateNum - count of replicates, it's count of parallel tasks too. It must be 2 or more
+     * @param seed - seed for random shifts
+     * @param pool - fork/join pool for calculating
+     * @return CalculationResult, error is standard error estimate
+     */
+    public CalculationResult calculate(double accuracy, long maxPointNum, int replicateNum, long seed, ForkJoinPool pool) {
+        if (accuracy <= 0) {
+            throw new IllegalArgumentException("Bad value for accuracy");
+        }
+        if (replicateNum < 2) {
+            throw new IllegalArgumentException("Replicate num must be 2 or more");
+        }
+        if (maxPointNum <= 0) {
+            throw new IllegalArgumentException("Bad value for max point count");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        ReplicateTask[] tasks = new ReplicateTask[replicateNum];
+        for (int r = 0; r < replicateNum; r++) {
+            tasks[r] = new ReplicateTask(random.split());
+        }
+
+        long from = 0;
+        long to = Math.min(start_point_num, maxPointNum);
+        double result = 0.0;
+        double err = Double.NaN;
+        long iteration_count = 0;
+        while (from < to) {
+            ++iteration_count;
+            for (ReplicateTask task : tasks) {
+                task.prepare(from, to);
+            }
+            pool.invoke(new RoundTask(tasks));
+
+            double sum = 0.0;
+            double sumSquares = 0.0;
+            for (ReplicateTask task : tasks) {
+                double estimate = task.sum * volume / to;
+                sum += estimate;
+                sumSquares += estimate * estimate;
+            }
+            result = sum / replicateNum;
+            double variance = Math.max(0.0, (sumSquares - replicateNum * result * result) / (replicateNum - 1));
+            err = Math.sqrt(variance / replicateNum);
+            if (Double.isNaN(result)) {
+                return newResult(false, result, err, to, iteration_count, tasks, "Result is NaN");
+            }
+            if (err <= accuracy * Math.max(1.0, Math.abs(result))) {
+                return newResult(true, result, err, to, iteration_count, tasks, null);
+            }
+            from = to;
+            to = Math.min(2 * to, maxPointNum);
+        }
+        return newResult(false, result, err, to, iteration_count, tasks, "Maximum point count");
+    }
+
+    // every replicate calculates function at pointNum points
+    private static CalculationResult newResult(boolean success, double result, double err, long pointNum, long iteration_count,
+                                               ReplicateTask[] tasks, String failureReason) {
+        long[] taskTimes = new long[tasks.length];
+        for (int r = 0; r < tasks.length; r++) {
+            taskTimes[r] = tasks[r].time;
+        }
+        return new CalculationResult(success, result, err, pointNum * tasks.length, iteration_count, taskTimes, failureReason);
+    }
+
+    // radical inverse of index in base
+    private static double radicalInverse(long index, int base) {
+        double result = 0.0;
+        double factor = 1.0 / base;
+        double digitFactor = factor;
+        while (index > 0) {
+            result += (index % base) * digitFactor;
+            index /= base;
+            digitFactor *= factor;
+        }
+        return result;
+    }
+
+    private static int[] primes(int count) {
+        int[] primes = new int[count];
+        int found = 0;
+        for (int candidate = 2; found < count; candidate++) {
+            boolean prime = true;
+            for (int i = 0; i < found && primes[i] * primes[i] <= candidate; i++) {
+                if (candidate % primes[i] == 0) {
+                    prime = false;
+                    break;
+                }
+            }
+            if (prime) {
+                primes[found++] = candidate;
+            }
+        }
+        return primes;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class RoundTask extends RecursiveAction {
+        private final ReplicateTask[] tasks;
+
+        RoundTask(ReplicateTask[] tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected void compute() {
+            ForkJoinTask.invokeAll(tasks);
+        }
+    }
+
+    // replicate writes only its own sum, so partial sums are combined without locking
+    @SuppressWarnings("serial")
+    private final class ReplicateTask extends RecursiveAction {
+        private final double[] shift = new double[dimension];
+        private final double[] point = new double[dimension];
+        private long from;
+        private long to;
+        private double sum;
+        // wall time of all rounds
+        private long time;
+
+        ReplicateTask(SplittableRandom random) {
+            for (int i = 0; i < dimension; i++) {
+                shift[i] = random.nextDouble();
+            }
+        }
+
+        void prepare(long from, long to) {
+            this.from = from;
+            this.to = to;
+            reinitialize();
+        }
+
+        @Override
+        protected void compute() {
+            long start = System.nanoTime();
+            double partial = 0.0;
+            for (long n = from; n < to; n++) {
+                for (int i = 0; i < dimension; i++) {
+                    // Halton point is started from index 1, shift modulo 1
+                    double u = radicalInverse(n + 1, bases[i]) + shift[i];
+                    if (u >= 1.0) {
+                        u -= 1.0;
+                    }
+                    point[i] = lower[i] + (upper[i] - lower[i]) * u;
+                }
+                partial += func.getF(point);
+            }
+            sum += partial;
+            time += System.nanoTime() - start;
+        }
+    }
+}
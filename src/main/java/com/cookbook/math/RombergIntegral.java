@@ -0,0 +1,87 @@
+package com.cookbook.math;
+
+// package private class
+// Romberg method: trapezoid sums are refined with new points only and extrapolated by Richardson
+class RombergIntegral {
+
+    // 2^max_level segments on the last level
+    private static final int max_level = 30;
+
+    private final MathFunction func;
+    private final double min;
+    private final double max;
+    private final int maxLevel;
+
+
+    private RombergIntegral(MathFunction func, double min, double max, int maxLevel) {
+        this.func = func;
+        this.min = min;
+        this.max = max;
+        this.maxLevel = maxLevel;
+    }
+
+    /**
+     * Static factory
+     * @param func - function for integral calculating
+     * @param min - minimum integration limit
+     * @param max - maximum integration limit
+     * @param maxIterationCount - max count of refinement levels. It's limited by 30 levels
+     * @return new RombergIntegral object
+     * @throws IllegalArgumentException
+     */
+    public static RombergIntegral newInstance(MathFunction func, double min, double max, long maxIterationCount) throws IllegalArgumentException {
+        if (min >= max) {
+            throw new IllegalArgumentException("Bad values for min-max parameters");
+        }
+        if (maxIterationCount <= 0) {
+            throw new IllegalArgumentException("Bad value for max iteration count");
+        }
+        return new RombergIntegral(func, min, max, (int) Math.min(maxIterationCount, max_level));
+    }
+
+    /**
+     * Calculate integral
+     * Level k evaluates only 2^(k-1) new midpoints, previous trapezoid sum is reused.
+     * Only the last row of Romberg table is stored
+     * @param accuracy calculation accuracy, calculating stops when difference between diagonal values is less than accuracy * max(1, |result|)
+     * @return CalculationResult with integral value and error estimate
+     */
+    public CalculationResult calculate(double accuracy) {
+        if (accuracy <= 0) {
+            throw new IllegalArgumentException("Bad value for accuracy");
+        }
+        double[] previous = new double[maxLevel + 1];
+        double[] current = new double[maxLevel + 1];
+        double len = max - min;
+        previous[0] = 0.5 * len * (func.getF(min) + func.getF(max));
+        long segments = 1;
+        long evaluation_count = 2;
+
+        for (int level = 1; level <= maxLevel; level++) {
+            double h = len / (2 * segments);
+            double sum = BatchEvaluator.sum(func, min + h, 2 * h, segments);
+            evaluation_count += segments;
+            current[0] = 0.5 * previous[0] + h * sum;
+            segments *= 2;
+
+            double factor = 1.0;
+            for (int j = 1; j <= level; j++) {
+                factor *= 4.0;
+                current[j] = current[j - 1] + (current[j - 1] - previous[j - 1]) / (factor - 1.0);
+            }
+
+            double result = current[level];
+            double err = Math.abs(result - previous[level - 1]);
+            if (Double.isNaN(result)) {
+                return new CalculationResult(false, result, err, evaluation_count, level, null, "Result is NaN");
+            }
+            if (err <= accuracy * Math.max(1.0, Math.abs(result))) {
+                return new CalculationResult(true, result, err, evaluation_count, level, null, null);
+            }
+            double[] tmp = previous;
+            previous = current;
+            current = tmp;
+        }
+        return new CalculationResult(false, previous[maxLevel], Double.NaN, evaluation_count, maxLevel, null, "Maximum iteration count");
+    }
+}
@@ -0,0 +1,46 @@
+package com.cookbook.math;
+
+/**
+ * N dimensions function presented as mean of sample functions: f(x) = (f_0(x) + ... + f_m-1(x)) / m
+ * It's used by mini-batch SGD
+ */
+public interface SampledMultiFunction extends MultiFunction {
+
+    int getSampleCount();
+
+    /**
+     * @return value of sample function with index sample at point x. Implementation must not change x
+     */
+    double getF(double[] x, int sample);
+
+    @Override
+    default double getF(double[] x) {
+        int count = getSampleCount();
+        double result = 0.0;
+        for (int i = 0; i < count; i++) {
+            result += getF(x, i);
+        }
+        return result / count;
+    }
+
+    /**
+     * Calculate gradient of sample function with central differences
+     * x is changed while calculating, but it's restored before return, so there's no allocation
+     * @param x - point
+     * @param sample - sample index
+     * @param gradient - array for gradient values
+     */
+    default void getGradient(double[] x, int sample, double[] gradient) {
+        for (int i = 0; i < x.length; i++) {
+            double xi = x[i];
+            double h = NumericGradient.step(xi);
+            x[i] = xi + h;
+            double f1 = getF(x, sample);
+            x[i] = xi - h;
+            double f2 = getF(x, sample);
+            x[i] = xi;
+            gradient[i] = (f1 - f2) / (2 * h);
+        }
+    }
+
+}
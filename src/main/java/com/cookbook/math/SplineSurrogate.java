@@ -0,0 +1,261 @@
+package com.cookbook.math;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * ThreadSafe, immutable
+ * Natural cubic spline surrogate for expensive function
+ * Knots are inserted adaptively until spline error at every interval center is not more than tolerance.
+ * Spline can be saved to file and loaded by memory mapping, values are read directly from mapped buffer,
+ * so loading is instant and evaluation doesn't allocate memory
+ *
+ * File format (big-endian): int magic, int version, int knot count, int reserved, double error,
+ * then knots x, values y and second derivatives m, knot count doubles each
+ */
+public final class SplineSurrogate implements MathFunction {
+
+    private static final int magic = 0x43535031;
+    private static final int version = 1;
+    private static final int header_size = 24;
+    private static final int start_knot_num = 17;
+
+    private final int count;
+    private final double error;
+    // x, y and m arrays one by one
+    private final DoubleBuffer data;
+
+
+    private SplineSurrogate(int count, double error, DoubleBuffer data) {
+        this.count = count;
+        this.error = error;
+        this.data = data;
+    }
+
+    /**
+     * Static factory, build spline with adaptive knot insertion
+     * @param func - function for approximation
+     * @param min - minimum domain limit
+     * @param max - maximum domain limit
+     * @param tolerance - max absolute error at interval centers
+     * @param maxKnotNum - max count of knots. For preventing endless cycle
+     * @return new SplineSurrogate object
+     * @throws IllegalArgumentException
+     * @throws ArithmeticException if tolerance isn't reached with maxKnotNum knots
+     */
+    public static SplineSurrogate newInstance(MathFunction func, double min, double max, double tolerance, int maxKnotNum)
+            throws IllegalArgumentException, ArithmeticException {
+        if (min >= max) {
+            throw new IllegalArgumentException("Bad values for min-max parameters");
+        }
+        if (tolerance <= 0) {
+            throw new IllegalArgumentException("Bad value for tolerance");
+        }
+        if (maxKnotNum < start_knot_num) {
+            throw new IllegalArgumentException("Max knot num must be " + start_knot_num + " or more");
+        }
+        int n = start_knot_num;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = i == n - 1 ? max : min + i * (max - min) / (n - 1);
+            ys[i] = func.getF(xs[i]);
+        }
+        // function values at interval centers, NaN if it isn't calculated yet
+        double[] centers = new double[n - 1];
+        Arrays.fill(centers, Double.NaN);
+
+        while (true) {
+            double[] ms = secondDerivatives(xs, ys);
+            boolean[] split = new boolean[n - 1];
+            int splitCount = 0;
+            double maxError = 0.0;
+            for (int i = 0; i < n - 1; i++) {
+                double center = 0.5 * (xs[i] + xs[i + 1]);
+                if (Double.isNaN(centers[i])) {
+                    centers[i] = func.getF(center);
+                }
+                double err = Math.abs(interpolate(xs, ys, ms, i, center) - centers[i]);
+                if (Double.isNaN(err)) {
+                    throw new ArithmeticException("Function value is NaN");
+                }
+                maxError = Math.max(maxError, err);
+                if (err > tolerance && center > xs[i] && center < xs[i + 1]) {
+                    split[i] = true;
+                    ++splitCount;
+                }
+            }
+            if (splitCount == 0) {
+                if (maxError > tolerance) {
+                    throw new ArithmeticException("Tolerance can't be reached, intervals can't be divided");
+                }
+                return newInstance(xs, ys, ms, maxError);
+            }
+            if (n + splitCount > maxKnotNum) {
+                throw new ArithmeticException("Tolerance isn't reached with max knot count, error is " + maxError);
+            }
+            // insert centers of bad intervals as knots
+            int newN = n + splitCount;
+            double[] newXs = new double[newN];
+            double[] newYs = new double[newN];
+            double[] newCenters = new double[newN - 1];
+            int j = 0;
+            for (int i = 0; i < n - 1; i++) {
+                newXs[j] = xs[i];
+                newYs[j] = ys[i];
+                if (split[i]) {
+                    newCenters[j] = Double.NaN;
+                    ++j;
+                    newXs[j] = 0.5 * (xs[i] + xs[i + 1]);
+                    newYs[j] = centers[i];
+                    newCenters[j] = Double.NaN;
+                } else {
+                    newCenters[j] = centers[i];
+                }
+                ++j;
+            }
+            newXs[j] = xs[n - 1];
+            newYs[j] = ys[n - 1];
+            xs = newXs;
+            ys = newYs;
+            centers = newCenters;
+            n = newN;
+        }
+    }
+
+    private static SplineSurrogate newInstance(double[] xs, double[] ys, double[] ms, double error) {
+        int n = xs.length;
+        double[] values = new double[3 * n];
+        System.arraycopy(xs, 0, values, 0, n);
+        System.arraycopy(ys, 0, values, n, n);
+        System.arraycopy(ms, 0, values, 2 * n, n);
+        return new SplineSurrogate(n, error, DoubleBuffer.wrap(values));
+    }
+
+    /**
+     * Load spline from file by memory mapping
+     * @param path - file path
+     * @return SplineSurrogate, its values are read from mapped file
+     * @throws IOException if file can't be read or it has bad format
+     */
+    public static SplineSurrogate load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < header_size || buffer.getInt(0) != magic || buffer.getInt(4) != version) {
+                throw new IOException("Bad spline file format: " + path);
+            }
+            int count = buffer.getInt(8);
+            if (count < 2 || buffer.capacity() != header_size + 24L * count) {
+                throw new IOException("Bad spline file length: " + path);
+            }
+            double error = buffer.getDouble(16);
+            buffer.position(header_size);
+            return new SplineSurrogate(count, error, buffer.slice().asDoubleBuffer());
+        }
+    }
+
+    /**
+     * Save spline to file, existing file is replaced
+     * @param path - file path
+     * @throws IOException
+     */
+    public void save(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(header_size + 24 * count);
+        buffer.putInt(magic).putInt(version).putInt(count).putInt(0).putDouble(error);
+        for (int i = 0; i < 3 * count; i++) {
+            buffer.putDouble(data.get(i));
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    @Override
+    public double getF(double x) {
+        // binary search of interval, points outside domain use end intervals
+        int low = 0;
+        int high = count - 1;
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (data.get(middle) > x) {
+                high = middle;
+            } else {
+                low = middle;
+            }
+        }
+        double x0 = data.get(low);
+        double x1 = data.get(high);
+        double h = x1 - x0;
+        double a = (x1 - x) / h;
+        double b = (x - x0) / h;
+        double m0 = data.get(2 * count + low);
+        double m1 = data.get(2 * count + high);
+        return a * data.get(count + low) + b * data.get(count + high)
+                + ((a * a * a - a) * m0 + (b * b * b - b) * m1) * h * h / 6.0;
+    }
+
+    // natural spline second derivatives, tridiagonal system is solved by Thomas algorithm
+    private static double[] secondDerivatives(double[] xs, double[] ys) {
+        int n = xs.length;
+        double[] ms = new double[n];
+        double[] c = new double[n];
+        double[] d = new double[n];
+        for (int i = 1; i < n - 1; i++) {
+            double h0 = xs[i] - xs[i - 1];
+            double h1 = xs[i + 1] - xs[i];
+            double diagonal = 2 * (h0 + h1) - h0 * c[i - 1];
+            c[i] = h1 / diagonal;
+            d[i] = (6 * ((ys[i + 1] - ys[i]) / h1 - (ys[i] - ys[i - 1]) / h0) - h0 * d[i - 1]) / diagonal;
+        }
+        for (int i = n - 2; i > 0; i--) {
+            ms[i] = d[i] - c[i] * ms[i + 1];
+        }
+        return ms;
+    }
+
+    private static double interpolate(double[] xs, double[] ys, double[] ms, int i, double x) {
+        double h = xs[i + 1] - xs[i];
+        double a = (xs[i + 1] - x) / h;
+        double b = (x - xs[i]) / h;
+        return a * ys[i] + b * ys[i + 1] + ((a * a * a - a) * ms[i] + (b * b * b - b) * ms[i + 1]) * h * h / 6.0;
+    }
+
+    public int getKnotCount() {
+        return count;
+    }
+
+    /**
+     * @return max error at interval centers measured while building
+     */
+    public double getError() {
+        return error;
+    }
+
+    public double getMin() {
+        return data.get(0);
+    }
+
+    public double getMax() {
+        return data.get(count - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "SplineSurrogate{" +
+                "knotCount=" + count +
+                ", min=" + getMin() +
+                ", max=" + getMax() +
+                ", error=" + error +
+                '}';
+    }
+}
@@ -0,0 +1,34 @@
+package com.cookbook.math;
+
+import java.util.Arrays;
+
+/*
+* This class presents object for store calculation result for N dimensions function
+* point is argument where result is reached
+*
+* */
+
+public class VectorCalculationResult extends CalculationResult {
+
+    private final double[] point;
+
+    public VectorCalculationResult(boolean success, double result, double[] point, long iterationCount, String failureReason) {
+        super(success, result, Double.NaN, 0, iterationCount, null, failureReason);
+        this.point = point;
+    }
+
+    public double[] getPoint() {
+        return point;
+    }
+
+    @Override
+    public String toString() {
+        return "VectorCalculationResult{" +
+                "success=" + isSuccess() +
+                ", result=" + getResult() +
+                ", iterationCount=" + getIterationCount() +
+                ", failureReason=" + getFailureReason() +
+                ", point=" + (point.length <= 10 ? Arrays.toString(point) : "[" + point.length + " values]") +
+                '}';
+    }
+}
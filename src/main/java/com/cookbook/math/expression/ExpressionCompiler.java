@@ -0,0 +1,391 @@
+package com.cookbook.math.expression;
+
+import com.cookbook.math.MathFunction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Compiler of expression strings to MathFunction
+ * Expression is parsed with constant folding, equal subexpressions are shared and calculated once.
+ * Every expression becomes a hidden class with straight-line bytecode, so JIT can inline it into
+ * integration and minimization loops like a lambda
+ *
+ * Syntax: x, numbers, pi, e, + - * / ^, parentheses and java.lang.Math functions with 1 or 2 double arguments
+ * (sin, cos, exp, log, sqrt, abs, pow, atan2, min, max...)
+ */
+public final class ExpressionCompiler {
+
+    private static final String class_name = "com/cookbook/math/expression/CompiledExpression";
+    private static final String math_class = "java/lang/Math";
+    private static final String function_interface = "com/cookbook/math/MathFunction";
+    // max bytecode length of method
+    private static final int max_code_length = 65535;
+    // source is returned by toString() from constant pool, so its modified UTF-8 length is limited too
+    private static final int max_source_length = 65535;
+
+    private static final int DCONST_0 = 0x0e;
+    private static final int DCONST_1 = 0x0f;
+    private static final int LDC = 0x12;
+    private static final int LDC_W = 0x13;
+    private static final int LDC2_W = 0x14;
+    private static final int DLOAD = 0x18;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int DSTORE = 0x39;
+    private static final int DUP2 = 0x5c;
+    private static final int DADD = 0x63;
+    private static final int DSUB = 0x67;
+    private static final int DMUL = 0x6b;
+    private static final int DDIV = 0x6f;
+    private static final int DNEG = 0x77;
+    private static final int DRETURN = 0xaf;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int WIDE = 0xc4;
+
+    private final ConstantPool pool = new ConstantPool();
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+    private final Map<Node, Integer> references = new IdentityHashMap<>();
+    private final Map<Node, Integer> locals = new IdentityHashMap<>();
+    private final Map<Node, Boolean> stored = new IdentityHashMap<>();
+    private int nextLocal = 3;
+    private int stack;
+    private int maxStack;
+
+
+    private ExpressionCompiler() {}
+
+    /**
+     * Compile expression
+     * @param expression - expression with variable x, for example "5*sin(2*x) + x^2"
+     * @return MathFunction
+     * @throws IllegalArgumentException if expression has syntax error or it's too big
+     */
+    public static MathFunction compile(String expression) throws IllegalArgumentException {
+        if (expression != null && utfLength(expression) > max_source_length) {
+            throw new IllegalArgumentException("Expression is too big: source is longer than " + max_source_length + " bytes");
+        }
+        byte[] bytes;
+        try {
+            Node root = ExpressionParser.parse(expression);
+            bytes = new ExpressionCompiler().generate(root, expression);
+        } catch (StackOverflowError ex) {
+            // parser and code generator are recursive, so too deep expression (e.g. sum of thousands of terms) ends here
+            throw new IllegalArgumentException("Expression is too big: it's nested too deep");
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return (MathFunction) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable ex) {
+            throw new IllegalStateException("Can't define class for expression: " + expression, ex);
+        }
+    }
+
+    // length of string in class file (modified UTF-8)
+    private static int utfLength(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            length += c >= 0x0001 && c <= 0x007F ? 1 : c <= 0x07FF ? 2 : 3;
+        }
+        return length;
+    }
+
+    private byte[] generate(Node root, String expression) {
+        countReferences(root);
+        emit(root);
+        write(DRETURN);
+        pop(2);
+        if (code.size() > max_code_length) {
+            throw new IllegalArgumentException("Expression is too big: " + expression);
+        }
+        byte[] getF = code.toByteArray();
+
+        int thisClass = pool.classInfo(class_name);
+        int superClass = pool.classInfo("java/lang/Object");
+        int interfaceClass = pool.classInfo(function_interface);
+        int objectInit = pool.methodRef("java/lang/Object", "<init>", "()V");
+        int initName = pool.utf8("<init>");
+        int initType = pool.utf8("()V");
+        int getFName = pool.utf8("getF");
+        int getFType = pool.utf8("(D)D");
+        int toStringName = pool.utf8("toString");
+        int toStringType = pool.utf8("()Ljava/lang/String;");
+        int source = pool.string(expression);
+        int codeName = pool.utf8("Code");
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            // java 8 class file, straight-line code doesn't need stack map frames
+            out.writeShort(52);
+            pool.write(out);
+            // public final super
+            out.writeShort(0x0031);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(interfaceClass);
+            // fields
+            out.writeShort(0);
+            // methods
+            out.writeShort(3);
+            writeMethod(out, initName, initType, codeName, 1, 1, new byte[]{
+                    (byte) ALOAD_0, (byte) INVOKESPECIAL, (byte) (objectInit >> 8), (byte) objectInit, (byte) RETURN});
+            writeMethod(out, getFName, getFType, codeName, maxStack, nextLocal, getF);
+            writeMethod(out, toStringName, toStringType, codeName, 1, 1, new byte[]{
+                    (byte) LDC_W, (byte) (source >> 8), (byte) source, (byte) ARETURN});
+            // attributes
+            out.writeShort(0);
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int type, int codeName, int maxStack, int maxLocals,
+                                    byte[] code) throws IOException {
+        // public
+        out.writeShort(0x0001);
+        out.writeShort(name);
+        out.writeShort(type);
+        out.writeShort(1);
+        out.writeShort(codeName);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        // exception table and attributes
+        out.writeShort(0);
+        out.writeShort(0);
+    }
+
+    private void countReferences(Node node) {
+        Integer count = references.get(node);
+        references.put(node, count == null ? 1 : count + 1);
+        if (count == null) {
+            for (Node child : node.children) {
+                countReferences(child);
+            }
+        }
+    }
+
+    // shared subexpression is calculated at the first usage and stored to local variable
+    private void emit(Node node) {
+        Integer local = locals.get(node);
+        if (local != null) {
+            load(local);
+            return;
+        }
+        switch (node.type) {
+            case CONSTANT:
+                if (Double.doubleToRawLongBits(node.value) == 0L) {
+                    write(DCONST_0);
+                } else if (node.value == 1.0) {
+                    write(DCONST_1);
+                } else {
+                    write(LDC2_W);
+                    writeShort(pool.doubleConstant(node.value));
+                }
+                push(2);
+                return;
+            case VARIABLE:
+                load(1);
+                return;
+            case ADD:
+                binary(node, DADD);
+                break;
+            case SUB:
+                binary(node, DSUB);
+                break;
+            case MUL:
+                binary(node, DMUL);
+                break;
+            case DIV:
+                binary(node, DDIV);
+                break;
+            case NEG:
+                emit(node.children[0]);
+                write(DNEG);
+                break;
+            case POW:
+                power(node);
+                break;
+            case CALL:
+                for (Node child : node.children) {
+                    emit(child);
+                }
+                write(INVOKESTATIC);
+                writeShort(pool.methodRef(math_class, node.name, node.children.length == 1 ? "(D)D" : "(DD)D"));
+                pop(2 * node.children.length - 2);
+                break;
+            default:
+                throw new IllegalStateException("Unknown node " + node.type);
+        }
+        if (references.get(node) > 1) {
+            int slot = nextLocal;
+            nextLocal += 2;
+            locals.put(node, slot);
+            write(DUP2);
+            push(2);
+            store(slot);
+        }
+    }
+
+    private void binary(Node node, int opcode) {
+        emit(node.children[0]);
+        emit(node.children[1]);
+        write(opcode);
+        pop(2);
+    }
+
+    // small integer powers are replaced by multiplications
+    private void power(Node node) {
+        Node exponent = node.children[1];
+        emit(node.children[0]);
+        if (exponent.isConstant() && (exponent.value == 2.0 || exponent.value == 3.0)) {
+            write(DUP2);
+            push(2);
+            if (exponent.value == 3.0) {
+                write(DUP2);
+                push(2);
+                write(DMUL);
+                pop(2);
+            }
+            write(DMUL);
+            pop(2);
+            return;
+        }
+        emit(exponent);
+        write(INVOKESTATIC);
+        writeShort(pool.methodRef(math_class, "pow", "(DD)D"));
+        pop(2);
+    }
+
+    private void load(int slot) {
+        if (slot < 256) {
+            write(DLOAD);
+            write(slot);
+        } else {
+            write(WIDE);
+            write(DLOAD);
+            writeShort(slot);
+        }
+        push(2);
+    }
+
+    private void store(int slot) {
+        if (slot < 256) {
+            write(DSTORE);
+            write(slot);
+        } else {
+            write(WIDE);
+            write(DSTORE);
+            writeShort(slot);
+        }
+        pop(2);
+    }
+
+    private void push(int size) {
+        stack += size;
+        maxStack = Math.max(maxStack, stack);
+    }
+
+    private void pop(int size) {
+        stack -= size;
+    }
+
+    private void write(int value) {
+        code.write(value);
+    }
+
+    private void writeShort(int value) {
+        code.write(value >> 8);
+        code.write(value);
+    }
+
+    // constant pool of generated class
+    private static final class ConstantPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> entries = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String value) {
+            return entry("U" + value, 1, () -> out.writeUTF(value));
+        }
+
+        int classInfo(String name) {
+            int nameIndex = utf8(name);
+            return entry("C" + name, 1, () -> out.writeShort(nameIndex), 7);
+        }
+
+        int string(String value) {
+            int valueIndex = utf8(value);
+            return entry("S" + value, 1, () -> out.writeShort(valueIndex), 8);
+        }
+
+        int doubleConstant(double value) {
+            return entry("D" + Double.doubleToRawLongBits(value), 2, () -> out.writeDouble(value), 6);
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            int ownerIndex = classInfo(owner);
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            int nameAndType = entry("N" + name + descriptor, 1, () -> {
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            }, 12);
+            return entry("M" + owner + "." + name + descriptor, 1, () -> {
+                out.writeShort(ownerIndex);
+                out.writeShort(nameAndType);
+            }, 10);
+        }
+
+        private int entry(String key, int size, Writer writer) {
+            return entry(key, size, writer, 1);
+        }
+
+        private int entry(String key, int size, Writer writer, int tag) {
+            Integer index = entries.get(key);
+            if (index != null) {
+                return index;
+            }
+            try {
+                out.writeByte(tag);
+                writer.write();
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+            index = count;
+            count += size;
+            if (count > 0xFFFF) {
+                throw new IllegalArgumentException("Expression has too many constants");
+            }
+            entries.put(key, index);
+            return index;
+        }
+
+        void write(DataOutputStream target) throws IOException {
+            out.flush();
+            target.writeShort(count);
+            bytes.writeTo(target);
+        }
+
+        private interface Writer {
+            void write() throws IOException;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.cookbook.math.expression;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.Map;
+
+// package private class
+// recursive descent parser, it folds constants and shares equal subtrees (common subexpressions)
+//
+// expression := term (('+' | '-') term)*
+// term       := unary (('*' | '/') unary)*
+// unary      := ('-' | '+') unary | power
+// power      := primary ('^' unary)?
+// primary    := number | 'x' | 'pi' | 'e' | name '(' expression (',' expression)* ')' | '(' expression ')'
+final class ExpressionParser {
+
+    private final String source;
+    private final Map<Node, Node> nodes = new HashMap<>();
+    private int position;
+
+
+    private ExpressionParser(String source) {
+        this.source = source;
+    }
+
+    static Node parse(String source) throws IllegalArgumentException {
+        if (source == null) {
+            throw new IllegalArgumentException("Expression must be not null");
+        }
+        ExpressionParser parser = new ExpressionParser(source);
+        Node result = parser.parseExpression();
+        parser.skipSpaces();
+        if (parser.position < source.length()) {
+            throw parser.error("Unexpected symbol");
+        }
+        return result;
+    }
+
+    /**
+     * @return method handle of java.lang.Math function with 1 or 2 double arguments
+     * @throws IllegalArgumentException if there's no such function
+     */
+    static MethodHandle function(String name, int argumentNum) throws IllegalArgumentException {
+        MethodType type = argumentNum == 1 ? MethodType.methodType(double.class, double.class)
+                : MethodType.methodType(double.class, double.class, double.class);
+        try {
+            return MethodHandles.publicLookup().findStatic(Math.class, name, type);
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            throw new IllegalArgumentException("Unknown function " + name + " with " + argumentNum + " arguments");
+        }
+    }
+
+    private Node parseExpression() {
+        Node result = parseTerm();
+        while (true) {
+            if (accept('+')) {
+                result = add(result, parseTerm());
+            } else if (accept('-')) {
+                result = subtract(result, parseTerm());
+            } else {
+                return result;
+            }
+        }
+    }
+
+    private Node parseTerm() {
+        Node result = parseUnary();
+        while (true) {
+            if (accept('*')) {
+                result = multiply(result, parseUnary());
+            } else if (accept('/')) {
+                result = divide(result, parseUnary());
+            } else {
+                return result;
+            }
+        }
+    }
+
+    private Node parseUnary() {
+        if (accept('-')) {
+            Node operand = parseUnary();
+            if (operand.isConstant()) {
+                return constant(-operand.value);
+            }
+            if (operand.type == Node.Type.NEG) {
+                return operand.children[0];
+            }
+            return intern(Node.operation(Node.Type.NEG, operand));
+        }
+        if (accept('+')) {
+            return parseUnary();
+        }
+        return parsePower();
+    }
+
+    private Node parsePower() {
+        Node base = parsePrimary();
+        if (accept('^')) {
+            Node exponent = parseUnary();
+            if (base.isConstant() && exponent.isConstant()) {
+                return constant(Math.pow(base.value, exponent.value));
+            }
+            if (exponent.isConstant() && exponent.value == 1.0) {
+                return base;
+            }
+            return intern(Node.operation(Node.Type.POW, base, exponent));
+        }
+        return base;
+    }
+
+    private Node parsePrimary() {
+        skipSpaces();
+        if (position >= source.length()) {
+            throw error("Unexpected end of expression");
+        }
+        char c = source.charAt(position);
+        if (accept('(')) {
+            Node result = parseExpression();
+            expect(')');
+            return result;
+        }
+        if (Character.isDigit(c) || c == '.') {
+            return parseNumber();
+        }
+        if (Character.isLetter(c)) {
+            int start = position;
+            while (position < source.length() && Character.isLetterOrDigit(source.charAt(position))) {
+                position++;
+            }
+            String name = source.substring(start, position);
+            if (accept('(')) {
+                return parseCall(name);
+            }
+            switch (name) {
+                case "x":
+                    return intern(Node.variable());
+                case "pi":
+                    return constant(Math.PI);
+                case "e":
+                    return constant(Math.E);
+                default:
+                    position = start;
+                    throw error("Unknown name " + name);
+            }
+        }
+        throw error("Unexpected symbol");
+    }
+
+    private Node parseNumber() {
+        int start = position;
+        while (position < source.length() && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+            position++;
+        }
+        if (position < source.length() && (source.charAt(position) == 'e' || source.charAt(position) == 'E')) {
+            int exponent = position + 1;
+            if (exponent < source.length() && (source.charAt(exponent) == '+' || source.charAt(exponent) == '-')) {
+                exponent++;
+            }
+            if (exponent < source.length() && Character.isDigit(source.charAt(exponent))) {
+                position = exponent;
+                while (position < source.length() && Character.isDigit(source.charAt(position))) {
+                    position++;
+                }
+            }
+        }
+        try {
+            return constant(Double.parseDouble(source.substring(start, position)));
+        } catch (NumberFormatException ex) {
+            position = start;
+            throw error("Bad number");
+        }
+    }
+
+    private Node parseCall(String name) {
+        int start = position;
+        Node first = parseExpression();
+        Node[] arguments;
+        if (accept(',')) {
+            arguments = new Node[]{first, parseExpression()};
+        } else {
+            arguments = new Node[]{first};
+        }
+        expect(')');
+        MethodHandle handle;
+        try {
+            handle = function(name, arguments.length);
+        } catch (IllegalArgumentException ex) {
+            position = start;
+            throw error(ex.getMessage());
+        }
+        boolean constants = true;
+        for (Node argument : arguments) {
+            constants &= argument.isConstant();
+        }
+        if (constants) {
+            try {
+                return constant(arguments.length == 1 ? (double) handle.invokeExact(arguments[0].value)
+                        : (double) handle.invokeExact(arguments[0].value, arguments[1].value));
+            } catch (Throwable ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+        return intern(Node.call(name, arguments));
+    }
+
+    private Node add(Node a, Node b) {
+        if (a.isConstant() && b.isConstant()) return constant(a.value + b.value);
+        if (a.isConstant() && a.value == 0.0) return b;
+        if (b.isConstant() && b.value == 0.0) return a;
+        return intern(Node.operation(Node.Type.ADD, a, b));
+    }
+
+    private Node subtract(Node a, Node b) {
+        if (a.isConstant() && b.isConstant()) return constant(a.value - b.value);
+        if (b.isConstant() && b.value == 0.0) return a;
+        return intern(Node.operation(Node.Type.SUB, a, b));
+    }
+
+    private Node multiply(Node a, Node b) {
+        if (a.isConstant() && b.isConstant()) return constant(a.value * b.value);
+        if (a.isConstant() && a.value == 1.0) return b;
+        if (b.isConstant() && b.value == 1.0) return a;
+        return intern(Node.operation(Node.Type.MUL, a, b));
+    }
+
+    private Node divide(Node a, Node b) {
+        if (a.isConstant() && b.isConstant()) return constant(a.value / b.value);
+        if (b.isConstant() && b.value == 1.0) return a;
+        return intern(Node.operation(Node.Type.DIV, a, b));
+    }
+
+    private Node constant(double value) {
+        return intern(Node.constant(value));
+    }
+
+    // equal subtrees become one object
+    private Node intern(Node node) {
+        Node existing = nodes.putIfAbsent(node, node);
+        return existing == null ? node : existing;
+    }
+
+    private boolean accept(char c) {
+        skipSpaces();
+        if (position < source.length() && source.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!accept(c)) {
+            throw error("Expected '" + c + "'");
+        }
+    }
+
+    private void skipSpaces() {
+        while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position + " in expression: " + source);
+    }
+}
@@ -0,0 +1,64 @@
+package com.cookbook.math.expression;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+// package private class
+// immutable expression tree node, equal subtrees are shared by ExpressionParser
+final class Node {
+
+    enum Type {
+        CONSTANT, VARIABLE, ADD, SUB, MUL, DIV, NEG, POW, CALL
+    }
+
+    final Type type;
+    final double value;
+    // function name for CALL
+    final String name;
+    final Node[] children;
+    private final int hash;
+
+
+    private Node(Type type, double value, String name, Node[] children) {
+        this.type = type;
+        this.value = value;
+        this.name = name;
+        this.children = children;
+        this.hash = Objects.hash(type, Double.doubleToLongBits(value), name, Arrays.hashCode(children));
+    }
+
+    static Node constant(double value) {
+        return new Node(Type.CONSTANT, value, null, new Node[0]);
+    }
+
+    static Node variable() {
+        return new Node(Type.VARIABLE, 0.0, null, new Node[0]);
+    }
+
+    static Node operation(Type type, Node... children) {
+        return new Node(type, 0.0, null, children);
+    }
+
+    static Node call(String name, Node... children) {
+        return new Node(Type.CALL, 0.0, name, children);
+    }
+
+    boolean isConstant() {
+        return type == Type.CONSTANT;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Node node = (Node) o;
+        return hash == node.hash && type == node.type
+                && Double.doubleToLongBits(value) == Double.doubleToLongBits(node.value)
+                && Objects.equals(name, node.name) && Arrays.equals(children, node.children);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
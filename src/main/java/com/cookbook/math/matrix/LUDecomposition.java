@@ -0,0 +1,139 @@
+package com.cookbook.math.matrix;
+
+/**
+ * Immutable
+ * LU decomposition with partial pivoting P * A = L * U
+ * L and U are stored in one flat array, L has unit diagonal
+ * Matrix is singular if pivot isn't greater than n * ulp(1) * max|a_ij|, so round-off of singular matrix isn't taken as pivot
+ */
+public final class LUDecomposition {
+
+    private final int size;
+    private final double[] lu;
+    private final int[] pivot;
+    private final boolean singular;
+
+
+    private LUDecomposition(int size, double[] lu, int[] pivot, boolean singular) {
+        this.size = size;
+        this.lu = lu;
+        this.pivot = pivot;
+        this.singular = singular;
+    }
+
+    // package private static factory, use Matrix.lu()
+    static LUDecomposition newInstance(Matrix matrix) {
+        int n = matrix.getRows();
+        double[] lu = matrix.toArray();
+        int[] pivot = new int[n];
+        boolean singular = false;
+        double norm = 0.0;
+        for (int i = 0; i < n; i++) {
+            pivot[i] = i;
+        }
+        for (double value : lu) {
+            norm = Math.max(norm, Math.abs(value));
+        }
+        double tolerance = n * Math.ulp(1.0) * norm;
+        for (int k = 0; k < n; k++) {
+            int p = k;
+            double max = Math.abs(lu[k * n + k]);
+            for (int i = k + 1; i < n; i++) {
+                double value = Math.abs(lu[i * n + k]);
+                if (value > max) {
+                    max = value;
+                    p = i;
+                }
+            }
+            if (max <= tolerance) {
+                singular = true;
+                continue;
+            }
+            if (p != k) {
+                for (int j = 0; j < n; j++) {
+                    double tmp = lu[k * n + j];
+                    lu[k * n + j] = lu[p * n + j];
+                    lu[p * n + j] = tmp;
+                }
+                int tmp = pivot[k];
+                pivot[k] = pivot[p];
+                pivot[p] = tmp;
+            }
+            double diagonal = lu[k * n + k];
+            for (int i = k + 1; i < n; i++) {
+                double factor = lu[i * n + k] / diagonal;
+                lu[i * n + k] = factor;
+                if (factor != 0.0) {
+                    for (int j = k + 1; j < n; j++) {
+                        lu[i * n + j] -= factor * lu[k * n + j];
+                    }
+                }
+            }
+        }
+        return new LUDecomposition(n, lu, pivot, singular);
+    }
+
+    public boolean isSingular() {
+        return singular;
+    }
+
+    /**
+     * Solve system A * x = b
+     * @return x
+     * @throws IllegalArgumentException if b has bad length
+     * @throws ArithmeticException if matrix is singular
+     */
+    public double[] solve(double[] b) throws IllegalArgumentException, ArithmeticException {
+        if (b == null || b.length != size) {
+            throw new IllegalArgumentException("Bad vector size for solving");
+        }
+        if (singular) {
+            throw new ArithmeticException("Matrix is singular");
+        }
+        double[] x = new double[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = b[pivot[i]];
+        }
+        // forward substitution L * y = P * b
+        for (int i = 0; i < size; i++) {
+            double sum = x[i];
+            int row = i * size;
+            for (int j = 0; j < i; j++) {
+                sum -= lu[row + j] * x[j];
+            }
+            x[i] = sum;
+        }
+        // back substitution U * x = y
+        for (int i = size - 1; i >= 0; i--) {
+            double sum = x[i];
+            int row = i * size;
+            for (int j = i + 1; j < size; j++) {
+                sum -= lu[row + j] * x[j];
+            }
+            x[i] = sum / lu[row + i];
+        }
+        return x;
+    }
+
+    /**
+     * @return determinant of decomposed matrix, it's 0 for singular matrix
+     */
+    public double getDeterminant() {
+        if (singular) {
+            return 0.0;
+        }
+        double result = 1.0;
+        int swaps = 0;
+        int[] permutation = pivot.clone();
+        for (int i = 0; i < size; i++) {
+            while (permutation[i] != i) {
+                int j = permutation[i];
+                permutation[i] = permutation[j];
+                permutation[j] = j;
+                ++swaps;
+            }
+            result *= lu[i * size + i];
+        }
+        return swaps % 2 == 0 ? result : -result;
+    }
+}
@@ -0,0 +1,205 @@
+package com.cookbook.math.matrix;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * NotThreadSafe
+ * Dense matrix, values are stored in flat array by rows
+ * Multiplication is tiled for cache and can be run on fork/join pool
+ */
+public final class Matrix {
+
+    // tile size, 3 tiles of doubles fit to L2 cache
+    static final int block_size = 64;
+
+    private final int rows;
+    private final int columns;
+    private final double[] data;
+
+
+    private Matrix(int rows, int columns, double[] data) {
+        this.rows = rows;
+        this.columns = columns;
+        this.data = data;
+    }
+
+    /**
+     * Static factory
+     * @return new zero matrix
+     * @throws IllegalArgumentException
+     */
+    public static Matrix newInstance(int rows, int columns) throws IllegalArgumentException {
+        checkSize(rows, columns);
+        return new Matrix(rows, columns, new double[rows * columns]);
+    }
+
+    /**
+     * Static factory
+     * @param data - values by rows, array is copied
+     * @return new matrix
+     * @throws IllegalArgumentException
+     */
+    public static Matrix newInstance(int rows, int columns, double[] data) throws IllegalArgumentException {
+        checkSize(rows, columns);
+        if (data == null || data.length != rows * columns) {
+            throw new IllegalArgumentException("Bad data length");
+        }
+        return new Matrix(rows, columns, Arrays.copyOf(data, data.length));
+    }
+
+    /**
+     * Static factory
+     * @return new identity matrix
+     */
+    public static Matrix identity(int size) {
+        Matrix matrix = newInstance(size, size);
+        for (int i = 0; i < size; i++) {
+            matrix.data[i * size + i] = 1.0;
+        }
+        return matrix;
+    }
+
+    private static void checkSize(int rows, int columns) {
+        if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bad values for matrix size");
+        }
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public double get(int row, int column) {
+        return data[row * columns + column];
+    }
+
+    public void set(int row, int column, double value) {
+        data[row * columns + column] = value;
+    }
+
+    /**
+     * @return copy of values by rows
+     */
+    public double[] toArray() {
+        return Arrays.copyOf(data, data.length);
+    }
+
+    // package private access to values for tasks
+    double[] getData() {
+        return data;
+    }
+
+    /**
+     * Multiply in calling thread
+     * @return this * other
+     * @throws IllegalArgumentException
+     */
+    public Matrix multiply(Matrix other) throws IllegalArgumentException {
+        Matrix result = prepareMultiply(other);
+        MatrixTasks.multiplyRows(this, other, result, 0, rows);
+        return result;
+    }
+
+    /**
+     * Multiply on fork/join pool, blocks of rows are divided between tasks
+     * @param pool - pool for calculating, it can be shared with other calculations
+     * @return this * other
+     * @throws IllegalArgumentException
+     */
+    public Matrix multiply(Matrix other, ForkJoinPool pool) throws IllegalArgumentException {
+        Matrix result = prepareMultiply(other);
+        pool.invoke(new MatrixTasks.MultiplyTask(this, other, result, 0, rows));
+        return result;
+    }
+
+    private Matrix prepareMultiply(Matrix other) {
+        if (other == null || this.columns != other.rows) {
+            throw new IllegalArgumentException("Bad matrix size for multiplication");
+        }
+        return newInstance(this.rows, other.columns);
+    }
+
+    /**
+     * Multiply matrix by vector in calling thread
+     * @return this * vector
+     * @throws IllegalArgumentException
+     */
+    public double[] multiply(double[] vector) throws IllegalArgumentException {
+        double[] result = prepareMultiply(vector);
+        MatrixTasks.multiplyVector(this, vector, result, 0, rows);
+        return result;
+    }
+
+    /**
+     * Multiply matrix by vector on fork/join pool, rows are divided between tasks
+     * @return this * vector
+     * @throws IllegalArgumentException
+     */
+    public double[] multiply(double[] vector, ForkJoinPool pool) throws IllegalArgumentException {
+        double[] result = prepareMultiply(vector);
+        pool.invoke(new MatrixTasks.VectorTask(this, vector, result, 0, rows));
+        return result;
+    }
+
+    private double[] prepareMultiply(double[] vector) {
+        if (vector == null || vector.length != this.columns) {
+            throw new IllegalArgumentException("Bad vector size for multiplication");
+        }
+        return new double[this.rows];
+    }
+
+    /**
+     * Transpose by tiles
+     * @return new transposed matrix
+     */
+    public Matrix transpose() {
+        double[] result = new double[data.length];
+        for (int ii = 0; ii < rows; ii += block_size) {
+            int iMax = Math.min(rows, ii + block_size);
+            for (int jj = 0; jj < columns; jj += block_size) {
+                int jMax = Math.min(columns, jj + block_size);
+                for (int i = ii; i < iMax; i++) {
+                    for (int j = jj; j < jMax; j++) {
+                        result[j * rows + i] = data[i * columns + j];
+                    }
+                }
+            }
+        }
+        return new Matrix(columns, rows, result);
+    }
+
+    /**
+     * LU decomposition with partial pivoting
+     * @return LUDecomposition for square matrix
+     * @throws IllegalArgumentException
+     */
+    public LUDecomposition lu() throws IllegalArgumentException {
+        if (rows != columns) {
+            throw new IllegalArgumentException("LU decomposition needs square matrix");
+        }
+        return LUDecomposition.newInstance(this);
+    }
+
+    /**
+     * Solve system this * x = b
+     * @return x
+     * @throws ArithmeticException if matrix is singular
+     */
+    public double[] solve(double[] b) throws ArithmeticException {
+        return lu().solve(b);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Matrix{rows=").append(rows).append(", columns=").append(columns);
+        if (data.length <= 100) {
+            builder.append(", data=").append(Arrays.toString(data));
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,111 @@
+package com.cookbook.math.matrix;
+
+import java.util.concurrent.RecursiveAction;
+
+// package private class
+// multiplication kernels and fork/join tasks for them
+final class MatrixTasks {
+
+    // min count of rows for one matrix-vector task
+    private static final int vector_rows = 256;
+
+    private MatrixTasks() {}
+
+    // result rows [from, to) = a rows * b, tiles are walked in i-k-j order, so inner loop reads b and result sequentially
+    static void multiplyRows(Matrix a, Matrix b, Matrix result, int from, int to) {
+        double[] aData = a.getData();
+        double[] bData = b.getData();
+        double[] cData = result.getData();
+        int n = a.getColumns();
+        int m = b.getColumns();
+        int block = Matrix.block_size;
+        for (int ii = from; ii < to; ii += block) {
+            int iMax = Math.min(to, ii + block);
+            for (int kk = 0; kk < n; kk += block) {
+                int kMax = Math.min(n, kk + block);
+                for (int jj = 0; jj < m; jj += block) {
+                    int jMax = Math.min(m, jj + block);
+                    for (int i = ii; i < iMax; i++) {
+                        int cRow = i * m;
+                        int aRow = i * n;
+                        for (int k = kk; k < kMax; k++) {
+                            double aik = aData[aRow + k];
+                            int bRow = k * m;
+                            for (int j = jj; j < jMax; j++) {
+                                cData[cRow + j] += aik * bData[bRow + j];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    static void multiplyVector(Matrix a, double[] vector, double[] result, int from, int to) {
+        double[] aData = a.getData();
+        int n = a.getColumns();
+        for (int i = from; i < to; i++) {
+            double sum = 0.0;
+            int row = i * n;
+            for (int j = 0; j < n; j++) {
+                sum += aData[row + j] * vector[j];
+            }
+            result[i] = sum;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    static final class MultiplyTask extends RecursiveAction {
+        private final Matrix a;
+        private final Matrix b;
+        private final Matrix result;
+        private final int from;
+        private final int to;
+
+        MultiplyTask(Matrix a, Matrix b, Matrix result, int from, int to) {
+            this.a = a;
+            this.b = b;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= Matrix.block_size) {
+                multiplyRows(a, b, result, from, to);
+                return;
+            }
+            // split by tile border
+            int middle = from + ((to - from) / 2 + Matrix.block_size - 1) / Matrix.block_size * Matrix.block_size;
+            invokeAll(new MultiplyTask(a, b, result, from, middle), new MultiplyTask(a, b, result, middle, to));
+        }
+    }
+
+    @SuppressWarnings("serial")
+    static final class VectorTask extends RecursiveAction {
+        private final Matrix a;
+        private final double[] vector;
+        private final double[] result;
+        private final int from;
+        private final int to;
+
+        VectorTask(Matrix a, double[] vector, double[] result, int from, int to) {
+            this.a = a;
+            this.vector = vector;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= vector_rows) {
+                multiplyVector(a, vector, result, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new VectorTask(a, vector, result, from, middle), new VectorTask(a, vector, result, middle, to));
+        }
+    }
+}
@@ -4,16 +4,23 @@ package com.cookbook.processing;
 import com.cookbook.processing.annotation.Consume;
 import com.cookbook.processing.annotation.Data_Source;
 import com.cookbook.processing.annotation.Decode;
+import com.cookbook.processing.csv.CsvDecoder;
+import com.cookbook.processing.csv.CsvDecoderGroup;
+import com.cookbook.processing.interfaces.BatchConsumer;
+import com.cookbook.processing.interfaces.BatchDecoder;
 import com.cookbook.processing.interfaces.Consumer;
 import com.cookbook.processing.interfaces.Decoder;
 import com.cookbook.processing.interfaces.Producer;
 
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 
@@ -23,18 +30,27 @@ import java.util.stream.Collectors;
  *
  * DataSource (1..1)-> Producer (1..n)-> Decoder (m..n)-> Consumer
  *
+ * Batch variants are wired automatically: BatchProducer gets decoders as BatchDecoder,
+ * BatchDecoder and CsvDecoder get consumers as BatchConsumer. Per-record implementations are wrapped by adapters.
+ * So batch of asynchronous producer is decoded by one call and results of CsvDecoder are passed to consumer by one call
+ *
+ * Annotated classes are taken from LinkerIndex generated by LinkerIndexProcessor at compile time.
+ * If there is no index for the package, class directory of the package is scanned (it doesn't work for jars)
  */
 
 public final class DataLinker {
 
 
     private final String package_src;
+    private final ClassLoader classLoader;
+    // factories of indexed classes, other classes are created by reflection
+    private final Map<Class<?>, Supplier<?>> factories = new HashMap<>();
     private List<Class> annotatedClassList;
     private List<Class> dataSourceList;
     private List<Class> decoderList;
     private List<Class> consumerList;
     private final Map<String, Producer> dataSourceContext = new HashMap<>();
-    private final Class producerClass;
+    private final Supplier<? extends Producer> producerSupplier;
 
 
     /**
@@ -43,8 +59,18 @@ public final class DataLinker {
      * @param producerClass - producer class
      */
     public DataLinker(Class<?> appClass, Class producerClass) {
+        this(appClass, () -> getProducerFromClass(producerClass));
+    }
+
+    /**
+     * Public constructor for configured producers, e.g. new RingBufferProducer(capacity, waitStrategy, overflowPolicy)
+     * @param appClass - main class for package where store DataSource, Decoders and Consumers
+     * @param producerSupplier - it's called once for every data source
+     */
+    public DataLinker(Class<?> appClass, Supplier<? extends Producer> producerSupplier) {
         this.package_src = appClass.getPackage().getName();
-        this.producerClass = producerClass;
+        this.classLoader = appClass.getClassLoader();
+        this.producerSupplier = producerSupplier;
         initDataSourceContext();
 
     }
@@ -66,7 +92,11 @@ public final class DataLinker {
      */
     private void initDataSourceContext() {
         //get only annotated classes
-        this.annotatedClassList = ClassManager.findAllClasses(this.package_src).stream().filter(aClass ->
+        List<Class> classList = findIndexedClasses();
+        if (classList.isEmpty()) {
+            classList = ClassManager.findAllClasses(this.package_src);
+        }
+        this.annotatedClassList = classList.stream().filter(aClass ->
                 (aClass.getAnnotation(Data_Source.class) != null || aClass.getAnnotation(Decode.class) != null
                         || aClass.getAnnotation(Consume.class) != null)
         ).collect(Collectors.toList());
@@ -81,6 +111,53 @@ public final class DataLinker {
         createLinkedContext();
 
     }
+    /**
+     * Load classes of package and its subpackages from all LinkerIndexes, fill factories map
+     * Index which can't be loaded (e.g. it's left by previous compilation) is skipped
+     */
+    private List<Class> findIndexedClasses() {
+        List<Class> classList = new ArrayList<>();
+        Iterator<LinkerIndex> iterator = ServiceLoader.load(LinkerIndex.class, this.classLoader).iterator();
+        while (true) {
+            LinkerIndex index;
+            try {
+                if (!iterator.hasNext()) {
+                    break;
+                }
+                index = iterator.next();
+            } catch (ServiceConfigurationError ex) {
+                continue;
+            }
+            Map<Class<?>, Supplier<?>> indexFactories;
+            try {
+                indexFactories = index.getFactories();
+            } catch (LinkageError ex) {
+                // index refers to class which was removed or changed after index generation
+                continue;
+            }
+            for (Map.Entry<Class<?>, Supplier<?>> entry : indexFactories.entrySet()) {
+                String packageName = entry.getKey().getPackageName();
+                if (packageName.equals(this.package_src) || packageName.startsWith(this.package_src + ".")) {
+                    classList.add(entry.getKey());
+                    factories.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return classList;
+    }
+
+    /**
+     * Create instance by index factory or by public no-arg constructor
+     */
+    private Object newInstance(Class aClass) throws ReflectiveOperationException {
+        Supplier<?> factory = factories.get(aClass);
+        if (factory != null) {
+            return factory.get();
+        }
+        Constructor<?> constructor = aClass.getConstructor();
+        return constructor.newInstance();
+    }
+
     /**
      * Initialize dataSourceContext map, key-> DataSource name (Set in annotation Data_Source.name())
      * value -> Producer for this DataSource
@@ -100,20 +177,26 @@ public final class DataLinker {
      * Producer Factory
      * Create producer for this data source and link it with decoders
      * Links based on annotations
+     * CsvDecoders of data source are joined to one CsvDecoderGroup, so record is tokenized once
      */
     private Producer producerFactory(Data_Source ann, Class dataSource) {
         //check linked decoders for this datasource
-        Producer producer = getProducerFromClass(this.producerClass);
+        Producer producer = this.producerSupplier.get();
         if(producer!=null) {
+            CsvDecoderGroup csvGroup = new CsvDecoderGroup();
             for (Class decoder : this.decoderList) {
                 Decode dec_ann = (Decode) decoder.getAnnotation(Decode.class);
                 if (dec_ann.dataSource() == dataSource) {
-                    Decoder decoder1 = decoderFactory(decoder);
-                    if (decoder1 != null) {
+                    Decoder decoder1 = decoderFactory(decoder, csvGroup);
+                    // producer wraps per-record decoder itself if it's BatchProducer
+                    if (decoder1 != null && !(decoder1 instanceof CsvDecoder)) {
                         producer.addDecoder(decoder1);
                     }
                 }
             }
+            if (csvGroup.getDecoderCount() > 0) {
+                producer.addDecoder(csvGroup);
+            }
         }
         return producer;
     }
@@ -121,9 +204,9 @@ public final class DataLinker {
     /**
      * create producer Instance from Class
      */
-    private Producer getProducerFromClass(Class producerClass) {
+    private static Producer getProducerFromClass(Class producerClass) {
         try {
-            if (Arrays.stream(producerClass.getInterfaces()).filter(x->x==Producer.class).count() >0) {
+            if (Producer.class.isAssignableFrom(producerClass)) {
                 Constructor<?> constructor = producerClass.getConstructor();
                 Producer producer = (Producer) constructor.newInstance();
 
@@ -139,21 +222,29 @@ public final class DataLinker {
      * Decoder Factory
      * Create decoders for this data source and link with consumers
      * Links based on annotations
+     * CsvDecoder is added to csvGroup, group passes its results to consumer by batches
      */
-    private Decoder decoderFactory(Class decoder){
+    private Decoder decoderFactory(Class decoder, CsvDecoderGroup csvGroup){
         try {
-            if (Arrays.stream(decoder.getInterfaces()).filter(x->x==Decoder.class).count() >0) {
-                Constructor<?> constructor = decoder.getConstructor();
-                Decoder decoder1 = (Decoder) constructor.newInstance();
+            if (Decoder.class.isAssignableFrom(decoder)) {
+                Decoder decoder1 = (Decoder) newInstance(decoder);
+                if (decoder1 instanceof CsvDecoder) {
+                    csvGroup.addDecoder((CsvDecoder<?>) decoder1);
+                }
                 for(Class consumer : this.consumerList) {
                    Consumer consumer1 = consumerFactory(consumer);
-                   if(consumer1!=null) {
-                       decoder1.setConsumer(consumer1);
+                   if(consumer1 == null) {
+                       continue;
+                   }
+                   if (decoder1 instanceof CsvDecoder) {
+                       csvGroup.setConsumer((CsvDecoder) decoder1, BatchConsumer.of(consumer1));
+                   } else {
+                       decoder1.setConsumer(decoder1 instanceof BatchDecoder ? BatchConsumer.of(consumer1) : consumer1);
                    }
                 }
                 return decoder1;
             }
-        } catch (NoSuchMethodException | InvocationTargetException | InstantiationException | IllegalAccessException ex) {
+        } catch (ReflectiveOperationException ex) {
             return null;
         }
         return null;
@@ -165,9 +256,8 @@ public final class DataLinker {
     private Consumer consumerFactory(Class consumer){
         try {
 
-            if (Arrays.stream(consumer.getInterfaces()).filter(x->x==Consumer.class).count() >0) {
-                Constructor<?> constructor = consumer.getConstructor();
-                Consumer consumer1 = (Consumer) constructor.newInstance();
+            if (Consumer.class.isAssignableFrom(consumer)) {
+                Consumer consumer1 = (Consumer) newInstance(consumer);
                 return consumer1;
             }
 
@@ -0,0 +1,18 @@
+package com.cookbook.processing;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Index of annotated DataSource, Decoder and Consumer classes, it's generated at compile time by LinkerIndexProcessor
+ * and registered for ServiceLoader. DataLinker uses indexes instead of class directory scanning,
+ * so it works for jars too. Factories call constructors directly without reflection
+ */
+public interface LinkerIndex {
+
+    /**
+     * @return annotated classes with factories calling their public no-arg constructors,
+     * factory is null for DataSource because it's created by application
+     */
+    Map<Class<?>, Supplier<?>> getFactories();
+}
@@ -0,0 +1,18 @@
+package com.cookbook.processing.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Columns read by CsvDecoder, starting from 0. Record is tokenized only up to the last declared column
+ * and decoder isn't called for record without all declared columns.
+ * Empty fields are counted as RFC 4180 requires, e.g. "a," has 2 fields. It differs from String.split(","),
+ * which drops trailing empty fields, so decoder gets such records with empty values
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface CsvColumns {
+    int[] value();
+}
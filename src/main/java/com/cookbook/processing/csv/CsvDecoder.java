@@ -0,0 +1,32 @@
+package com.cookbook.processing.csv;
+
+import com.cookbook.processing.interfaces.Decoder;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decoder of CSV record tokenized once for all decoders of data source. DataLinker joins CsvDecoders of one data source
+ * to CsvDecoderGroup. Columns read by decoder should be declared with CsvColumns annotation
+ */
+public interface CsvDecoder<T> extends Decoder<T> {
+
+    /**
+     * @param record - tokenized record, it's valid only during this call and shared with other decoders
+     */
+    void setRecord(CsvTokenizer record);
+
+    /**
+     * Tokenize record by new tokenizer, it's used only when decoder isn't a part of CsvDecoderGroup
+     */
+    @Override
+    default void setData(ByteBuffer data) {
+        CsvTokenizer record = new CsvTokenizer();
+        record.tokenize(data);
+        setRecord(record);
+    }
+
+    @Override
+    default void setData(byte[] data) {
+        setData(ByteBuffer.wrap(data));
+    }
+}
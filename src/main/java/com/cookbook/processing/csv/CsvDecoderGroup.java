@@ -0,0 +1,211 @@
+package com.cookbook.processing.csv;
+
+import com.cookbook.processing.annotation.CsvColumns;
+import com.cookbook.processing.interfaces.BatchConsumer;
+import com.cookbook.processing.interfaces.BatchDecoder;
+import com.cookbook.processing.interfaces.Consumer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decoder which tokenizes record once and passes it to all CsvDecoders of group.
+ * Record is tokenized up to the last column declared by decoders, decoder is called only if record has all its columns
+ * (trailing empty fields are columns too, see CsvColumns).
+ * Group can be called from several threads at once, every thread has own tokenizer.
+ *
+ * Results of decoder linked with BatchConsumer are collected and passed to consumer by one notifyBatch() call
+ * for every setDataBatch() (and for every setData()), so batches of asynchronous producers reach consumers as batches
+ */
+public final class CsvDecoderGroup implements BatchDecoder<Object> {
+
+    private final ThreadLocal<CsvTokenizer> tokenizer;
+    // it's replaced by addDecoder(), so data threads always see consistent arrays
+    private volatile Members members = new Members(new CsvDecoder<?>[0], new int[0], new ResultBatch[0], 0);
+
+    public CsvDecoderGroup() {
+        this((byte) ',');
+    }
+
+    public CsvDecoderGroup(byte delimiter) {
+        this.tokenizer = ThreadLocal.withInitial(() -> new CsvTokenizer(delimiter));
+    }
+
+    /**
+     * Add decoder, its columns are taken from CsvColumns annotation of decoder class.
+     * Decoder without annotation gets the whole record. Decoders should be added before data is sent
+     */
+    public synchronized void addDecoder(CsvDecoder<?> decoder) {
+        CsvColumns columns = decoder.getClass().getAnnotation(CsvColumns.class);
+        int requiredFieldNum = CsvTokenizer.all_fields;
+        if (columns != null) {
+            requiredFieldNum = 0;
+            for (int column : columns.value()) {
+                if (column < 0) {
+                    throw new IllegalArgumentException("Column must be not negative");
+                }
+                requiredFieldNum = Math.max(requiredFieldNum, column + 1);
+            }
+        }
+        Members current = members;
+        int count = current.decoders.length;
+        CsvDecoder<?>[] decoders = Arrays.copyOf(current.decoders, count + 1);
+        int[] requiredFieldNums = Arrays.copyOf(current.requiredFieldNums, count + 1);
+        ResultBatch[] results = Arrays.copyOf(current.results, count + 1);
+        decoders[count] = decoder;
+        requiredFieldNums[count] = requiredFieldNum;
+        members = new Members(decoders, requiredFieldNums, results, Math.max(current.maxFieldNum, requiredFieldNum));
+    }
+
+    /**
+     * Link decoder of group with consumer, results of decoder are passed to it by batches
+     * @throws IllegalArgumentException if decoder isn't added to group
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> void setConsumer(CsvDecoder<T> decoder, BatchConsumer<? super T> consumer) {
+        Members current = members;
+        for (int i = 0; i < current.decoders.length; i++) {
+            if (current.decoders[i] == decoder) {
+                ResultBatch[] results = current.results.clone();
+                results[i] = new ResultBatch((BatchConsumer<Object>) consumer);
+                ((CsvDecoder<Object>) decoder).setConsumer(results[i]);
+                members = new Members(current.decoders, current.requiredFieldNums, results, current.maxFieldNum);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Decoder isn't added to group");
+    }
+
+    public int getDecoderCount() {
+        return members.decoders.length;
+    }
+
+    @Override
+    public void setData(ByteBuffer data) {
+        Members members = this.members;
+        if (members.decoders.length == 0) {
+            return;
+        }
+        try {
+            decode(members, tokenizer.get(), data);
+        } finally {
+            flush(members);
+        }
+    }
+
+    @Override
+    public void setData(byte[] data) {
+        setData(ByteBuffer.wrap(data));
+    }
+
+    @Override
+    public void setDataBatch(List<byte[]> data) {
+        Members members = this.members;
+        if (members.decoders.length == 0) {
+            return;
+        }
+        CsvTokenizer record = tokenizer.get();
+        try {
+            for (int i = 0, size = data.size(); i < size; i++) {
+                decode(members, record, ByteBuffer.wrap(data.get(i)));
+            }
+        } finally {
+            flush(members);
+        }
+    }
+
+    /**
+     * Set consumer for all decoders of group. Results are passed to BatchConsumer by batches
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized void setConsumer(Consumer<Object> consumer) {
+        if (consumer instanceof BatchConsumer) {
+            for (CsvDecoder<?> decoder : members.decoders) {
+                setConsumer((CsvDecoder<Object>) decoder, (BatchConsumer<Object>) consumer);
+            }
+            return;
+        }
+        Members current = members;
+        for (CsvDecoder<?> decoder : current.decoders) {
+            ((CsvDecoder<Object>) decoder).setConsumer(consumer);
+        }
+        members = new Members(current.decoders, current.requiredFieldNums, new ResultBatch[current.decoders.length],
+                current.maxFieldNum);
+    }
+
+    private static void decode(Members members, CsvTokenizer record, ByteBuffer data) {
+        int fieldNum = record.tokenize(data, members.maxFieldNum);
+        for (int i = 0; i < members.decoders.length; i++) {
+            int requiredFieldNum = members.requiredFieldNums[i];
+            if (fieldNum >= requiredFieldNum || requiredFieldNum == CsvTokenizer.all_fields) {
+                members.decoders[i].setRecord(record);
+            }
+        }
+    }
+
+    // every collected batch is passed to its consumer even if one of them throws, the first exception is rethrown
+    private static void flush(Members members) {
+        RuntimeException failure = null;
+        for (ResultBatch results : members.results) {
+            if (results == null) {
+                continue;
+            }
+            try {
+                results.flush();
+            } catch (RuntimeException ex) {
+                if (failure == null) {
+                    failure = ex;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static final class Members {
+        final CsvDecoder<?>[] decoders;
+        // count of fields required by decoder, CsvTokenizer.all_fields if columns aren't declared
+        final int[] requiredFieldNums;
+        // results of decoder linked with BatchConsumer, null for other decoders
+        final ResultBatch[] results;
+        final int maxFieldNum;
+
+        Members(CsvDecoder<?>[] decoders, int[] requiredFieldNums, ResultBatch[] results, int maxFieldNum) {
+            this.decoders = decoders;
+            this.requiredFieldNums = requiredFieldNums;
+            this.results = results;
+            this.maxFieldNum = maxFieldNum;
+        }
+    }
+
+    // consumer of decoder, it collects results of current call in list of calling thread
+    private static final class ResultBatch implements Consumer<Object> {
+        private final BatchConsumer<Object> consumer;
+        private final ThreadLocal<List<Object>> results = ThreadLocal.withInitial(ArrayList::new);
+
+        ResultBatch(BatchConsumer<Object> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void notify(Object data) {
+            results.get().add(data);
+        }
+
+        void flush() {
+            List<Object> list = results.get();
+            if (list.isEmpty()) {
+                return;
+            }
+            try {
+                consumer.notifyBatch(list);
+            } finally {
+                list.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.cookbook.processing.csv;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Reusable RFC 4180 record writer: fields are encoded to UTF-8 directly into one growing array,
+ * field is quoted only if it contains delimiter, quote or line break. Record can be read back by CsvTokenizer.
+ * Encoder is not thread-safe
+ */
+public final class CsvEncoder {
+
+    private static final byte quote = '"';
+
+    private final byte delimiter;
+    private byte[] bytes = new byte[256];
+    private ByteBuffer wrapped;
+    private int length;
+    private int fieldCount;
+
+    public CsvEncoder() {
+        this((byte) ',');
+    }
+
+    public CsvEncoder(byte delimiter) {
+        if (delimiter == quote || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Bad value for delimiter");
+        }
+        this.delimiter = delimiter;
+        this.wrapped = ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Start new record
+     */
+    public void reset() {
+        length = 0;
+        fieldCount = 0;
+    }
+
+    /**
+     * Add empty field, it's used for SQL NULL
+     */
+    public void addNull() {
+        startField();
+    }
+
+    public void addLong(long value) {
+        startField();
+        if (value == Long.MIN_VALUE) {
+            addAscii("-9223372036854775808");
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            bytes[length++] = '-';
+            value = -value;
+        }
+        int digitNum = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digitNum++;
+        }
+        for (int i = length + digitNum - 1; i >= length; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digitNum;
+    }
+
+    public void addDouble(double value) {
+        startField();
+        addAscii(Double.toString(value));
+    }
+
+    /**
+     * Add text field, null is encoded as empty field
+     */
+    public void addString(CharSequence value) {
+        startField();
+        if (value == null) {
+            return;
+        }
+        int size = value.length();
+        boolean isQuoted = false;
+        for (int i = 0; i < size; i++) {
+            char c = value.charAt(i);
+            if (c == delimiter || c == quote || c == '\n' || c == '\r') {
+                isQuoted = true;
+                break;
+            }
+        }
+        if (isQuoted) {
+            ensure(1);
+            bytes[length++] = quote;
+        }
+        for (int i = 0; i < size; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                ensure(2);
+                if (c == quote) {
+                    bytes[length++] = quote;
+                }
+                bytes[length++] = (byte) c;
+            } else if (c < 0x800) {
+                ensure(2);
+                bytes[length++] = (byte) (0xC0 | (c >> 6));
+                bytes[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                ensure(4);
+                bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate is replaced as String.getBytes does
+                ensure(1);
+                bytes[length++] = '?';
+            } else {
+                ensure(3);
+                bytes[length++] = (byte) (0xE0 | (c >> 12));
+                bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        if (isQuoted) {
+            ensure(1);
+            bytes[length++] = quote;
+        }
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @return view of encoded record from position 0 to its length, it's valid until the next change of encoder
+     */
+    public ByteBuffer getRecord() {
+        wrapped.limit(length).position(0);
+        return wrapped;
+    }
+
+    /**
+     * @return copy of encoded record
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+    private void startField() {
+        if (fieldCount++ > 0) {
+            ensure(1);
+            bytes[length++] = delimiter;
+        }
+    }
+
+    private void addAscii(String text) {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            bytes[length++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void ensure(int count) {
+        if (length + count > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(length + count, bytes.length * 2));
+            wrapped = ByteBuffer.wrap(bytes);
+        }
+    }
+}
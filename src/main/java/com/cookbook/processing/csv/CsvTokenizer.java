@@ -0,0 +1,224 @@
+package com.cookbook.processing.csv;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reusable RFC 4180 tokenizer for one record: bytes are scanned once, only field offsets are stored.
+ * Field values are materialized by getters on demand. Quoted field may contain delimiter and doubled quotes,
+ * line feed inside quotes is supported only when data source doesn't split records by lines.
+ * Tokenizer is not thread-safe, its record is valid while buffer passed to tokenize() isn't changed
+ */
+public final class CsvTokenizer {
+
+    public static final int all_fields = Integer.MAX_VALUE;
+    private static final byte quote = '"';
+
+    private final byte delimiter;
+    private ByteBuffer data;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    // field contains doubled quotes, they are replaced by getters
+    private boolean[] isEscaped = new boolean[16];
+    private int fieldCount;
+    private byte[] scratch = new byte[64];
+
+    public CsvTokenizer() {
+        this((byte) ',');
+    }
+
+    public CsvTokenizer(byte delimiter) {
+        if (delimiter == quote || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Bad value for delimiter");
+        }
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Tokenize record between position and limit of buffer, buffer position isn't changed
+     * @param data - record without line feed
+     * @param maxFieldNum - scanning stops after this count of fields, all_fields for whole record
+     * @return count of fields, it isn't more than maxFieldNum
+     */
+    public int tokenize(ByteBuffer data, int maxFieldNum) {
+        this.data = data;
+        this.fieldCount = 0;
+        int limit = data.limit();
+        int i = data.position();
+        while (fieldCount < maxFieldNum) {
+            int start;
+            int end;
+            boolean escaped = false;
+            if (i < limit && data.get(i) == quote) {
+                start = ++i;
+                end = limit;
+                while (i < limit) {
+                    if (data.get(i) == quote) {
+                        if (i + 1 < limit && data.get(i + 1) == quote) {
+                            escaped = true;
+                            i += 2;
+                            continue;
+                        }
+                        end = i++;
+                        break;
+                    }
+                    i++;
+                }
+                // bytes between closing quote and delimiter are ignored
+                while (i < limit && data.get(i) != delimiter) {
+                    i++;
+                }
+            } else {
+                start = i;
+                while (i < limit && data.get(i) != delimiter) {
+                    i++;
+                }
+                end = i;
+            }
+            add(start, end, escaped);
+            if (i >= limit) {
+                break;
+            }
+            // skip delimiter, record ending with delimiter has empty last field
+            i++;
+        }
+        return fieldCount;
+    }
+
+    /**
+     * Tokenize the whole record
+     */
+    public int tokenize(ByteBuffer data) {
+        return tokenize(data, all_fields);
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @return length of field in bytes, enclosing quotes aren't counted, doubled quote is counted as 2 bytes
+     */
+    public int getLength(int field) {
+        checkField(field);
+        return ends[field] - starts[field];
+    }
+
+    public String getString(int field) {
+        checkField(field);
+        int start = starts[field];
+        int length = ends[field] - start;
+        if (!isEscaped[field] && data.hasArray()) {
+            return new String(data.array(), data.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = scratch(length);
+        int count = copy(field, bytes);
+        return new String(bytes, 0, count, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parse decimal integer without creating String
+     * @throws NumberFormatException
+     */
+    public long getLong(int field) throws NumberFormatException {
+        checkField(field);
+        int i = starts[field];
+        int end = ends[field];
+        if (i == end) {
+            throw new NumberFormatException("Field " + field + " is empty");
+        }
+        boolean negative = data.get(i) == '-';
+        if (negative || data.get(i) == '+') {
+            i++;
+        }
+        if (i == end) {
+            throw new NumberFormatException("Bad number in field " + field);
+        }
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = data.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Bad number in field " + field);
+            }
+            // accumulate negative value, so Long.MIN_VALUE is parsed too
+            if (result < (Long.MIN_VALUE + digit) / 10) {
+                throw new NumberFormatException("Number in field " + field + " is out of range");
+            }
+            result = result * 10 - digit;
+        }
+        if (!negative && result == Long.MIN_VALUE) {
+            throw new NumberFormatException("Number in field " + field + " is out of range");
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * @throws NumberFormatException
+     */
+    public double getDouble(int field) throws NumberFormatException {
+        return Double.parseDouble(getString(field));
+    }
+
+    /**
+     * Compare field with ASCII or UTF-8 text without creating String
+     */
+    public boolean equals(int field, byte[] text) {
+        checkField(field);
+        if (isEscaped[field]) {
+            byte[] bytes = scratch(ends[field] - starts[field]);
+            int count = copy(field, bytes);
+            return Arrays.equals(bytes, 0, count, text, 0, text.length);
+        }
+        int start = starts[field];
+        if (ends[field] - start != text.length) {
+            return false;
+        }
+        for (int i = 0; i < text.length; i++) {
+            if (data.get(start + i) != text[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(int start, int end, boolean escaped) {
+        if (fieldCount == starts.length) {
+            int size = fieldCount * 2;
+            starts = Arrays.copyOf(starts, size);
+            ends = Arrays.copyOf(ends, size);
+            isEscaped = Arrays.copyOf(isEscaped, size);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        isEscaped[fieldCount] = escaped;
+        fieldCount++;
+    }
+
+    // copy field value with doubled quotes replaced, return its length
+    private int copy(int field, byte[] bytes) {
+        int count = 0;
+        int end = ends[field];
+        for (int i = starts[field]; i < end; i++) {
+            byte b = data.get(i);
+            bytes[count++] = b;
+            if (b == quote && isEscaped[field] && i + 1 < end && data.get(i + 1) == quote) {
+                i++;
+            }
+        }
+        return count;
+    }
+
+    private byte[] scratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        return scratch;
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + field + " is out of record with " + fieldCount + " fields");
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.cookbook.processing.datasources;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// package private class
+// pool of direct buffers of one size: allocation of direct buffer is expensive and its memory is freed only by GC
+final class DirectBufferPool {
+
+    private final int bufferSize;
+    private final int maxPooledNum;
+    private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledNum = new AtomicInteger();
+
+    DirectBufferPool(int bufferSize, int maxPooledNum) {
+        this.bufferSize = bufferSize;
+        this.maxPooledNum = maxPooledNum;
+    }
+
+    ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        pooledNum.decrementAndGet();
+        return buffer;
+    }
+
+    void release(ByteBuffer buffer) {
+        if (pooledNum.incrementAndGet() > maxPooledNum) {
+            pooledNum.decrementAndGet();
+            return;
+        }
+        buffer.clear();
+        buffers.offer(buffer);
+    }
+}
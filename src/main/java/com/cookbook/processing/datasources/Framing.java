@@ -0,0 +1,126 @@
+package com.cookbook.processing.datasources;
+
+import com.cookbook.processing.interfaces.Producer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * How records are separated in byte stream of SocketDataSource
+ */
+public final class Framing {
+
+    private static final int length_prefix_size = Integer.BYTES;
+
+    private final boolean isDelimited;
+    private final byte delimiter;
+    private final int maxRecordSize;
+
+    private Framing(boolean isDelimited, byte delimiter, int maxRecordSize) {
+        this.isDelimited = isDelimited;
+        this.delimiter = delimiter;
+        this.maxRecordSize = maxRecordSize;
+    }
+
+    /**
+     * Records end with delimiter, delimiter isn't a part of record. For '\n' delimiter trailing '\r' is removed too
+     * @param maxRecordSize - max size of record in bytes, connection sending longer record is closed
+     */
+    public static Framing delimited(byte delimiter, int maxRecordSize) {
+        if (maxRecordSize <= 0) {
+            throw new IllegalArgumentException("Max record size must be positive");
+        }
+        return new Framing(true, delimiter, maxRecordSize);
+    }
+
+    /**
+     * Every record is preceded by its length: 4 bytes, big-endian
+     * @param maxRecordSize - max size of record in bytes, connection sending longer record is closed
+     */
+    public static Framing lengthPrefixed(int maxRecordSize) {
+        if (maxRecordSize <= 0 || maxRecordSize > Integer.MAX_VALUE - length_prefix_size) {
+            throw new IllegalArgumentException("Bad value for max record size");
+        }
+        return new Framing(false, (byte) 0, maxRecordSize);
+    }
+
+    public int getMaxRecordSize() {
+        return maxRecordSize;
+    }
+
+    // buffer for one connection holds the longest record with its framing
+    int getBufferSize() {
+        return maxRecordSize + (isDelimited ? 1 : length_prefix_size);
+    }
+
+    /**
+     * Send all complete records between position and limit of buffer, position is moved to the first incomplete record
+     * @param view - reusable view of buffer, it's passed to producer
+     * @return false if stream is broken: record is longer than max size or length is negative
+     */
+    boolean deliver(ByteBuffer buffer, ByteBuffer view, Producer producer) {
+        return isDelimited ? deliverDelimited(buffer, view, producer) : deliverLengthPrefixed(buffer, view, producer);
+    }
+
+    /**
+     * Send rest of stream when connection is closed by peer: the last record may have no delimiter
+     * @return false if rest isn't a complete record
+     */
+    boolean deliverLast(ByteBuffer buffer, ByteBuffer view, Producer producer) {
+        if (!deliver(buffer, view, producer)) {
+            return false;
+        }
+        if (!buffer.hasRemaining()) {
+            return true;
+        }
+        if (!isDelimited) {
+            return false;
+        }
+        send(view, buffer.position(), buffer.limit(), producer);
+        buffer.position(buffer.limit());
+        return true;
+    }
+
+    private boolean deliverDelimited(ByteBuffer buffer, ByteBuffer view, Producer producer) {
+        int start = buffer.position();
+        int end = buffer.limit();
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == delimiter) {
+                if (i - start > maxRecordSize) {
+                    return false;
+                }
+                send(view, start, i, producer);
+                start = i + 1;
+            }
+        }
+        buffer.position(start);
+        return end - start <= maxRecordSize;
+    }
+
+    private boolean deliverLengthPrefixed(ByteBuffer buffer, ByteBuffer view, Producer producer) {
+        int start = buffer.position();
+        int end = buffer.limit();
+        while (end - start >= length_prefix_size) {
+            int length = buffer.getInt(start);
+            if (length < 0 || length > maxRecordSize) {
+                return false;
+            }
+            if (end - start - length_prefix_size < length) {
+                break;
+            }
+            int recordStart = start + length_prefix_size;
+            view.limit(recordStart + length).position(recordStart);
+            producer.notify(view);
+            start = recordStart + length;
+        }
+        buffer.position(start);
+        return true;
+    }
+
+    private void send(ByteBuffer view, int start, int end, Producer producer) {
+        view.limit(end).position(start);
+        if (delimiter == '\n' && end > start && view.get(end - 1) == '\r') {
+            view.limit(end - 1);
+        }
+        producer.notify(view);
+    }
+}
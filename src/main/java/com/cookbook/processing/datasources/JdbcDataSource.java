@@ -0,0 +1,270 @@
+package com.cookbook.processing.datasources;
+
+import com.cookbook.processing.csv.CsvEncoder;
+import com.cookbook.processing.interfaces.DataSource;
+import com.cookbook.processing.interfaces.Producer;
+
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Data base data source: result set is streamed with fetch size, every row is encoded to CSV record in one pass
+ * (CsvEncoder, SQL NULL is empty field) and sent to producer, see Producer.notify(ByteBuffer).
+ * Records can be decoded by CsvDecoders.
+ *
+ * Query mode: one query on one connection, rows are sent in result set order.
+ * Partitioned mode: table is split to ranges of numeric key column, ranges are read in parallel by separate connections,
+ * so producer gets notify() from several threads at once and must allow it (e.g. BlockingQueueProducer, PartitionedProducer).
+ *
+ * Auto commit is switched off while reading, some drivers (e.g. PostgreSQL) stream rows only without it.
+ * MySQL driver streams rows only with fetch size Integer.MIN_VALUE
+ */
+public class JdbcDataSource implements DataSource {
+
+    public static final int default_fetch_size = 1000;
+    private static final Pattern identifier = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*(\\.[A-Za-z_][A-Za-z0-9_$]*)*");
+
+    /**
+     * Source of connections, e.g. () -> DriverManager.getConnection(url) or javax.sql.DataSource::getConnection
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private final ConnectionFactory connectionFactory;
+    private final int fetchSize;
+    // query mode
+    private final String query;
+    // partitioned mode
+    private final String table;
+    private final String keyColumn;
+    private final String columns;
+    private final int partitionNum;
+    private final LongAdder rowCount = new LongAdder();
+    private Producer producer;
+
+    private JdbcDataSource(ConnectionFactory connectionFactory, int fetchSize, String query,
+                           String table, String keyColumn, String columns, int partitionNum) {
+        this.connectionFactory = connectionFactory;
+        this.fetchSize = fetchSize;
+        this.query = query;
+        this.table = table;
+        this.keyColumn = keyColumn;
+        this.columns = columns;
+        this.partitionNum = partitionNum;
+    }
+
+    /**
+     * Static factory for query mode
+     * @param connectionFactory - source of connection
+     * @param query - SQL query, rows are sent in its order
+     * @param fetchSize - count of rows fetched from data base at once
+     * @return new JdbcDataSource object
+     * @throws IllegalArgumentException
+     */
+    public static JdbcDataSource forQuery(ConnectionFactory connectionFactory, String query, int fetchSize) throws IllegalArgumentException {
+        if (connectionFactory == null || query == null) {
+            throw new IllegalArgumentException("Connection factory and query must be not null");
+        }
+        checkFetchSize(fetchSize);
+        return new JdbcDataSource(connectionFactory, fetchSize, query, null, null, null, 1);
+    }
+
+    /**
+     * Static factory for partitioned mode
+     * @param connectionFactory - source of connections, it's called once for every partition and once for key range
+     * @param table - table name
+     * @param keyColumn - integer column for partitioning, index on it is expected
+     * @param columns - columns of record, in record order
+     * @param partitionNum - count of key ranges read in parallel
+     * @param fetchSize - count of rows fetched from data base at once
+     * @return new JdbcDataSource object
+     * @throws IllegalArgumentException
+     */
+    public static JdbcDataSource forTable(ConnectionFactory connectionFactory, String table, String keyColumn, String[] columns,
+                                          int partitionNum, int fetchSize) throws IllegalArgumentException {
+        if (connectionFactory == null) {
+            throw new IllegalArgumentException("Connection factory must be not null");
+        }
+        if (columns == null || columns.length == 0) {
+            throw new IllegalArgumentException("Columns must be not empty");
+        }
+        // names are a part of SQL text, so only plain identifiers are allowed
+        checkIdentifier(table);
+        checkIdentifier(keyColumn);
+        for (String column : columns) {
+            checkIdentifier(column);
+        }
+        if (partitionNum <= 0) {
+            throw new IllegalArgumentException("Partition num must be positive");
+        }
+        checkFetchSize(fetchSize);
+        return new JdbcDataSource(connectionFactory, fetchSize, null, table, keyColumn, String.join(", ", columns), partitionNum);
+    }
+
+    @Override
+    public void setProducer(Producer producer) {
+        this.producer = producer;
+    }
+
+    /**
+     * Read all rows, return when they are sent to producer
+     * @throws IllegalStateException if data base can't be read, SQLException is its cause
+     */
+    @Override
+    public void getData() {
+        try {
+            if (query != null) {
+                try (Connection connection = connectionFactory.open()) {
+                    read(connection, query, null);
+                }
+            } else {
+                readPartitions();
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Data base reading failed: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * @return count of rows sent to producer
+     */
+    public long getRowCount() {
+        return rowCount.sum();
+    }
+
+    private static void checkIdentifier(String name) {
+        if (name == null || !identifier.matcher(name).matches()) {
+            throw new IllegalArgumentException("Bad identifier " + name);
+        }
+    }
+
+    private static void checkFetchSize(int fetchSize) {
+        if (fetchSize == 0 || (fetchSize < 0 && fetchSize != Integer.MIN_VALUE)) {
+            throw new IllegalArgumentException("Bad value for fetch size");
+        }
+    }
+
+    private void readPartitions() throws SQLException {
+        long min;
+        long max;
+        try (Connection connection = connectionFactory.open();
+             Statement statement = connection.createStatement();
+             ResultSet range = statement.executeQuery("SELECT MIN(" + keyColumn + "), MAX(" + keyColumn + ") FROM " + table)) {
+            range.next();
+            min = range.getLong(1);
+            if (range.wasNull()) {
+                return;
+            }
+            max = range.getLong(2);
+        }
+        long[] bounds = bounds(min, max, partitionNum);
+        int count = bounds.length - 1;
+        String sql = "SELECT " + columns + " FROM " + table + " WHERE " + keyColumn + " >= ? AND " + keyColumn;
+        ExecutorService executor = Executors.newFixedThreadPool(count, runnable -> {
+            Thread thread = new Thread(runnable, "jdbc-data-source");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[count];
+            for (int i = 0; i < count; i++) {
+                long from = bounds[i];
+                long to = bounds[i + 1];
+                // the last range includes max key
+                boolean isLast = i == count - 1;
+                futures[i] = CompletableFuture.runAsync(() -> {
+                    try (Connection connection = connectionFactory.open()) {
+                        read(connection, sql + (isLast ? " <= ?" : " < ?"), new long[]{from, to});
+                    } catch (SQLException ex) {
+                        throw new CompletionException(ex);
+                    }
+                }, executor);
+            }
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof SQLException) {
+                throw (SQLException) ex.getCause();
+            }
+            throw ex;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // split [min, max] to not empty ranges [bounds[i], bounds[i + 1]), the last range includes max
+    static long[] bounds(long min, long max, int partitionNum) {
+        // count of keys in [min, max], it can be more than Long.MAX_VALUE
+        BigInteger keyNum = BigInteger.valueOf(max).subtract(BigInteger.valueOf(min)).add(BigInteger.ONE);
+        int count = keyNum.min(BigInteger.valueOf(partitionNum)).intValue();
+        long[] bounds = new long[count + 1];
+        for (int i = 0; i < count; i++) {
+            bounds[i] = BigInteger.valueOf(min)
+                    .add(keyNum.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(count))).longValueExact();
+        }
+        bounds[count] = max;
+        return bounds;
+    }
+
+    private void read(Connection connection, String sql, long[] range) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setFetchSize(fetchSize);
+            if (range != null) {
+                statement.setLong(1, range[0]);
+                statement.setLong(2, range[1]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                send(resultSet);
+            }
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void send(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnNum = metaData.getColumnCount();
+        // integer columns are encoded without String
+        boolean[] isInteger = new boolean[columnNum + 1];
+        for (int i = 1; i <= columnNum; i++) {
+            int type = metaData.getColumnType(i);
+            isInteger[i] = type == Types.TINYINT || type == Types.SMALLINT || type == Types.INTEGER || type == Types.BIGINT;
+        }
+        CsvEncoder encoder = new CsvEncoder();
+        long count = 0;
+        while (resultSet.next()) {
+            encoder.reset();
+            for (int i = 1; i <= columnNum; i++) {
+                if (isInteger[i]) {
+                    long value = resultSet.getLong(i);
+                    if (resultSet.wasNull()) {
+                        encoder.addNull();
+                    } else {
+                        encoder.addLong(value);
+                    }
+                } else {
+                    encoder.addString(resultSet.getString(i));
+                }
+            }
+            producer.notify(encoder.getRecord());
+            count++;
+        }
+        rowCount.add(count);
+    }
+}
@@ -0,0 +1,266 @@
+package com.cookbook.processing.datasources;
+
+import com.cookbook.processing.interfaces.BatchProducer;
+import com.cookbook.processing.interfaces.DataSource;
+import com.cookbook.processing.interfaces.Producer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Line based data source for big files: file is memory-mapped by chunks aligned to line feeds, chunks are scanned in parallel.
+ * Every line (without line feed) is sent to producer as view of mapped buffer, see Producer.notify(ByteBuffer).
+ *
+ * Ordered mode: chunks are indexed in parallel (up to parallelism chunks ahead), lines are sent from getData() thread
+ * in file order, so any producer can be used.
+ * Unordered mode: every chunk task sends its lines itself, so producer must accept notify() from several threads at once
+ * (e.g. BlockingQueueProducer, PartitionedProducer), order is kept inside chunk only. BatchProducer gets lines
+ * of chunk as copies by notifyBatch(), up to batch_size lines per call, so it's locked once per batch, not per line.
+ *
+ * Every chunk is mapped separately, so files bigger than 2 GB are supported with MappedByteBuffer
+ */
+public class MappedFileDataSource implements DataSource {
+
+    public static final long default_chunk_size = 64L << 20;
+    // max count of lines in one notifyBatch() call of unordered mode
+    public static final int batch_size = 256;
+    // bytes read at nominal chunk end while searching line feed
+    private static final int align_read_size = 1 << 12;
+
+    private final Path path;
+    private final long chunkSize;
+    private final Executor executor;
+    private final int parallelism;
+    private final boolean isOrdered;
+    private Producer producer;
+
+    /**
+     * Public constructor: ordered mode, default_chunk_size, ForkJoinPool.commonPool()
+     * @param path - file path
+     */
+    public MappedFileDataSource(String path) {
+        this(Paths.get(path), default_chunk_size, ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors(), true);
+    }
+
+    /**
+     * Public constructor
+     * @param path - file path
+     * @param chunkSize - nominal chunk size, chunk is extended to the next line feed. It must be less than 2 GB
+     * @param executor - executor for chunk tasks
+     * @param parallelism - max count of chunks indexed ahead in ordered mode
+     * @param isOrdered - lines are sent in file order from getData() thread
+     */
+    public MappedFileDataSource(Path path, long chunkSize, Executor executor, int parallelism, boolean isOrdered) {
+        if (path == null || executor == null) {
+            throw new IllegalArgumentException("Path and executor must be not null");
+        }
+        if (chunkSize <= 0 || chunkSize >= Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("Bad value for chunk size");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.path = path;
+        this.chunkSize = chunkSize;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.isOrdered = isOrdered;
+    }
+
+    @Override
+    public void setProducer(Producer producer) {
+        this.producer = producer;
+    }
+
+    /**
+     * Read the whole file, return when all lines are sent to producer
+     * @throws UncheckedIOException if file can't be read
+     */
+    @Override
+    public void getData() {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            if (isOrdered) {
+                sendOrdered(channel, bounds);
+            } else {
+                sendUnordered(channel, bounds);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException) {
+                throw (UncheckedIOException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    // chunk i is [bounds[i], bounds[i + 1]), every chunk except the last one ends after line feed
+    private long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long start = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(align_read_size);
+        while (start < size) {
+            long end = start + chunkSize;
+            if (end >= size) {
+                end = size;
+            } else {
+                end = nextLineStart(channel, end, size, buffer);
+            }
+            bounds.add(end);
+            start = end;
+        }
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer buffer) throws IOException {
+        long current = position;
+        while (current < size) {
+            buffer.clear();
+            int count = channel.read(buffer, current);
+            if (count < 0) {
+                break;
+            }
+            for (int i = 0; i < count; i++) {
+                if (buffer.get(i) == '\n') {
+                    return current + i + 1;
+                }
+            }
+            current += count;
+        }
+        return size;
+    }
+
+    private MappedByteBuffer map(FileChannel channel, long[] bounds, int chunk) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, bounds[chunk], bounds[chunk + 1] - bounds[chunk]);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void sendUnordered(FileChannel channel, long[] bounds) {
+        int chunkNum = bounds.length - 1;
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[chunkNum];
+        for (int i = 0; i < chunkNum; i++) {
+            int chunk = i;
+            futures[i] = CompletableFuture.runAsync(() -> sendChunk(map(channel, bounds, chunk)), executor);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    private void sendChunk(ByteBuffer buffer) {
+        ByteBuffer line = buffer.duplicate();
+        List<byte[]> batch = producer instanceof BatchProducer ? new ArrayList<>(batch_size) : null;
+        int start = 0;
+        int end = buffer.limit();
+        for (int i = 0; i < end; i++) {
+            if (buffer.get(i) == '\n') {
+                sendLine(line, start, i, batch);
+                start = i + 1;
+            }
+        }
+        if (start < end) {
+            sendLine(line, start, end, batch);
+        }
+        if (batch != null && !batch.isEmpty()) {
+            ((BatchProducer) producer).notifyBatch(batch);
+        }
+    }
+
+    // line is sent as view or it's copied to batch, full batch is sent
+    private void sendLine(ByteBuffer line, int start, int end, List<byte[]> batch) {
+        if (batch == null) {
+            notifyLine(line, start, end);
+            return;
+        }
+        if (end > start && line.get(end - 1) == '\r') {
+            end--;
+        }
+        byte[] array = new byte[end - start];
+        line.get(start, array);
+        batch.add(array);
+        if (batch.size() == batch_size) {
+            ((BatchProducer) producer).notifyBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void sendOrdered(FileChannel channel, long[] bounds) {
+        int chunkNum = bounds.length - 1;
+        List<CompletableFuture<LineIndex>> futures = new ArrayList<>(chunkNum);
+        for (int i = 0; i < chunkNum; i++) {
+            // next chunk is indexed while lines of previous ones are sent
+            while (futures.size() < Math.min(chunkNum, i + parallelism)) {
+                int chunk = futures.size();
+                futures.add(CompletableFuture.supplyAsync(() -> LineIndex.of(map(channel, bounds, chunk)), executor));
+            }
+            LineIndex index = futures.get(i).join();
+            futures.set(i, null);
+            ByteBuffer line = index.buffer.duplicate();
+            int start = 0;
+            for (int j = 0; j < index.count; j++) {
+                notifyLine(line, start, index.ends[j]);
+                start = index.ends[j] + 1;
+            }
+        }
+    }
+
+    private void notifyLine(ByteBuffer line, int start, int end) {
+        line.limit(end).position(start);
+        if (end > start && line.get(end - 1) == '\r') {
+            line.limit(end - 1);
+        }
+        producer.notify(line);
+    }
+
+    // line ends of chunk, line end is index of line feed or chunk size for the last line without it
+    private static final class LineIndex {
+        final ByteBuffer buffer;
+        final int[] ends;
+        final int count;
+
+        private LineIndex(ByteBuffer buffer, int[] ends, int count) {
+            this.buffer = buffer;
+            this.ends = ends;
+            this.count = count;
+        }
+
+        static LineIndex of(ByteBuffer buffer) {
+            int[] ends = new int[1024];
+            int count = 0;
+            int end = buffer.limit();
+            for (int i = 0; i < end; i++) {
+                if (buffer.get(i) == '\n') {
+                    if (count == ends.length) {
+                        ends = Arrays.copyOf(ends, count * 2);
+                    }
+                    ends[count++] = i;
+                }
+            }
+            int start = count == 0 ? 0 : ends[count - 1] + 1;
+            if (start < end) {
+                if (count == ends.length) {
+                    ends = Arrays.copyOf(ends, count + 1);
+                }
+                ends[count++] = end;
+            }
+            return new LineIndex(buffer, ends, count);
+        }
+    }
+}
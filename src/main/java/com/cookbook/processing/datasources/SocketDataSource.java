@@ -0,0 +1,372 @@
+package com.cookbook.processing.datasources;
+
+import com.cookbook.processing.interfaces.DataSource;
+import com.cookbook.processing.interfaces.Producer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Non-blocking TCP (and optionally UDP) data source: connections are multiplexed by selectors of few event loop threads.
+ * TCP stream is split to records by Framing, every UDP datagram is one record (datagram longer than max record size
+ * is dropped). Records are sent to producer as views of pooled direct buffers, see Producer.notify(ByteBuffer).
+ * Connection isn't read while Producer.isFull(), so TCP flow control slows down the sender.
+ * With several event loops producer gets notify() from several threads at once, so it must allow it
+ * (e.g. BlockingQueueProducer, PartitionedProducer), RingBufferProducer needs one event loop
+ */
+public class SocketDataSource implements DataSource, AutoCloseable {
+
+    public static final int default_max_record_size = 1 << 16;
+    // paused connections are checked with this period
+    private static final long pause_check_millis = 1;
+    // limit of datagrams read at once, so UDP doesn't starve TCP connections of the same loop
+    private static final int max_datagram_num = 64;
+    private static final int max_pooled_buffer_num = 1024;
+
+    private final ServerSocketChannel server;
+    private final DatagramChannel datagram;
+    private final Framing framing;
+    private final DirectBufferPool bufferPool;
+    private final EventLoop[] loops;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final LongAdder framingErrorCount = new LongAdder();
+    private volatile boolean isClosed;
+    private volatile boolean isStarted;
+    private Producer producer;
+
+    /**
+     * Public constructor: TCP only, line feed delimited records, default_max_record_size, one event loop
+     * @param port - TCP port, 0 for any free port
+     * @throws UncheckedIOException if port can't be bound
+     */
+    public SocketDataSource(int port) {
+        this(new InetSocketAddress(port), Framing.delimited((byte) '\n', default_max_record_size), 1, false);
+    }
+
+    /**
+     * Public constructor, sockets are bound at once
+     * @param address - local address for TCP and UDP
+     * @param framing - how TCP stream is split to records
+     * @param eventLoopNum - count of event loop threads
+     * @param isUdpEnabled - UDP datagrams are received at the same address too
+     * @throws UncheckedIOException if address can't be bound
+     */
+    public SocketDataSource(InetSocketAddress address, Framing framing, int eventLoopNum, boolean isUdpEnabled) {
+        if (address == null || framing == null) {
+            throw new IllegalArgumentException("Address and framing must be not null");
+        }
+        if (eventLoopNum <= 0) {
+            throw new IllegalArgumentException("Event loop num must be positive");
+        }
+        this.framing = framing;
+        this.bufferPool = new DirectBufferPool(framing.getBufferSize(), max_pooled_buffer_num);
+        this.loops = new EventLoop[eventLoopNum];
+        ServerSocketChannel server = null;
+        DatagramChannel datagram = null;
+        try {
+            for (int i = 0; i < eventLoopNum; i++) {
+                loops[i] = new EventLoop(Selector.open());
+            }
+            server = ServerSocketChannel.open();
+            server.bind(address);
+            server.configureBlocking(false);
+            server.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+            if (isUdpEnabled) {
+                datagram = DatagramChannel.open();
+                datagram.bind(new InetSocketAddress(address.getAddress(), server.socket().getLocalPort()));
+                datagram.configureBlocking(false);
+                datagram.register(loops[0].selector, SelectionKey.OP_READ, new Connection(datagram, bufferPool.acquire()));
+            }
+        } catch (IOException ex) {
+            closeQuietly(server);
+            closeQuietly(datagram);
+            for (EventLoop loop : loops) {
+                if (loop != null) {
+                    closeQuietly(loop.selector);
+                }
+            }
+            throw new UncheckedIOException(ex);
+        }
+        this.server = server;
+        this.datagram = datagram;
+    }
+
+    @Override
+    public void setProducer(Producer producer) {
+        this.producer = producer;
+    }
+
+    /**
+     * Run event loops, return when data source is closed
+     * @throws IllegalStateException if it's already running or closed
+     */
+    @Override
+    public void getData() {
+        synchronized (this) {
+            if (isStarted || isClosed) {
+                throw new IllegalStateException("Data source is already started or closed");
+            }
+            isStarted = true;
+        }
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 1; i < loops.length; i++) {
+            Thread thread = new Thread(loops[i], "socket-data-source-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        loops[0].run();
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stop event loops and close all connections, getData() returns after that
+     */
+    @Override
+    public void close() {
+        // getData() checks the state under the same lock, so loops are closed either by it or here, never by both
+        synchronized (this) {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            if (!isStarted) {
+                for (EventLoop loop : loops) {
+                    loop.closeAll();
+                }
+                return;
+            }
+        }
+        for (EventLoop loop : loops) {
+            loop.selector.wakeup();
+        }
+    }
+
+    /**
+     * @return bound TCP address, it's useful when port 0 was passed
+     */
+    public InetSocketAddress getLocalAddress() {
+        return (InetSocketAddress) server.socket().getLocalSocketAddress();
+    }
+
+    /**
+     * @return count of open TCP connections
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * @return count of TCP connections closed because of bad framing and UDP datagrams dropped because they are
+     * longer than max record size
+     */
+    public long getFramingErrorCount() {
+        return framingErrorCount.sum();
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception ex) {
+            // nothing to do, channel is dropped anyway
+        }
+    }
+
+    // connection state, it's attachment of selection key
+    private static final class Connection {
+        final SelectableChannel channel;
+        // in write mode between reads
+        final ByteBuffer buffer;
+        // reusable record view for producer
+        final ByteBuffer view;
+
+        Connection(SelectableChannel channel, ByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.view = buffer.duplicate();
+        }
+    }
+
+    private final class EventLoop implements Runnable {
+
+        final Selector selector;
+        // accepted channels waiting for registration in this loop selector
+        private final ConcurrentLinkedQueue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+        // keys which aren't read while producer is full
+        private final List<SelectionKey> paused = new ArrayList<>();
+
+        EventLoop(Selector selector) {
+            this.selector = selector;
+        }
+
+        void add(SocketChannel channel) {
+            pending.offer(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!isClosed) {
+                    if (paused.isEmpty()) {
+                        selector.select();
+                    } else {
+                        selector.select(pause_check_millis);
+                    }
+                    registerPending();
+                    resumePaused();
+                    Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                    while (iterator.hasNext()) {
+                        SelectionKey key = iterator.next();
+                        iterator.remove();
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else if (key.isReadable()) {
+                            read(key);
+                        }
+                    }
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            } finally {
+                closeAll();
+            }
+        }
+
+        private void registerPending() {
+            SocketChannel channel;
+            while ((channel = pending.poll()) != null) {
+                try {
+                    channel.register(selector, SelectionKey.OP_READ, new Connection(channel, bufferPool.acquire()));
+                } catch (IOException ex) {
+                    closeQuietly(channel);
+                    connectionCount.decrementAndGet();
+                }
+            }
+        }
+
+        private void resumePaused() {
+            if (paused.isEmpty() || producer.isFull()) {
+                return;
+            }
+            for (SelectionKey key : paused) {
+                if (key.isValid()) {
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            }
+            paused.clear();
+        }
+
+        private void accept() throws IOException {
+            SocketChannel channel;
+            while ((channel = server.accept()) != null) {
+                channel.configureBlocking(false);
+                connectionCount.incrementAndGet();
+                loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)].add(channel);
+            }
+        }
+
+        private void read(SelectionKey key) {
+            if (producer.isFull()) {
+                key.interestOps(0);
+                paused.add(key);
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (connection.channel instanceof DatagramChannel) {
+                    receive(connection);
+                    return;
+                }
+                int count = ((SocketChannel) connection.channel).read(connection.buffer);
+                ByteBuffer buffer = connection.buffer;
+                buffer.flip();
+                boolean isValid = count < 0
+                        ? framing.deliverLast(buffer, connection.view, producer)
+                        : framing.deliver(buffer, connection.view, producer);
+                buffer.compact();
+                if (!isValid) {
+                    framingErrorCount.increment();
+                }
+                if (count < 0 || !isValid) {
+                    close(key);
+                }
+            } catch (IOException ex) {
+                close(key);
+            }
+        }
+
+        private void receive(Connection connection) throws IOException {
+            DatagramChannel channel = (DatagramChannel) connection.channel;
+            ByteBuffer buffer = connection.buffer;
+            for (int i = 0; i < max_datagram_num && !producer.isFull(); i++) {
+                buffer.clear();
+                SocketAddress sender = channel.receive(buffer);
+                if (sender == null) {
+                    return;
+                }
+                // longer datagram is truncated by receive() and it fills the buffer
+                if (buffer.position() > framing.getMaxRecordSize()) {
+                    framingErrorCount.increment();
+                    continue;
+                }
+                connection.view.limit(buffer.position()).position(0);
+                producer.notify(connection.view);
+            }
+        }
+
+        private void close(SelectionKey key) {
+            Connection connection = (Connection) key.attachment();
+            key.cancel();
+            closeQuietly(connection.channel);
+            bufferPool.release(connection.buffer);
+            if (connection.channel instanceof SocketChannel) {
+                connectionCount.decrementAndGet();
+            }
+        }
+
+        void closeAll() {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    close(key);
+                } else {
+                    closeQuietly(key.channel());
+                }
+            }
+            SocketChannel channel;
+            while ((channel = pending.poll()) != null) {
+                closeQuietly(channel);
+                connectionCount.decrementAndGet();
+            }
+            closeQuietly(selector);
+        }
+    }
+}
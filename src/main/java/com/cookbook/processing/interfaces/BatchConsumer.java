@@ -0,0 +1,25 @@
+package com.cookbook.processing.interfaces;
+
+import java.util.List;
+
+/**
+ * Consumer which accepts several results in one call, e.g. for bulk insert to data base
+ */
+public interface BatchConsumer<T> extends Consumer<T> {
+
+    /**
+     * @param data - results, list is valid only during this call
+     */
+    void notifyBatch(List<T> data);
+
+    /**
+     * Adapter for per-record consumer: notifyBatch() calls notify() for every result
+     * @return consumer itself if it's BatchConsumer
+     */
+    static <T> BatchConsumer<T> of(Consumer<T> consumer) {
+        if (consumer instanceof BatchConsumer) {
+            return (BatchConsumer<T>) consumer;
+        }
+        return new ConsumerAdapter<>(consumer);
+    }
+}
@@ -0,0 +1,25 @@
+package com.cookbook.processing.interfaces;
+
+import java.util.List;
+
+/**
+ * Decoder which accepts several records in one call. DataLinker sets its consumers as BatchConsumer
+ */
+public interface BatchDecoder<T> extends Decoder<T> {
+
+    /**
+     * @param data - records, list is valid only during this call
+     */
+    void setDataBatch(List<byte[]> data);
+
+    /**
+     * Adapter for per-record decoder: setDataBatch() calls setData() for every record
+     * @return decoder itself if it's BatchDecoder
+     */
+    static <T> BatchDecoder<T> of(Decoder<T> decoder) {
+        if (decoder instanceof BatchDecoder) {
+            return (BatchDecoder<T>) decoder;
+        }
+        return new DecoderAdapter<>(decoder);
+    }
+}
@@ -0,0 +1,25 @@
+package com.cookbook.processing.interfaces;
+
+import java.util.List;
+
+/**
+ * Producer which accepts several records in one call. DataLinker adds decoders to it as BatchDecoder
+ */
+public interface BatchProducer extends Producer {
+
+    /**
+     * @param data - records, list can be reused by caller after return, arrays are owned by producer
+     */
+    void notifyBatch(List<byte[]> data);
+
+    /**
+     * Adapter for per-record producer: notifyBatch() calls notify() for every record
+     * @return producer itself if it's BatchProducer
+     */
+    static BatchProducer of(Producer producer) {
+        if (producer instanceof BatchProducer) {
+            return (BatchProducer) producer;
+        }
+        return new ProducerAdapter(producer);
+    }
+}
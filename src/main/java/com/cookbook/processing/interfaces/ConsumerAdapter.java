@@ -0,0 +1,25 @@
+package com.cookbook.processing.interfaces;
+
+import java.util.List;
+
+// package private class
+final class ConsumerAdapter<T> implements BatchConsumer<T> {
+
+    private final Consumer<T> consumer;
+
+    ConsumerAdapter(Consumer<T> consumer) {
+        this.consumer = consumer;
+    }
+
+    @Override
+    public void notifyBatch(List<T> data) {
+        for (int i = 0, size = data.size(); i < size; i++) {
+            consumer.notify(data.get(i));
+        }
+    }
+
+    @Override
+    public void notify(T data) {
+        consumer.notify(data);
+    }
+}
@@ -1,7 +1,19 @@
 package com.cookbook.processing.interfaces;
 
+import java.nio.ByteBuffer;
+
 public interface Decoder<T> {
 
     void setData(byte[] data);
     void setConsumer(Consumer<T> consumer);
+
+    /**
+     * Decode record without copying. Record is between position and limit, buffer is valid only during this call.
+     * Decoder may move position and limit. Default implementation copies record to array
+     */
+    default void setData(ByteBuffer data) {
+        byte[] array = new byte[data.remaining()];
+        data.get(data.position(), array);
+        setData(array);
+    }
 }
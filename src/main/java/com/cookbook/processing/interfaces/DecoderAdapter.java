@@ -0,0 +1,36 @@
+package com.cookbook.processing.interfaces;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+// package private class
+final class DecoderAdapter<T> implements BatchDecoder<T> {
+
+    private final Decoder<T> decoder;
+
+    DecoderAdapter(Decoder<T> decoder) {
+        this.decoder = decoder;
+    }
+
+    @Override
+    public void setDataBatch(List<byte[]> data) {
+        for (int i = 0, size = data.size(); i < size; i++) {
+            decoder.setData(data.get(i));
+        }
+    }
+
+    @Override
+    public void setData(byte[] data) {
+        decoder.setData(data);
+    }
+
+    @Override
+    public void setData(ByteBuffer data) {
+        decoder.setData(data);
+    }
+
+    @Override
+    public void setConsumer(Consumer<T> consumer) {
+        decoder.setConsumer(consumer);
+    }
+}
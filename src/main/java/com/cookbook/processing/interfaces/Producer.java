@@ -1,7 +1,34 @@
 package com.cookbook.processing.interfaces;
 
-public interface Producer {
+import java.nio.ByteBuffer;
+
+public interface Producer extends AutoCloseable {
 
     void notify(byte[] data);
     void addDecoder(Decoder decoder);
+
+    /**
+     * Notify record without copying. Record is between position and limit, buffer is valid only during this call
+     * (data source reuses it), so producer which keeps record copies it. Default implementation copies record to array
+     */
+    default void notify(ByteBuffer data) {
+        byte[] array = new byte[data.remaining()];
+        data.get(data.position(), array);
+        notify(array);
+    }
+
+    /**
+     * Data source which can wait (e.g. socket) stops reading while producer is full, so backpressure goes to data sender
+     * @return true if notify() would drop or wait now. Default implementation is never full
+     */
+    default boolean isFull() {
+        return false;
+    }
+
+    /**
+     * Stop accepting data and release resources. Asynchronous producers deliver already accepted data before return
+     */
+    @Override
+    default void close() {
+    }
 }
@@ -0,0 +1,46 @@
+package com.cookbook.processing.interfaces;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+// package private class
+final class ProducerAdapter implements BatchProducer {
+
+    private final Producer producer;
+
+    ProducerAdapter(Producer producer) {
+        this.producer = producer;
+    }
+
+    @Override
+    public void notifyBatch(List<byte[]> data) {
+        for (int i = 0, size = data.size(); i < size; i++) {
+            producer.notify(data.get(i));
+        }
+    }
+
+    @Override
+    public void notify(byte[] data) {
+        producer.notify(data);
+    }
+
+    @Override
+    public void notify(ByteBuffer data) {
+        producer.notify(data);
+    }
+
+    @Override
+    public boolean isFull() {
+        return producer.isFull();
+    }
+
+    @Override
+    public void addDecoder(Decoder decoder) {
+        producer.addDecoder(decoder);
+    }
+
+    @Override
+    public void close() {
+        producer.close();
+    }
+}
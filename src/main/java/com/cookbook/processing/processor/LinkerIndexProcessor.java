@@ -0,0 +1,199 @@
+package com.cookbook.processing.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Annotation processor which writes LinkerIndex for every package with Data_Source, Decode or Consume classes
+ * and registers indexes in META-INF/services/com.cookbook.processing.LinkerIndex.
+ * Annotated class must be public, not abstract and must implement interface of its annotation.
+ * Decoder and Consumer must have public no-arg constructor, DataSource is created by application
+ */
+@SupportedAnnotationTypes({
+        "com.cookbook.processing.annotation.Data_Source",
+        "com.cookbook.processing.annotation.Decode",
+        "com.cookbook.processing.annotation.Consume"
+})
+public class LinkerIndexProcessor extends AbstractProcessor {
+
+    static final String index_class_name = "GeneratedLinkerIndex";
+    private static final String service_file = "META-INF/services/com.cookbook.processing.LinkerIndex";
+    private static final String data_source_annotation = "com.cookbook.processing.annotation.Data_Source";
+    private static final Map<String, String> interface_names = Map.of(
+            "com.cookbook.processing.annotation.Data_Source", "com.cookbook.processing.interfaces.DataSource",
+            "com.cookbook.processing.annotation.Decode", "com.cookbook.processing.interfaces.Decoder",
+            "com.cookbook.processing.annotation.Consume", "com.cookbook.processing.interfaces.Consumer");
+
+    private final Set<String> indexNames = new LinkedHashSet<>();
+    private final Set<String> usedNames = new HashSet<>();
+    private int round;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        round++;
+        if (roundEnv.processingOver()) {
+            if (!indexNames.isEmpty()) {
+                writeServiceFile();
+            }
+            return false;
+        }
+        // classes by package, sorted for stable output
+        Map<String, Set<TypeElement>> packages = new TreeMap<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (isValid(element, annotation)) {
+                    TypeElement type = (TypeElement) element;
+                    String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+                    packages.computeIfAbsent(packageName, key -> new LinkedHashSet<>()).add(type);
+                }
+            }
+        }
+        for (Map.Entry<String, Set<TypeElement>> entry : packages.entrySet()) {
+            writeIndex(entry.getKey(), entry.getValue());
+        }
+        return false;
+    }
+
+    private boolean isValid(Element element, TypeElement annotation) {
+        if (element.getKind() != ElementKind.CLASS) {
+            return error(element, "@" + annotation.getSimpleName() + " is allowed for classes only");
+        }
+        TypeElement type = (TypeElement) element;
+        Set<Modifier> modifiers = type.getModifiers();
+        if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.ABSTRACT)) {
+            return error(element, "Linked class must be public and not abstract");
+        }
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL && !modifiers.contains(Modifier.STATIC)) {
+            return error(element, "Linked nested class must be static");
+        }
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        if (!annotation.getQualifiedName().contentEquals(data_source_annotation) && constructors.stream().noneMatch(c -> c.getParameters().isEmpty() && c.getModifiers().contains(Modifier.PUBLIC))) {
+            return error(element, "Linked class must have public no-arg constructor");
+        }
+        TypeElement required = processingEnv.getElementUtils().getTypeElement(interface_names.get(annotation.getQualifiedName().toString()));
+        if (required != null) {
+            Types types = processingEnv.getTypeUtils();
+            if (!types.isAssignable(types.erasure(type.asType()), types.erasure(required.asType()))) {
+                return error(element, "@" + annotation.getSimpleName() + " class must implement " + required.getSimpleName());
+            }
+        }
+        return true;
+    }
+
+    private boolean isDataSource(TypeElement type) {
+        return type.getAnnotationMirrors().stream().anyMatch(mirror ->
+                ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(data_source_annotation));
+    }
+
+    private boolean error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+        return false;
+    }
+
+    private void writeIndex(String packageName, Set<TypeElement> types) {
+        String simpleName = index_class_name;
+        String qualifiedName = qualify(packageName, simpleName);
+        // packages found again in later rounds get new index
+        if (!usedNames.add(qualifiedName)) {
+            simpleName = index_class_name + round;
+            qualifiedName = qualify(packageName, simpleName);
+            usedNames.add(qualifiedName);
+        }
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, types.toArray(new Element[0]));
+            try (PrintWriter out = new PrintWriter(file.openWriter())) {
+                if (!packageName.isEmpty()) {
+                    out.println("package " + packageName + ";");
+                    out.println();
+                }
+                out.println("import java.util.LinkedHashMap;");
+                out.println("import java.util.Map;");
+                out.println("import java.util.function.Supplier;");
+                out.println();
+                out.println("@javax.annotation.processing.Generated(\"" + LinkerIndexProcessor.class.getName() + "\")");
+                out.println("public final class " + simpleName + " implements com.cookbook.processing.LinkerIndex {");
+                out.println();
+                out.println("    @Override");
+                out.println("    public Map<Class<?>, Supplier<?>> getFactories() {");
+                out.println("        Map<Class<?>, Supplier<?>> factories = new LinkedHashMap<>();");
+                for (TypeElement type : types) {
+                    String name = type.getQualifiedName().toString();
+                    out.println("        factories.put(" + name + ".class, " + (isDataSource(type) ? "null" : name + "::new") + ");");
+                }
+                out.println("        return factories;");
+                out.println("    }");
+                out.println("}");
+            }
+            indexNames.add(qualifiedName);
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Can't write " + qualifiedName + ": " + ex.getMessage());
+        }
+    }
+
+    // indexes of previous incremental compilation are kept while their classes exist, DataLinker skips indexes which fail to load or link
+    private void writeServiceFile() {
+        Set<String> names = new LinkedHashSet<>();
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", service_file);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String name = line.trim();
+                    // index of previous compilation is kept only while its class exists
+                    if (!name.isEmpty() && processingEnv.getElementUtils().getTypeElement(name) != null) {
+                        names.add(name);
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            // there is no file of previous compilation
+        }
+        names.addAll(indexNames);
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", service_file);
+            try (Writer writer = file.openWriter()) {
+                for (String name : names) {
+                    writer.write(name);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Can't write " + service_file + ": " + ex.getMessage());
+        }
+    }
+
+    private static String qualify(String packageName, String simpleName) {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+}
@@ -0,0 +1,229 @@
+package com.cookbook.processing.producers;
+
+import com.cookbook.processing.interfaces.BatchDecoder;
+import com.cookbook.processing.interfaces.BatchProducer;
+import com.cookbook.processing.interfaces.Decoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous producer: data is put to bounded queue, one dispatcher thread takes it and calls decoders.
+ * Dispatcher drains all queued data (up to max_batch_size) and passes it to decoders as one batch.
+ * Data source thread isn't stalled by slow decoders until the queue is full.
+ * Array passed to notify() is delivered later, so it must not be changed by caller
+ */
+public class BlockingQueueProducer implements BatchProducer {
+
+    public static final int default_capacity = 1 << 14;
+    public static final int max_batch_size = 256;
+
+    // marker for dispatcher thread to finish, it's compared by reference
+    private static final byte[] close_marker = new byte[0];
+    // period of dispatcher liveness checks while close() waits for free space
+    private static final long close_check_ms = 100;
+
+    private final BlockingQueue<byte[]> queue;
+    private final int capacity;
+    private final WaitStrategy waitStrategy;
+    private final OverflowPolicy overflowPolicy;
+    private final List<BatchDecoder> decoderList = new CopyOnWriteArrayList<>();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private volatile boolean isClosed;
+    private Thread dispatcher;
+
+    /**
+     * Public constructor with default_capacity, BLOCK wait strategy and BLOCK overflow policy, it's used by DataLinker
+     */
+    public BlockingQueueProducer() {
+        this(default_capacity, WaitStrategy.BLOCK, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Public constructor
+     * @param capacity - queue capacity
+     * @param waitStrategy - how dispatcher waits for data and data source waits for free space
+     * @param overflowPolicy - what to do with data when the queue is full
+     */
+    public BlockingQueueProducer(int capacity, WaitStrategy waitStrategy, OverflowPolicy overflowPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        if (waitStrategy == null || overflowPolicy == null) {
+            throw new IllegalArgumentException("Wait strategy and overflow policy must be not null");
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.waitStrategy = waitStrategy;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @Override
+    public void notify(byte[] data) {
+        if (isClosed) {
+            throw new IllegalStateException("Producer is closed");
+        }
+        if (queue.offer(data)) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            droppedCount.increment();
+            return;
+        }
+        try {
+            if (waitStrategy == WaitStrategy.BLOCK) {
+                queue.put(data);
+                return;
+            }
+            while (!queue.offer(data)) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                waitStrategy.idle();
+            }
+        } catch (InterruptedException ex) {
+            droppedCount.increment();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void notifyBatch(List<byte[]> data) {
+        for (int i = 0, size = data.size(); i < size; i++) {
+            notify(data.get(i));
+        }
+    }
+
+    @Override
+    public boolean isFull() {
+        return queue.remainingCapacity() == 0;
+    }
+
+    /**
+     * Add decoder, dispatcher thread is started with the first decoder
+     */
+    @Override
+    public synchronized void addDecoder(Decoder decoder) {
+        if (isClosed) {
+            throw new IllegalStateException("Producer is closed");
+        }
+        decoderList.add(BatchDecoder.of(decoder));
+        if (dispatcher == null) {
+            dispatcher = new Thread(this::dispatch, "blocking-queue-producer");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        }
+    }
+
+    /**
+     * Stop accepting data, wait while queued data is delivered to decoders.
+     * If dispatcher thread has died (decoder threw Error), queued data is counted as dropped
+     */
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            thread = dispatcher;
+        }
+        if (thread == null) {
+            return;
+        }
+        try {
+            // full queue is never drained by dead dispatcher, so put() could wait forever
+            while (!queue.offer(close_marker, close_check_ms, TimeUnit.MILLISECONDS)) {
+                if (!thread.isAlive()) {
+                    break;
+                }
+            }
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        List<byte[]> lost = new ArrayList<>();
+        queue.drainTo(lost);
+        lost.removeIf(data -> data == close_marker);
+        droppedCount.add(lost.size());
+    }
+
+    /**
+     * @return count of data dropped because the queue was full or dispatcher thread had died
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * @return count of deliveries where decoder threw exception
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void dispatch() {
+        List<byte[]> batch = new ArrayList<>(max_batch_size);
+        try {
+            boolean isFinished = false;
+            while (!isFinished) {
+                batch.clear();
+                batch.add(take());
+                queue.drainTo(batch, max_batch_size - 1);
+                // close marker is the last accepted data
+                int markerIndex = indexOfMarker(batch);
+                if (markerIndex >= 0) {
+                    batch.subList(markerIndex, batch.size()).clear();
+                    isFinished = true;
+                }
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                for (BatchDecoder decoder : decoderList) {
+                    try {
+                        decoder.setDataBatch(batch);
+                    } catch (RuntimeException ex) {
+                        failedCount.increment();
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int indexOfMarker(List<byte[]> batch) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (batch.get(i) == close_marker) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private byte[] take() throws InterruptedException {
+        if (waitStrategy == WaitStrategy.BLOCK) {
+            return queue.take();
+        }
+        byte[] data;
+        while ((data = queue.poll()) == null) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            waitStrategy.idle();
+        }
+        return data;
+    }
+}
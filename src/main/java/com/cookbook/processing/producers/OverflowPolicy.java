@@ -0,0 +1,11 @@
+package com.cookbook.processing.producers;
+
+/**
+ * What asynchronous producer does with new data when its buffer is full
+ */
+public enum OverflowPolicy {
+    /** data is dropped and counted, data source is never stalled */
+    DROP,
+    /** data source waits for free space using producer wait strategy */
+    BLOCK
+}
@@ -0,0 +1,285 @@
+package com.cookbook.processing.producers;
+
+import com.cookbook.processing.interfaces.BatchDecoder;
+import com.cookbook.processing.interfaces.BatchProducer;
+import com.cookbook.processing.interfaces.Decoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * Asynchronous producer for CPU-bound decoding: records are partitioned into lanes by key taken from record bytes.
+ * Lane is a serial queue running on executor, so records with the same key are decoded in notify() order,
+ * records of different lanes are decoded in parallel. Lane passes queued records to decoders as one batch.
+ * Decoders are called from several threads at once, so they must be thread-safe (e.g. keep record state in local variables).
+ * Any executor can be used, on JDK 21+ it can be Executors.newVirtualThreadPerTaskExecutor()
+ * If executor rejects lane task (it's shut down or saturated), queued records of the lane are counted as dropped
+ * and notify() throws RejectedExecutionException
+ */
+public class PartitionedProducer implements BatchProducer {
+
+    public static final int default_max_in_flight = 1 << 14;
+    // lane gives thread back to executor after batch of this size, so lanes share threads fairly
+    private static final int drain_batch = 256;
+
+    private final Executor executor;
+    // executor created by producer, it's shut down by close()
+    private final ExecutorService ownExecutor;
+    private final Lane[] lanes;
+    private final ToIntFunction<byte[]> keyFunction;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final List<BatchDecoder> decoderList = new CopyOnWriteArrayList<>();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private volatile boolean isClosed;
+
+    /**
+     * Public constructor, it's used by DataLinker: one lane and one daemon thread for every CPU,
+     * key is hash of whole record, so only equal records keep their order
+     */
+    public PartitionedProducer() {
+        this(Arrays::hashCode);
+    }
+
+    /**
+     * Public constructor: one lane and one daemon thread for every CPU
+     * @param keyFunction - partition key of record, records with equal keys are decoded in order
+     */
+    public PartitionedProducer(ToIntFunction<byte[]> keyFunction) {
+        this(newDaemonPool(Runtime.getRuntime().availableProcessors()), true,
+                Runtime.getRuntime().availableProcessors(), default_max_in_flight, keyFunction);
+    }
+
+    /**
+     * Public constructor
+     * @param executor - executor for lanes, it isn't shut down by close()
+     * @param laneNum - count of lanes, it's upper bound of parallelism
+     * @param maxInFlight - max count of notified but not decoded records, notify() waits when it's reached
+     * @param keyFunction - partition key of record, records with equal keys are decoded in order
+     */
+    public PartitionedProducer(Executor executor, int laneNum, int maxInFlight, ToIntFunction<byte[]> keyFunction) {
+        this(executor, false, laneNum, maxInFlight, keyFunction);
+    }
+
+    private PartitionedProducer(Executor executor, boolean isOwnExecutor, int laneNum, int maxInFlight, ToIntFunction<byte[]> keyFunction) {
+        if (executor == null || keyFunction == null) {
+            throw new IllegalArgumentException("Executor and key function must be not null");
+        }
+        if (laneNum <= 0) {
+            throw new IllegalArgumentException("Lane num must be positive");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in flight count must be positive");
+        }
+        this.executor = executor;
+        this.ownExecutor = isOwnExecutor ? (ExecutorService) executor : null;
+        this.lanes = new Lane[laneNum];
+        for (int i = 0; i < laneNum; i++) {
+            lanes[i] = new Lane();
+        }
+        this.keyFunction = keyFunction;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Key function for delimited records: hash of field bytes
+     * @param column - field index, starting from 0
+     * @param delimiter - field delimiter, e.g. ','
+     * @return key function, record without this field has key 0
+     */
+    public static ToIntFunction<byte[]> fieldKey(int column, byte delimiter) {
+        if (column < 0) {
+            throw new IllegalArgumentException("Column must be not negative");
+        }
+        return data -> {
+            int start = 0;
+            for (int i = 0; i < column; i++) {
+                while (start < data.length && data[start] != delimiter) {
+                    start++;
+                }
+                if (start == data.length) {
+                    return 0;
+                }
+                start++;
+            }
+            int hash = 1;
+            for (int i = start; i < data.length && data[i] != delimiter; i++) {
+                hash = 31 * hash + data[i];
+            }
+            return hash;
+        };
+    }
+
+    @Override
+    public void notify(byte[] data) {
+        if (isClosed) {
+            throw new IllegalStateException("Producer is closed");
+        }
+        // there's nobody to deliver data to
+        if (decoderList.isEmpty()) {
+            droppedCount.increment();
+            return;
+        }
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException ex) {
+            droppedCount.increment();
+            Thread.currentThread().interrupt();
+            return;
+        }
+        lanes[Math.floorMod(keyFunction.applyAsInt(data), lanes.length)].add(data);
+    }
+
+    @Override
+    public void notifyBatch(List<byte[]> data) {
+        for (int i = 0, size = data.size(); i < size; i++) {
+            notify(data.get(i));
+        }
+    }
+
+    @Override
+    public boolean isFull() {
+        return inFlight.availablePermits() == 0;
+    }
+
+    @Override
+    public void addDecoder(Decoder decoder) {
+        if (isClosed) {
+            throw new IllegalStateException("Producer is closed");
+        }
+        decoderList.add(BatchDecoder.of(decoder));
+    }
+
+    /**
+     * Stop accepting data, wait while notified records are decoded. Executor created by producer is shut down
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+        }
+        try {
+            inFlight.acquire(maxInFlight);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (ownExecutor != null) {
+            ownExecutor.shutdown();
+        }
+    }
+
+    /**
+     * @return count of records dropped because notify() was interrupted while waiting, there was no decoder
+     * or executor rejected lane task
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * @return count of deliveries where decoder threw exception or Error
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public int getLaneNum() {
+        return lanes.length;
+    }
+
+    private static ExecutorService newDaemonPool(int threadNum) {
+        return Executors.newFixedThreadPool(threadNum, runnable -> {
+            Thread thread = new Thread(runnable, "partitioned-producer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // serial queue: at most one task of lane is submitted to executor at any moment
+    private final class Lane implements Runnable {
+
+        private final ConcurrentLinkedQueue<byte[]> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean isScheduled = new AtomicBoolean();
+        // it's used by one thread at a time, because lane is scheduled once
+        private final List<byte[]> batch = new ArrayList<>(drain_batch);
+
+        void add(byte[] data) {
+            queue.offer(data);
+            if (isScheduled.compareAndSet(false, true)) {
+                schedule();
+            }
+        }
+
+        // lane is marked scheduled by caller. Rejected lane drops queued records and releases their permits, so close() doesn't wait for them
+        private void schedule() {
+            while (true) {
+                try {
+                    executor.execute(this);
+                    return;
+                } catch (RejectedExecutionException ex) {
+                    int count = 0;
+                    while (queue.poll() != null) {
+                        count++;
+                    }
+                    droppedCount.add(count);
+                    inFlight.release(count);
+                    isScheduled.set(false);
+                    // record added concurrently saw the lane scheduled, so it's submitted again
+                    if (queue.isEmpty() || !isScheduled.compareAndSet(false, true)) {
+                        throw ex;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            byte[] data;
+            batch.clear();
+            while (batch.size() < drain_batch && (data = queue.poll()) != null) {
+                batch.add(data);
+            }
+            try {
+                for (BatchDecoder decoder : decoderList) {
+                    try {
+                        decoder.setDataBatch(batch);
+                    } catch (RuntimeException ex) {
+                        failedCount.increment();
+                    }
+                }
+            } catch (Error err) {
+                // batch isn't passed to the rest of decoders, error goes to executor thread
+                failedCount.increment();
+                throw err;
+            } finally {
+                // lane and permits are released even after Error, otherwise lane and close() would wait forever
+                inFlight.release(batch.size());
+                isScheduled.set(false);
+                // record added after the last poll() sees the lane scheduled and relies on this check
+                if (!queue.isEmpty() && isScheduled.compareAndSet(false, true)) {
+                    try {
+                        schedule();
+                    } catch (RejectedExecutionException ex) {
+                        // records are counted as dropped, there's nobody to report to in executor thread
+                    }
+                }
+            }
+        }
+    }
+}
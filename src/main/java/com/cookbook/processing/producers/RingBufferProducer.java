@@ -0,0 +1,259 @@
+package com.cookbook.processing.producers;
+
+import com.cookbook.processing.interfaces.BatchDecoder;
+import com.cookbook.processing.interfaces.BatchProducer;
+import com.cookbook.processing.interfaces.Decoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free single producer - multi consumer ring buffer.
+ * Every decoder has its own thread and read sequence, so every decoder gets every data in order
+ * and slow decoder doesn't stall other ones until the ring is full. Decoder thread passes all published data
+ * (up to max_batch_size) to decoder as one batch.
+ * notify() must be called by one thread at a time (it's usual for DataSource). Array passed to notify() is delivered later,
+ * so it must not be changed by caller. Decoders should be added before data is notified.
+ * Slot is cleared by the last decoder thread passing it, so delivered data isn't kept reachable by the ring.
+ * Decoder thread which dies (decoder threw Error) doesn't hold producer anymore
+ */
+public class RingBufferProducer implements BatchProducer {
+
+    public static final int default_capacity = 1 << 14;
+    public static final int max_batch_size = 256;
+    // read sequence of finished decoder thread, it's never less than any wrap point
+    private static final long finished_sequence = Long.MAX_VALUE;
+
+    private final byte[][] slots;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final OverflowPolicy overflowPolicy;
+    // sequence of the last published data
+    private final AtomicLong cursor = new AtomicLong(-1);
+    // copy on write array of read sequences, it's read by producer for wrap checking
+    private volatile AtomicLong[] gatingSequences = new AtomicLong[0];
+    private final AtomicInteger liveConsumerCount = new AtomicInteger();
+    private final List<Thread> threadList = new ArrayList<>();
+    private final WaitSignal notEmpty = new WaitSignal();
+    private final WaitSignal notFull = new WaitSignal();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private volatile boolean isClosed;
+    // producer thread only
+    private long nextSequence;
+    private long cachedGatingSequence = -1;
+
+    /**
+     * Public constructor with default_capacity, BLOCK wait strategy and BLOCK overflow policy, it's used by DataLinker
+     */
+    public RingBufferProducer() {
+        this(default_capacity, WaitStrategy.BLOCK, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Public constructor
+     * @param capacity - ring capacity, it's rounded up to power of 2
+     * @param waitStrategy - how decoder threads wait for data and data source waits for free space
+     * @param overflowPolicy - what to do with data when the ring is full
+     */
+    public RingBufferProducer(int capacity, WaitStrategy waitStrategy, OverflowPolicy overflowPolicy) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Bad value for capacity");
+        }
+        if (waitStrategy == null || overflowPolicy == null) {
+            throw new IllegalArgumentException("Wait strategy and overflow policy must be not null");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new byte[size][];
+        this.mask = size - 1;
+        this.waitStrategy = waitStrategy;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    @Override
+    public void notify(byte[] data) {
+        if (isClosed) {
+            throw new IllegalStateException("Producer is closed");
+        }
+        // there's nobody to deliver data to
+        if (liveConsumerCount.get() == 0) {
+            droppedCount.increment();
+            return;
+        }
+        long sequence = nextSequence;
+        long wrapPoint = sequence - slots.length;
+        if (wrapPoint > cachedGatingSequence) {
+            cachedGatingSequence = minGatingSequence();
+            if (wrapPoint > cachedGatingSequence) {
+                if (overflowPolicy == OverflowPolicy.DROP) {
+                    droppedCount.increment();
+                    return;
+                }
+                try {
+                    notFull.await(waitStrategy, () -> wrapPoint <= minGatingSequence());
+                } catch (InterruptedException ex) {
+                    droppedCount.increment();
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                cachedGatingSequence = minGatingSequence();
+            }
+        }
+        slots[(int) sequence & mask] = data;
+        nextSequence = sequence + 1;
+        cursor.set(sequence);
+        notEmpty.signal();
+    }
+
+    @Override
+    public void notifyBatch(List<byte[]> data) {
+        for (int i = 0, size = data.size(); i < size; i++) {
+            notify(data.get(i));
+        }
+    }
+
+    @Override
+    public boolean isFull() {
+        return liveConsumerCount.get() > 0 && cursor.get() - minGatingSequence() >= slots.length;
+    }
+
+    /**
+     * Add decoder and start its thread. Decoder gets data notified after this call
+     */
+    @Override
+    public synchronized void addDecoder(Decoder decoder) {
+        if (isClosed) {
+            throw new IllegalStateException("Producer is closed");
+        }
+        AtomicLong sequence = new AtomicLong(cursor.get());
+        AtomicLong[] current = gatingSequences;
+        AtomicLong[] updated = new AtomicLong[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = sequence;
+        gatingSequences = updated;
+        liveConsumerCount.incrementAndGet();
+
+        BatchDecoder batchDecoder = BatchDecoder.of(decoder);
+        Thread thread = new Thread(() -> consume(batchDecoder, sequence), "ring-buffer-producer-" + current.length);
+        thread.setDaemon(true);
+        threadList.add(thread);
+        thread.start();
+    }
+
+    /**
+     * Stop accepting data, wait while published data is delivered to all decoders
+     */
+    @Override
+    public void close() {
+        List<Thread> threads;
+        synchronized (this) {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            threads = new ArrayList<>(threadList);
+        }
+        notEmpty.signal();
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return count of data dropped because the ring was full or there was no live decoder thread
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * @return count of deliveries where decoder threw exception or Error
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    private long minGatingSequence() {
+        long min = Long.MAX_VALUE;
+        for (AtomicLong sequence : gatingSequences) {
+            min = Math.min(min, sequence.get());
+        }
+        return min;
+    }
+
+    private void consume(BatchDecoder decoder, AtomicLong sequence) {
+        List<byte[]> batch = new ArrayList<>(max_batch_size);
+        long next = sequence.get() + 1;
+        try {
+            while (true) {
+                long available = cursor.get();
+                if (available < next) {
+                    if (isClosed && cursor.get() < next) {
+                        return;
+                    }
+                    long expected = next;
+                    notEmpty.await(waitStrategy, () -> isClosed || cursor.get() >= expected);
+                    continue;
+                }
+                // published data is read in batches, read sequence is moved once per batch
+                long first = next;
+                long last = Math.min(available, next + max_batch_size - 1);
+                batch.clear();
+                for (; next <= last; next++) {
+                    batch.add(slots[(int) next & mask]);
+                }
+                try {
+                    decoder.setDataBatch(batch);
+                } catch (RuntimeException ex) {
+                    failedCount.increment();
+                } catch (Error err) {
+                    failedCount.increment();
+                    throw err;
+                }
+                batch.clear();
+                clearSlots(sequence, first, last);
+                sequence.set(last);
+                notFull.signal();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // thread is finished by close() or by Error of decoder, in both cases it mustn't block producer
+            sequence.set(finished_sequence);
+            if (liveConsumerCount.decrementAndGet() == 0) {
+                // published data which this thread didn't read has no reader
+                droppedCount.add(Math.max(0, cursor.get() - (next - 1)));
+            }
+            notFull.signal();
+        }
+    }
+
+    // slots [first, last] are cleared if other threads have passed them. Own sequence isn't moved yet,
+    // so producer can't reuse these slots meanwhile. Slots passed by several threads at once may be left
+    // until they are overwritten
+    private void clearSlots(AtomicLong own, long first, long last) {
+        long end = last;
+        for (AtomicLong sequence : gatingSequences) {
+            if (sequence != own) {
+                end = Math.min(end, sequence.get());
+            }
+        }
+        for (long i = first; i <= end; i++) {
+            slots[(int) i & mask] = null;
+        }
+    }
+}
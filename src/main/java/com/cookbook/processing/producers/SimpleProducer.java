@@ -1,14 +1,16 @@
 package com.cookbook.processing.producers;
 
+import com.cookbook.processing.interfaces.BatchDecoder;
+import com.cookbook.processing.interfaces.BatchProducer;
 import com.cookbook.processing.interfaces.Decoder;
-import com.cookbook.processing.interfaces.Producer;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
-public class SimpleProducer implements Producer {
+public class SimpleProducer implements BatchProducer {
 
-    private List<Decoder> decoderList = new ArrayList<>();
+    private List<BatchDecoder> decoderList = new ArrayList<>();
 
     public SimpleProducer(){}
 
@@ -20,8 +22,28 @@ public class SimpleProducer implements Producer {
         }
     }
 
+    /**
+     * Every decoder gets the same buffer without copying, position and limit are restored after each decoder
+     */
+    @Override
+    public void notify(ByteBuffer data) {
+        int position = data.position();
+        int limit = data.limit();
+        for(Decoder decoder : decoderList) {
+            decoder.setData(data);
+            data.limit(limit).position(position);
+        }
+    }
+
+    @Override
+    public void notifyBatch(List<byte[]> data) {
+        for(BatchDecoder decoder : decoderList) {
+            decoder.setDataBatch(data);
+        }
+    }
+
     @Override
     public void addDecoder(Decoder decoder) {
-        this.decoderList.add(decoder);
+        this.decoderList.add(BatchDecoder.of(decoder));
     }
 }
@@ -0,0 +1,50 @@
+package com.cookbook.processing.producers;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+// package private class
+// waiting for condition with chosen strategy. Lock is touched only by BLOCK strategy and only when somebody waits,
+// so signal() is cheap for other strategies
+final class WaitSignal {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private final AtomicInteger waiterCount = new AtomicInteger();
+
+    void await(WaitStrategy strategy, BooleanSupplier isReady) throws InterruptedException {
+        if (strategy != WaitStrategy.BLOCK) {
+            while (!isReady.getAsBoolean()) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                strategy.idle();
+            }
+            return;
+        }
+        // waiter is registered before the last check, so signal after state change can't be lost
+        waiterCount.incrementAndGet();
+        lock.lock();
+        try {
+            while (!isReady.getAsBoolean()) {
+                condition.await();
+            }
+        } finally {
+            lock.unlock();
+            waiterCount.decrementAndGet();
+        }
+    }
+
+    void signal() {
+        if (waiterCount.get() > 0) {
+            lock.lock();
+            try {
+                condition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
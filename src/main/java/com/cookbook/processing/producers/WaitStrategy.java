@@ -0,0 +1,33 @@
+package com.cookbook.processing.producers;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a thread of asynchronous producer waits for data or free space
+ */
+public enum WaitStrategy {
+    /** sleep on a lock condition until the other side signals, cheapest for CPU, highest latency */
+    BLOCK,
+    /** busy spin, lowest latency, occupies CPU core. Use it only when every waiting thread has own core */
+    SPIN,
+    /** give CPU to other threads between checks */
+    YIELD,
+    /** sleep for short fixed time between checks */
+    PARK;
+
+    private static final long park_nanos = 50_000;
+
+    // one step of waiting for non-blocking strategies
+    void idle() {
+        switch (this) {
+            case SPIN:
+                Thread.onSpinWait();
+                break;
+            case YIELD:
+                Thread.yield();
+                break;
+            default:
+                LockSupport.parkNanos(park_nanos);
+        }
+    }
+}
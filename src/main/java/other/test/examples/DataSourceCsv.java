@@ -4,14 +4,16 @@ import com.cookbook.processing.annotation.Data_Source;
 import com.cookbook.processing.interfaces.DataSource;
 import com.cookbook.processing.interfaces.Producer;
 
-import java.io.*;
-import java.nio.charset.StandardCharsets;
-
-import java.util.Arrays;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 @Data_Source(name= "csv_data_source")
 public class DataSourceCsv implements DataSource {
 
+    private static final int buffer_size = 1 << 16;
 
     private final String path;
     private Producer producer;
@@ -25,17 +27,45 @@ public class DataSourceCsv implements DataSource {
         this.producer = producer;
     }
 
+    /**
+     * File is read to one shared buffer, every line is sent to producer as view of this buffer without copying
+     */
     @Override
     public void getData(){
-        File file = new File(this.path);
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                System.out.println("read from file " + Arrays.toString(line.getBytes(StandardCharsets.UTF_8)));
-                producer.notify(line.getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(Paths.get(this.path), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(buffer_size);
+            // view is reused for every line, its position and limit mark the line
+            ByteBuffer line = buffer.duplicate();
+            boolean isEnd = false;
+            while (!isEnd) {
+                isEnd = channel.read(buffer) < 0;
+                buffer.flip();
+                int start = 0;
+                int end = buffer.limit();
+                for (int i = 0; i < end; i++) {
+                    if (buffer.get(i) == '\n') {
+                        notifyLine(line, start, i);
+                        start = i + 1;
+                    }
+                }
+                if (isEnd) {
+                    // the last line without line feed
+                    if (start < end) {
+                        notifyLine(line, start, end);
+                    }
+                    break;
+                }
+                buffer.position(start);
+                buffer.compact();
+                // line is longer than buffer
+                if (!buffer.hasRemaining()) {
+                    ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    bigger.put(buffer);
+                    buffer = bigger;
+                    line = buffer.duplicate();
+                }
             }
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -43,4 +73,12 @@ public class DataSourceCsv implements DataSource {
 
     }
 
+    private void notifyLine(ByteBuffer line, int start, int end) {
+        line.limit(end).position(start);
+        if (end > start && line.get(end - 1) == '\r') {
+            line.limit(end - 1);
+        }
+        producer.notify(line);
+    }
+
 }
@@ -1,28 +1,23 @@
 package other.test.examples;
 
+import com.cookbook.processing.annotation.CsvColumns;
 import com.cookbook.processing.annotation.Decode;
+import com.cookbook.processing.csv.CsvDecoder;
+import com.cookbook.processing.csv.CsvTokenizer;
 import com.cookbook.processing.interfaces.Consumer;
-import com.cookbook.processing.interfaces.Decoder;
-
-import java.nio.charset.StandardCharsets;
 
 @Decode(name = "csv_decoder", dataSource = DataSourceCsv.class)
-public class DecoderCsv1 implements Decoder<OutputResultCsv> {
+@CsvColumns({0, 1})
+public class DecoderCsv1 implements CsvDecoder<OutputResultCsv> {
 
     public DecoderCsv1(){}
 
-    private OutputResultCsv data;
     private Consumer<OutputResultCsv> consumers;
 
 
     @Override
-    public void setData(byte[] data) {
-        String s = new String(data, StandardCharsets.UTF_8);
-        String[] splitted = s.split(",");
-        if (splitted.length > 1) {
-            this.data = new OutputResultCsv(splitted[0], splitted[1]);
-            this.consumers.notify(this.data);
-        }
+    public void setRecord(CsvTokenizer record) {
+        this.consumers.notify(new OutputResultCsv(record.getString(0), record.getString(1)));
 
     }
     @Override
@@ -30,4 +25,4 @@ public class DecoderCsv1 implements Decoder<OutputResultCsv> {
         this.consumers = consumer;
     }
 
-}
\ No newline at end of file
+}
@@ -1,28 +1,23 @@
 package other.test.examples;
 
+import com.cookbook.processing.annotation.CsvColumns;
 import com.cookbook.processing.annotation.Decode;
+import com.cookbook.processing.csv.CsvDecoder;
+import com.cookbook.processing.csv.CsvTokenizer;
 import com.cookbook.processing.interfaces.Consumer;
-import com.cookbook.processing.interfaces.Decoder;
-
-import java.nio.charset.StandardCharsets;
 
 @Decode(name = "csv_decoder2", dataSource = DataSourceCsv.class)
-public class DecoderCsv2 implements Decoder<OutputResultCsv> {
+@CsvColumns({2, 3})
+public class DecoderCsv2 implements CsvDecoder<OutputResultCsv> {
 
     public DecoderCsv2(){}
 
-    private OutputResultCsv data;
     private Consumer<OutputResultCsv> consumers;
 
 
     @Override
-    public void setData(byte[] data) {
-        String s = new String(data, StandardCharsets.UTF_8);
-        String[] splitted = s.split(",");
-        if (splitted.length > 3) {
-            this.data = new OutputResultCsv(splitted[3], splitted[2]);
-            this.consumers.notify(this.data);
-        }
+    public void setRecord(CsvTokenizer record) {
+        this.consumers.notify(new OutputResultCsv(record.getString(3), record.getString(2)));
 
     }
     @Override
@@ -30,4 +25,4 @@ public class DecoderCsv2 implements Decoder<OutputResultCsv> {
         this.consumers = consumer;
     }
 
-}
\ No newline at end of file
+}
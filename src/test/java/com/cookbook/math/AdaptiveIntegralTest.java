@@ -0,0 +1,82 @@
+package com.cookbook.math;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveIntegralTest {
+
+    @Test
+    void kronrodRuleIsExactForPolynomials() {
+        // 15 points Kronrod rule integrates polynomials up to degree 22 exactly
+        GaussKronrod.Segment segment = GaussKronrod.integrate(x -> Math.pow(x, 10) - 3 * x * x, -1, 2);
+        double expected = (Math.pow(2, 11) + 1) / 11 - (8 + 1);
+        assertEquals(expected, segment.result, 1e-12 * Math.abs(expected));
+        assertTrue(segment.error < 1e-9, "error " + segment.error);
+    }
+
+    @Test
+    void batchAndScalarRulesGiveSameResult() {
+        Polynomial polynomial = Polynomial.newInstance(1, -2, 0.5, 3);
+        MathFunction scalar = polynomial::getF;
+        GaussKronrod.Segment batch = GaussKronrod.integrate(polynomial, -0.5, 1.5);
+        GaussKronrod.Segment plain = GaussKronrod.integrate(scalar, -0.5, 1.5);
+        assertEquals(plain.result, batch.result, 1e-15);
+        assertEquals(plain.error, batch.error, 1e-15);
+    }
+
+    @Test
+    void smoothFunctionsMatchClosedForm() {
+        assertIntegral(Math::sin, 0, Math.PI, 2.0);
+        assertIntegral(Math::exp, 0, 1, Math.E - 1);
+        assertIntegral(x -> 1 / (1 + x * x), -1, 1, Math.PI / 2);
+    }
+
+    @Test
+    void singularDerivativeAndPeakAreRefined() {
+        // sqrt has unbounded derivative at 0
+        CalculationResult sqrt = assertIntegral(Math::sqrt, 0, 1, 2.0 / 3);
+        assertTrue(sqrt.getIterationCount() > 1, sqrt.toString());
+        // narrow peak at 0.5, its integral is 2 * atan(0.5 / eps) / eps
+        double eps = 1e-3;
+        assertIntegral(x -> 1 / (eps * eps + (x - 0.5) * (x - 0.5)), 0, 1, 2 * Math.atan(0.5 / eps) / eps);
+    }
+
+    @Test
+    void evaluationCountFollowsDivisions() {
+        CalculationResult result = AdaptiveIntegral.newInstance(Math::sqrt, 0, 1, 1000).calculate(1e-10);
+        assertTrue(result.isSuccess(), result.toString());
+        assertEquals(GaussKronrod.point_num * (1 + 2 * result.getIterationCount()), result.getEvaluationCount());
+    }
+
+    @Test
+    void iterationLimitIsReported() {
+        CalculationResult result = AdaptiveIntegral.newInstance(x -> 1 / (1e-8 + x * x), -1, 1, 3).calculate(1e-12);
+        assertFalse(result.isSuccess());
+        assertEquals("Maximum iteration count", result.getFailureReason());
+    }
+
+    @Test
+    void nanIsReported() {
+        CalculationResult result = AdaptiveIntegral.newInstance(x -> x < 0.5 ? 1.0 : Double.NaN, 0, 1, 10).calculate(1e-6);
+        assertFalse(result.isSuccess());
+    }
+
+    @Test
+    void badParametersAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> AdaptiveIntegral.newInstance(Math::sin, 1, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> AdaptiveIntegral.newInstance(Math::sin, 0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> AdaptiveIntegral.newInstance(Math::sin, 0, 1, 10).calculate(0));
+    }
+
+    private static CalculationResult assertIntegral(MathFunction func, double min, double max, double expected) {
+        CalculationResult result = FunctionWrapper.newInstance(func, min, max).getIntegral(IntegrationMethod.GAUSS_KRONROD, 1000, 1e-10);
+        assertTrue(result.isSuccess(), result.toString());
+        assertEquals(expected, result.getResult(), 1e-9 * Math.max(1, Math.abs(expected)));
+        assertTrue(result.getError() <= 1e-10 * Math.max(1, Math.abs(expected)), result.toString());
+        return result;
+    }
+}
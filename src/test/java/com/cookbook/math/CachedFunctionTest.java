@@ -0,0 +1,97 @@
+package com.cookbook.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedFunctionTest {
+
+    @Test
+    void repeatedPointsAreAnsweredFromCache() {
+        AtomicLong calls = new AtomicLong();
+        CachedFunction cached = CachedFunction.newInstance(x -> {
+            calls.incrementAndGet();
+            return x * x;
+        }, 100);
+        assertTrue(Double.isNaN(cached.getHitRate()));
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 50; i++) {
+                assertEquals(i * i, cached.getF(i), 0.0);
+            }
+        }
+        assertEquals(50, calls.get());
+        assertEquals(50, cached.getMissCount());
+        assertEquals(100, cached.getHitCount());
+        assertEquals(2.0 / 3, cached.getHitRate(), 1e-15);
+    }
+
+    @Test
+    void keysAreRawBits() {
+        // 0.0 and -0.0 are different points for the cache, NaN is cached as well
+        CachedFunction cached = CachedFunction.newInstance(x -> 1 / x, 16);
+        assertEquals(Double.POSITIVE_INFINITY, cached.getF(0.0));
+        assertEquals(Double.NEGATIVE_INFINITY, cached.getF(-0.0));
+        assertTrue(Double.isNaN(cached.getF(Double.NaN)));
+        assertTrue(Double.isNaN(cached.getF(Double.NaN)));
+        assertEquals(3, cached.getMissCount());
+        assertEquals(1, cached.getHitCount());
+    }
+
+    @Test
+    void fullTableOverwritesButStaysCorrect() {
+        CachedFunction cached = CachedFunction.newInstance(Math::sin, 5);
+        for (int i = 0; i < 10_000; i++) {
+            double x = i * 0.001;
+            assertEquals(Math.sin(x), cached.getF(x), 0.0);
+        }
+        assertEquals(10_000, cached.getMissCount());
+        assertTrue(cached.toString().contains("capacity=8"), cached.toString());
+    }
+
+    @Test
+    void badParametersAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CachedFunction.newInstance(null, 16));
+        assertThrows(IllegalArgumentException.class, () -> CachedFunction.newInstance(Math::sin, 0));
+        assertThrows(IllegalArgumentException.class, () -> CachedFunction.newInstance(Math::sin, (1 << 30) + 1));
+    }
+
+    @Test
+    void minimumOfConvexFunctionMatchesClosedForm() {
+        FunctionWrapper wrapper = FunctionWrapper.newInstance(x -> (x - 1.25) * (x - 1.25) + 2, -3, 4);
+        assertTrue(Double.isNaN(wrapper.getMinimumCacheHitRate()));
+        CalculationResult result = wrapper.getMinimum(1e-9);
+        assertTrue(result.isSuccess(), result.toString());
+        assertEquals(2.0, result.getResult(), 1e-6);
+        double hitRate = wrapper.getMinimumCacheHitRate();
+        assertTrue(hitRate > 0 && hitRate < 1, "hit rate " + hitRate);
+    }
+
+    @Test
+    void minimumEvaluatesEveryPointOnce() {
+        AtomicLong calls = new AtomicLong();
+        MathFunction counted = x -> {
+            calls.incrementAndGet();
+            return Math.exp(x) - 2 * x;
+        };
+        CalculationResult result = FunctionWrapper.newInstance(counted, -1, 2).getMinimum(1e-9);
+        assertTrue(result.isSuccess(), result.toString());
+        // minimum of e^x - 2x is at ln 2
+        assertEquals(2 - 2 * Math.log(2), result.getResult(), 1e-6);
+        assertEquals(calls.get(), result.getEvaluationCount());
+        assertTrue(result.getIterationCount() > 0, result.toString());
+    }
+
+    @Test
+    void minimumOfBatchFunctionCountsLipschitzScan() {
+        Polynomial polynomial = Polynomial.newInstance(3, -4, 1);
+        CalculationResult result = FunctionWrapper.newInstance(polynomial, 0, 5).getMinimum(1e-9);
+        assertTrue(result.isSuccess(), result.toString());
+        // x^2 - 4x + 3 has minimum -1 at 2
+        assertEquals(-1.0, result.getResult(), 1e-6);
+        assertTrue(result.getEvaluationCount() > 2000, result.toString());
+    }
+}
@@ -0,0 +1,112 @@
+package com.cookbook.math;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DualTest {
+
+    private static final double eps = 1e-12;
+
+    @Test
+    void variableAndConstantHaveUnitAndZeroDerivative() {
+        assertEquals(1.0, Dual.variable(3).getDerivative());
+        assertEquals(3.0, Dual.variable(3).getValue());
+        assertEquals(0.0, Dual.constant(3).getDerivative());
+        assertEquals(3.0, Dual.constant(3).getValue());
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {-2.5, -0.3, 0.7, 1.0, 4.2})
+    void arithmeticFollowsDifferentiationRules(double x) {
+        Dual v = Dual.variable(x);
+        Dual square = v.multiply(v);
+        assertDual(x + x * x, 1 + 2 * x, v.add(square));
+        assertDual(x + 3, 1, v.add(3));
+        assertDual(x - x * x, 1 - 2 * x, v.subtract(square));
+        assertDual(x - 3, 1, v.subtract(3));
+        assertDual(x * x * x, 3 * x * x, square.multiply(v));
+        assertDual(2.5 * x, 2.5, v.multiply(2.5));
+        // (x^2 + 1) / (x + 3)
+        Dual numerator = square.add(1);
+        Dual denominator = v.add(3);
+        assertDual((x * x + 1) / (x + 3), (2 * x * (x + 3) - (x * x + 1)) / ((x + 3) * (x + 3)), numerator.divide(denominator));
+        assertDual(x / 4, 0.25, v.divide(4));
+        assertDual(-x * x, -2 * x, square.negate());
+        // constant operand doesn't change derivative
+        assertDual(x * 2, 2, v.multiply(Dual.constant(2)));
+        assertDual(x + 2, 1, v.add(Dual.constant(2)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.2, 0.9, 1.5, 3.0})
+    void elementaryFunctionsHaveClosedFormDerivatives(double x) {
+        Dual v = Dual.variable(x);
+        assertDual(Math.pow(x, 3.5), 3.5 * Math.pow(x, 2.5), v.pow(3.5));
+        assertDual(1 / x, -1 / (x * x), v.pow(-1));
+        assertDual(Math.sqrt(x), 0.5 / Math.sqrt(x), v.sqrt());
+        assertDual(Math.sin(x), Math.cos(x), v.sin());
+        assertDual(Math.cos(x), -Math.sin(x), v.cos());
+        assertDual(Math.tan(x), 1 / (Math.cos(x) * Math.cos(x)), v.tan());
+        assertDual(Math.exp(x), Math.exp(x), v.exp());
+        assertDual(Math.log(x), 1 / x, v.log());
+        assertDual(x, 1, v.abs());
+        assertDual(x, -1, Dual.variable(-x).abs());
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {-1.3, 0.4, 2.0})
+    void chainRuleIsApplied(double x) {
+        Dual v = Dual.variable(x);
+        // sin(x^2) -> 2x cos(x^2)
+        assertDual(Math.sin(x * x), 2 * x * Math.cos(x * x), v.multiply(v).sin());
+        // exp(sin(3x)) -> 3 cos(3x) exp(sin(3x))
+        assertDual(Math.exp(Math.sin(3 * x)), 3 * Math.cos(3 * x) * Math.exp(Math.sin(3 * x)), v.multiply(3).sin().exp());
+        // log(x^2 + 1) -> 2x / (x^2 + 1)
+        assertDual(Math.log(x * x + 1), 2 * x / (x * x + 1), v.multiply(v).add(1).log());
+    }
+
+    @Test
+    void functionDerivativeMatchesClosedForm() {
+        DifferentiableFunction f = x -> x.multiply(2.0).sin().multiply(5.0).add(x.multiply(x));
+        for (double x = -3; x <= 3; x += 0.25) {
+            assertEquals(5 * Math.sin(2 * x) + x * x, f.getF(x), eps);
+            assertEquals(10 * Math.cos(2 * x) + 2 * x, f.getDerivative(x), eps);
+        }
+    }
+
+    @Test
+    void exactDerivativeGivesSameMinimumWithFewerEvaluations() {
+        AtomicLong plainCalls = new AtomicLong();
+        MathFunction plain = x -> {
+            plainCalls.incrementAndGet();
+            return Math.exp(x) - 2 * x;
+        };
+        AtomicLong dualCalls = new AtomicLong();
+        DifferentiableFunction differentiable = x -> {
+            dualCalls.incrementAndGet();
+            return x.exp().subtract(x.multiply(2));
+        };
+
+        CalculationResult plainResult = FunctionWrapper.newInstance(plain, -1, 2).getMinimum(1e-9);
+        CalculationResult dualResult = FunctionWrapper.newInstance(differentiable, -1, 2).getMinimum(1e-9);
+        assertTrue(plainResult.isSuccess(), plainResult.toString());
+        assertTrue(dualResult.isSuccess(), dualResult.toString());
+        // minimum of e^x - 2x is at ln 2
+        double minimum = 2 - 2 * Math.log(2);
+        assertEquals(minimum, plainResult.getResult(), 1e-6);
+        assertEquals(minimum, dualResult.getResult(), 1e-6);
+        assertEquals(dualCalls.get(), dualResult.getEvaluationCount());
+        assertTrue(dualCalls.get() < plainCalls.get(), dualCalls.get() + " >= " + plainCalls.get());
+    }
+
+    private static void assertDual(double value, double derivative, Dual actual) {
+        assertEquals(value, actual.getValue(), eps * Math.max(1, Math.abs(value)), actual.toString());
+        assertEquals(derivative, actual.getDerivative(), eps * Math.max(1, Math.abs(derivative)), actual.toString());
+    }
+}
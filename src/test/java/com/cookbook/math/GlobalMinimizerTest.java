@@ -0,0 +1,90 @@
+package com.cookbook.math;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GlobalMinimizerTest {
+
+    private static ExecutorService executor;
+
+    @BeforeAll
+    static void startExecutor() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterAll
+    static void stopExecutor() {
+        executor.shutdown();
+    }
+
+    @Test
+    void findsGlobalMinimumAmongManyLocalOnes() {
+        // Rastrigin function, local minima near every integer, global one is 0 at x = 0
+        MathFunction rastrigin = x -> x * x + 10 * (1 - Math.cos(2 * Math.PI * x));
+        CalculationResult result = FunctionWrapper.newInstance(rastrigin, -4.3, 3.7).getGlobalMinimum(1e-6, 1_000_000, 4, executor);
+        assertTrue(result.isSuccess(), result.toString());
+        assertEquals(0.0, result.getResult(), 1e-6);
+        assertEquals(4, result.getTaskTimes().length);
+    }
+
+    @Test
+    void findsMinimumAtDomainBoundary() {
+        CalculationResult result = FunctionWrapper.newInstance(x -> Math.sin(x) + 0.1 * x, 2, 4).getGlobalMinimum(1e-8, 100_000, 3, executor);
+        assertTrue(result.isSuccess(), result.toString());
+        assertEquals(Math.sin(4) + 0.4, result.getResult(), 1e-8);
+    }
+
+    @Test
+    void resultDoesNotDependOnTaskCount() {
+        MathFunction func = x -> Math.cos(3 * x) * Math.exp(-0.1 * x * x);
+        FunctionWrapper wrapper = FunctionWrapper.newInstance(func, -5, 5);
+        double single = wrapper.getGlobalMinimum(1e-7, 1_000_000, 1, executor).getResult();
+        double parallel = wrapper.getGlobalMinimum(1e-7, 1_000_000, 8, executor).getResult();
+        assertEquals(single, parallel, 2e-7);
+        assertEquals(gridMinimum(func, -5, 5, 1_000_000), parallel, 1e-6);
+    }
+
+    private static double gridMinimum(MathFunction func, double min, double max, int points) {
+        double result = Double.POSITIVE_INFINITY;
+        for (int i = 0; i <= points; i++) {
+            result = Math.min(result, func.getF(min + (max - min) * i / points));
+        }
+        return result;
+    }
+
+    @Test
+    void nanFunctionValueFailsSearch() {
+        CalculationResult allNaN = FunctionWrapper.newInstance(x -> Double.NaN, 0, 1).getGlobalMinimum(1e-6, 10_000, 2, executor);
+        assertFalse(allNaN.isSuccess());
+        assertEquals("Function value is NaN", allNaN.getFailureReason());
+
+        CalculationResult partNaN = FunctionWrapper.newInstance(x -> Math.sqrt(x), -1, 1).getGlobalMinimum(1e-6, 10_000, 2, executor);
+        assertFalse(partNaN.isSuccess());
+        assertEquals("Function value is NaN", partNaN.getFailureReason());
+    }
+
+    @Test
+    void iterationLimitFailsSearch() {
+        MathFunction rastrigin = x -> x * x + 10 * (1 - Math.cos(2 * Math.PI * x));
+        CalculationResult result = FunctionWrapper.newInstance(rastrigin, -4, 3).getGlobalMinimum(1e-12, 5, 2, executor);
+        assertFalse(result.isSuccess());
+        assertEquals("Maximum iteration count", result.getFailureReason());
+    }
+
+    @Test
+    void badArgumentsAreRejected() {
+        FunctionWrapper wrapper = FunctionWrapper.newInstance(x -> x, 0, 1);
+        assertThrows(ArithmeticException.class, () -> wrapper.getGlobalMinimum(0, 100, 1, executor));
+        assertThrows(IllegalArgumentException.class, () -> wrapper.getGlobalMinimum(1e-6, 0, 1, executor));
+        assertThrows(IllegalArgumentException.class, () -> wrapper.getGlobalMinimum(1e-6, 100, 0, executor));
+    }
+}
@@ -0,0 +1,73 @@
+package com.cookbook.math;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntegralTableTest {
+
+    private static ExecutorService executor;
+
+    @BeforeAll
+    static void startExecutor() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterAll
+    static void stopExecutor() {
+        executor.shutdown();
+    }
+
+    @Test
+    void rangeQueriesMatchAntiderivative() {
+        IntegralTable table = FunctionWrapper.newInstance(Math::exp, -1, 2).getIntegralTable(64, 4, executor);
+        assertTrue(table.getTolerance() > 0 && table.getTolerance() < 1e-6, table.toString());
+        double[][] ranges = {{-1, 2}, {0, 1}, {0.3, 0.31}, {1.7, -0.2}, {2, 2}};
+        for (double[] range : ranges) {
+            double exact = Math.exp(range[1]) - Math.exp(range[0]);
+            assertEquals(exact, table.getIntegral(range[0], range[1]), table.getTolerance());
+        }
+    }
+
+    @Test
+    void resultDoesNotDependOnTaskCount() {
+        FunctionWrapper wrapper = FunctionWrapper.newInstance(x -> Math.sin(3 * x) + x * x, 0, Math.PI);
+        IntegralTable serial = wrapper.getIntegralTable(50, 1, executor);
+        IntegralTable parallel = wrapper.getIntegralTable(50, 7, executor);
+        assertEquals(serial.getTolerance(), parallel.getTolerance(), 0.0);
+        for (double b = 0; b <= Math.PI; b += 0.1) {
+            assertEquals(serial.getIntegral(0, b), parallel.getIntegral(0, b), 0.0);
+            double exact = (1 - Math.cos(3 * b)) / 3 + b * b * b / 3;
+            assertEquals(exact, parallel.getIntegral(0, b), parallel.getTolerance());
+        }
+    }
+
+    @Test
+    void coarseTableReportsLargerTolerance() {
+        FunctionWrapper wrapper = FunctionWrapper.newInstance(x -> Math.sin(10 * x), 0, 3);
+        IntegralTable coarse = wrapper.getIntegralTable(4, 2, executor);
+        IntegralTable fine = wrapper.getIntegralTable(256, 2, executor);
+        assertTrue(coarse.getTolerance() > fine.getTolerance());
+        double exact = (1 - Math.cos(10 * 1.3)) / 10;
+        assertEquals(exact, coarse.getIntegral(0, 1.3), coarse.getTolerance());
+        assertEquals(exact, fine.getIntegral(0, 1.3), fine.getTolerance());
+    }
+
+    @Test
+    void badArgumentsAreRejected() {
+        FunctionWrapper wrapper = FunctionWrapper.newInstance(x -> x, 0, 1);
+        assertThrows(IllegalArgumentException.class, () -> wrapper.getIntegralTable(0, 1, executor));
+        assertThrows(IllegalArgumentException.class, () -> wrapper.getIntegralTable(10, 0, executor));
+        IntegralTable table = wrapper.getIntegralTable(10, 2, executor);
+        assertThrows(IllegalArgumentException.class, () -> table.getIntegral(-0.1, 0.5));
+        assertThrows(ArithmeticException.class,
+                () -> FunctionWrapper.newInstance(x -> x < 0.5 ? x : Double.NaN, 0, 1).getIntegralTable(10, 2, executor));
+    }
+}
@@ -0,0 +1,103 @@
+package com.cookbook.math;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntegralTest {
+
+    private static ExecutorService executor;
+
+    @BeforeAll
+    static void startExecutor() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterAll
+    static void stopExecutor() {
+        executor.shutdown();
+    }
+
+    @Test
+    void trapezoidalRuleMatchesClosedForm() {
+        CalculationResult result = FunctionWrapper.newInstance(Math::sin, 0, Math.PI).getIntegral(30, 1e-8, 4, 1000);
+        assertTrue(result.isSuccess(), result.toString());
+        assertEquals(2.0, result.getResult(), 1e-6);
+        assertEquals(4, result.getTaskTimes().length);
+        assertTrue(result.getEvaluationCount() >= 1000, result.toString());
+        assertTrue(result.getIterationCount() > 0, result.toString());
+    }
+
+    @Test
+    void errorIsSumOfTaskErrors() {
+        FunctionWrapper wrapper = FunctionWrapper.newInstance(Math::exp, 0, 2);
+        double exact = Math.exp(2) - 1;
+        CalculationResult one = wrapper.getIntegral(30, 1e-6, 1, 100);
+        CalculationResult four = wrapper.getIntegral(30, 1e-6, 4, 100);
+        for (CalculationResult result : new CalculationResult[]{one, four}) {
+            assertTrue(result.isSuccess(), result.toString());
+            assertTrue(result.getError() > 0 && result.getError() < 1e-4, result.toString());
+            // difference of the last two approximations is bigger than error of the last one for smooth function
+            assertTrue(Math.abs(result.getResult() - exact) <= result.getError(), result.toString());
+        }
+    }
+
+    @Test
+    void failedCalculationHasNoError() {
+        CalculationResult result = FunctionWrapper.newInstance(Math::exp, 0, 1).getIntegral(1, 1e-14, 2, 10);
+        assertFalse(result.isSuccess());
+        assertTrue(Double.isNaN(result.getError()), result.toString());
+    }
+
+    @Test
+    void asyncResultMatchesBlockingResult() {
+        FunctionWrapper wrapper = FunctionWrapper.newInstance(x -> 1 / (1 + x * x), 0, 1);
+        CalculationResult result = wrapper.getIntegralAsync(30, 1e-9, 3, 999, executor).join();
+        assertTrue(result.isSuccess(), result.toString());
+        assertEquals(Math.PI / 4, result.getResult(), 1e-7);
+    }
+
+    @Test
+    void iterationLimitFailsCalculation() {
+        CalculationResult result = FunctionWrapper.newInstance(Math::exp, 0, 1).getIntegral(1, 1e-14, 2, 10);
+        assertFalse(result.isSuccess());
+        assertEquals("Maximum iteration count", result.getFailureReason());
+    }
+
+    @Test
+    void interruptIsRestoredAndCalculationIsStopped() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        MathFunction slow = x -> {
+            started.countDown();
+            return Math.sin(x);
+        };
+        FunctionWrapper wrapper = FunctionWrapper.newInstance(slow, 0, 1);
+        CompletableFuture<CalculationResult> future = new CompletableFuture<>();
+        Thread caller = new Thread(() -> {
+            // accuracy can't be reached, so calculation runs until it's interrupted
+            future.complete(wrapper.getIntegral(Integer.MAX_VALUE, 0.0, 1, 10));
+            interrupted.set(Thread.currentThread().isInterrupted());
+        });
+        caller.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        caller.interrupt();
+        caller.join(10_000);
+        assertFalse(caller.isAlive());
+        CalculationResult result = future.join();
+        assertFalse(result.isSuccess());
+        assertEquals("Calculation is interrupted", result.getFailureReason());
+        assertTrue(interrupted.get());
+    }
+}
@@ -0,0 +1,138 @@
+package com.cookbook.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NFunctionWrapperTest {
+
+    // f(x) = sum of a_i * (x_i - c_i)^2 + 1, minimum 1 at c
+    private static final double[] scale = {1.0, 4.0, 0.5};
+    private static final double[] center = {1.0, -2.0, 3.0};
+
+    private static final MultiFunction quadratic = x -> {
+        double result = 1.0;
+        for (int i = 0; i < x.length; i++) {
+            result += scale[i] * (x[i] - center[i]) * (x[i] - center[i]);
+        }
+        return result;
+    };
+
+    private static final GradientMultiFunction analyticQuadratic = new GradientMultiFunction() {
+        @Override
+        public double getF(double[] x) {
+            return quadratic.getF(x);
+        }
+
+        @Override
+        public void getGradient(double[] x, double[] gradient) {
+            for (int i = 0; i < x.length; i++) {
+                gradient[i] = 2 * scale[i] * (x[i] - center[i]);
+            }
+        }
+    };
+
+    @Test
+    void momentumFindsMinimumOfQuadratic() {
+        double[] start = {0, 0, 0};
+        VectorCalculationResult result = NFunctionWrapper.newInstance(quadratic, 3).getMinimumMomentum(start, 0.05, 0.9, 10_000, 1e-8);
+        assertTrue(result.isSuccess(), result.toString());
+        assertEquals(1.0, result.getResult(), 1e-12);
+        assertArrayEquals(center, result.getPoint(), 1e-6);
+        // start point isn't changed
+        assertArrayEquals(new double[]{0, 0, 0}, start);
+    }
+
+    @Test
+    void nesterovFindsMinimumOfQuadratic() {
+        VectorCalculationResult result = NFunctionWrapper.newInstance(analyticQuadratic, 3)
+                .getMinimumNesterov(new double[]{5, 5, 5}, 0.05, 0.9, 10_000, 1e-10);
+        assertTrue(result.isSuccess(), result.toString());
+        assertArrayEquals(center, result.getPoint(), 1e-9);
+    }
+
+    @Test
+    void bothMethodsFindMinimumOfRosenbrockFunction() {
+        // Rosenbrock function, minimum 0 at (1, 1)
+        GradientMultiFunction rosenbrock = new GradientMultiFunction() {
+            @Override
+            public double getF(double[] x) {
+                return (1 - x[0]) * (1 - x[0]) + 100 * (x[1] - x[0] * x[0]) * (x[1] - x[0] * x[0]);
+            }
+
+            @Override
+            public void getGradient(double[] x, double[] gradient) {
+                gradient[0] = -2 * (1 - x[0]) - 400 * x[0] * (x[1] - x[0] * x[0]);
+                gradient[1] = 200 * (x[1] - x[0] * x[0]);
+            }
+        };
+        NFunctionWrapper wrapper = NFunctionWrapper.newInstance(rosenbrock, 2);
+        VectorCalculationResult nesterov = wrapper.getMinimumNesterov(new double[]{-1.2, 1}, 1e-3, 0.9, 200_000, 1e-6);
+        VectorCalculationResult momentum = wrapper.getMinimumMomentum(new double[]{-1.2, 1}, 1e-3, 0.9, 200_000, 1e-6);
+        assertTrue(nesterov.isSuccess(), nesterov.toString());
+        assertTrue(momentum.isSuccess(), momentum.toString());
+        assertArrayEquals(new double[]{1, 1}, nesterov.getPoint(), 1e-5);
+        assertArrayEquals(new double[]{1, 1}, momentum.getPoint(), 1e-5);
+    }
+
+    @Test
+    void sgdFitsLinearRegression() {
+        // samples of y = 2 * t - 1 with noise, least squares solution is close to (2, -1)
+        int sampleNum = 500;
+        double[] t = new double[sampleNum];
+        double[] y = new double[sampleNum];
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < sampleNum; i++) {
+            t[i] = random.nextDouble(-1, 1);
+            y[i] = 2 * t[i] - 1 + random.nextDouble(-0.01, 0.01);
+        }
+        SampledMultiFunction loss = new SampledMultiFunction() {
+            @Override
+            public int getSampleCount() {
+                return sampleNum;
+            }
+
+            @Override
+            public double getF(double[] x, int sample) {
+                double residual = x[0] * t[sample] + x[1] - y[sample];
+                return residual * residual;
+            }
+        };
+        NFunctionWrapper wrapper = NFunctionWrapper.newInstance(loss, 2);
+        VectorCalculationResult first = wrapper.getMinimumSgd(new double[]{0, 0}, 0.05, 32, 5_000, 1e-12, 11);
+        // accuracy isn't reachable with noisy mini-batches, so the iteration limit is reported
+        assertFalse(first.isSuccess());
+        assertEquals("Maximum iteration count", first.getFailureReason());
+        assertArrayEquals(new double[]{2, -1}, first.getPoint(), 0.02);
+        assertTrue(first.getResult() < 1e-3, first.toString());
+
+        VectorCalculationResult second = wrapper.getMinimumSgd(new double[]{0, 0}, 0.05, 32, 5_000, 1e-12, 11);
+        assertArrayEquals(first.getPoint(), second.getPoint(), 0.0);
+    }
+
+    @Test
+    void iterationLimitIsReported() {
+        VectorCalculationResult result = NFunctionWrapper.newInstance(quadratic, 3)
+                .getMinimumMomentum(new double[]{0, 0, 0}, 1e-4, 0.0, 10, 1e-8);
+        assertFalse(result.isSuccess());
+        assertEquals("Maximum iteration count", result.getFailureReason());
+        assertEquals(10, result.getIterationCount());
+    }
+
+    @Test
+    void badParametersAreRejected() {
+        NFunctionWrapper wrapper = NFunctionWrapper.newInstance(quadratic, 3);
+        assertThrows(IllegalArgumentException.class, () -> NFunctionWrapper.newInstance(null, 3));
+        assertThrows(IllegalArgumentException.class, () -> NFunctionWrapper.newInstance(quadratic, 0));
+        assertThrows(IllegalArgumentException.class, () -> wrapper.getMinimumMomentum(new double[2], 0.1, 0.9, 10, 1e-6));
+        assertThrows(IllegalArgumentException.class, () -> wrapper.getMinimumMomentum(new double[3], 0.1, 1.0, 10, 1e-6));
+        assertThrows(IllegalArgumentException.class, () -> wrapper.getMinimumNesterov(new double[3], 0.0, 0.9, 10, 1e-6));
+        assertThrows(IllegalArgumentException.class, () -> wrapper.getMinimumSgd(new double[3], 0.1, 8, 10, 1e-6, 1));
+    }
+}
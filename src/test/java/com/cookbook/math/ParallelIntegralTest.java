@@ -0,0 +1,95 @@
+package com.cookbook.math;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelIntegralTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void smoothFunctionsMatchClosedForm() {
+        assertIntegral(Math::sin, 0, Math.PI, 2.0);
+        assertIntegral(Math::exp, 0, 3, Math.exp(3) - 1);
+        assertIntegral(Math::sqrt, 0, 4, 16.0 / 3);
+    }
+
+    @Test
+    void peaksAreDividedInParallel() {
+        // several narrow peaks, every one is 2 * atan(1 / (2 * eps)) / eps over its unit interval
+        double eps = 1e-3;
+        MathFunction peaks = x -> {
+            double d = x - Math.floor(x) - 0.5;
+            return 1 / (eps * eps + d * d);
+        };
+        double expected = 8 * 2 * Math.atan(0.5 / eps) / eps;
+        CalculationResult result = assertIntegral(peaks, 0, 8, expected);
+        assertTrue(result.getIterationCount() > 8, result.toString());
+        assertEquals(GaussKronrod.point_num * (1 + 2 * result.getIterationCount()), result.getEvaluationCount());
+    }
+
+    @Test
+    void resultMatchesSequentialAdaptiveIntegral() {
+        MathFunction func = x -> Math.sin(10 * x) * Math.exp(-x);
+        FunctionWrapper wrapper = FunctionWrapper.newInstance(func, 0, 5);
+        CalculationResult parallel = wrapper.getIntegral(pool, 40, 1e-11);
+        CalculationResult sequential = wrapper.getIntegral(IntegrationMethod.GAUSS_KRONROD, 1000, 1e-11);
+        assertTrue(parallel.isSuccess(), parallel.toString());
+        assertTrue(sequential.isSuccess(), sequential.toString());
+        // integral of e^-x sin(10x) over [0, 5]
+        double expected = (10 - Math.exp(-5) * (Math.sin(50) + 10 * Math.cos(50))) / 101;
+        assertEquals(expected, parallel.getResult(), 1e-10);
+        assertEquals(sequential.getResult(), parallel.getResult(), 1e-10);
+    }
+
+    @Test
+    void depthLimitIsReported() {
+        CalculationResult result = ParallelIntegral.newInstance(x -> 1 / Math.abs(x - 0.3), 0, 1, 5).calculate(pool, 1e-10);
+        assertFalse(result.isSuccess());
+        assertEquals("Maximum depth", result.getFailureReason());
+    }
+
+    @Test
+    void functionExceptionIsFailedResult() {
+        CalculationResult result = ParallelIntegral.newInstance(x -> {
+            if (x > 0.9) {
+                throw new IllegalStateException("broken function");
+            }
+            return x;
+        }, 0, 1, 10).calculate(pool, 1e-8);
+        assertFalse(result.isSuccess());
+        assertEquals("broken function", result.getFailureReason());
+    }
+
+    @Test
+    void badParametersAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ParallelIntegral.newInstance(Math::sin, 1, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> ParallelIntegral.newInstance(Math::sin, 0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> ParallelIntegral.newInstance(Math::sin, 0, 1, 10).calculate(null, 1e-6));
+    }
+
+    private static CalculationResult assertIntegral(MathFunction func, double min, double max, double expected) {
+        CalculationResult result = FunctionWrapper.newInstance(func, min, max).getIntegral(pool, 50, 1e-10);
+        assertTrue(result.isSuccess(), result.toString());
+        assertEquals(expected, result.getResult(), 1e-8 * Math.max(1, Math.abs(expected)));
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+package com.cookbook.math;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PolynomialTest {
+
+    @Test
+    void usesVectorKernelWhenModuleIsResolved() {
+        boolean resolved = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        assertEquals(resolved, Polynomial.isVectorized());
+    }
+
+    @Test
+    void scalarValuesMatchClosedForm() {
+        Polynomial p = Polynomial.newInstance(1, -3, 0, 2);
+        assertEquals(1.0, p.getF(0));
+        assertEquals(0.0, p.getF(1));
+        assertEquals(-9.0, p.getF(-2));
+        assertEquals(1.0 - 3 * 0.5 + 2 * 0.125, p.getF(0.5), 1e-15);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 3, 7, 8, 9, 31, 64, 1001})
+    void batchMatchesScalarForEveryLength(int n) {
+        Polynomial p = Polynomial.newInstance(0.5, -1.25, 3.0, 0.125, -2.0, 1e-3);
+        double[] xs = new double[n + 5];
+        for (int j = 0; j < xs.length; j++) {
+            xs[j] = -2.0 + 4.0 * j / xs.length;
+        }
+        double[] out = new double[n + 5];
+        p.getF(xs, out, n);
+
+        double[] expected = new double[n + 5];
+        for (int j = 0; j < n; j++) {
+            expected[j] = p.getF(xs[j]);
+        }
+        // same operations in the same order, values must be equal exactly, points after n are untouched
+        assertArrayEquals(expected, out);
+    }
+
+    @Test
+    void constantPolynomialFillsOutput() {
+        Polynomial p = Polynomial.newInstance(4.5);
+        double[] out = new double[10];
+        p.getF(new double[10], out, 10);
+        for (double value : out) {
+            assertEquals(4.5, value);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(IntegrationMethod.class)
+    void integralOfPolynomialMatchesClosedForm(IntegrationMethod method) {
+        // integral of 1 + 2x + 3x^2 over [0, 2] is 2 + 4 + 8
+        FunctionWrapper wrapper = FunctionWrapper.newInstance(Polynomial.newInstance(1, 2, 3), 0, 2);
+        CalculationResult result = wrapper.getIntegral(method, 30, 1e-8);
+        assertTrue(result.isSuccess(), result::getFailureReason);
+        assertEquals(14.0, result.getResult(), 1e-6);
+    }
+
+    @Test
+    void rejectsEmptyCoefficients() {
+        assertThrows(IllegalArgumentException.class, Polynomial::newInstance);
+    }
+}
@@ -0,0 +1,100 @@
+package com.cookbook.math;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuasiMonteCarloIntegralTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void productOverUnitCubeMatchesClosedForm() {
+        CalculationResult result = integrate(x -> x[0] * x[1] * x[2], new double[]{0, 0, 0}, new double[]{1, 1, 1}, 1e-5);
+        assertTrue(result.isSuccess(), result.toString());
+        assertEquals(0.125, result.getResult(), 1e-4);
+        assertTrue(result.getError() <= 1e-5, result.toString());
+    }
+
+    @Test
+    void exponentOverBoxMatchesClosedForm() {
+        // integral of exp(x + y) over [0, 1] x [-1, 2] is (e - 1) * (e^2 - e^-1)
+        double expected = (Math.E - 1) * (Math.exp(2) - Math.exp(-1));
+        CalculationResult result = integrate(x -> Math.exp(x[0] + x[1]), new double[]{0, -1}, new double[]{1, 2}, 1e-5);
+        assertTrue(result.isSuccess(), result.toString());
+        assertEquals(expected, result.getResult(), 1e-4 * expected);
+    }
+
+    @Test
+    void volumeOfBallInFiveDimensions() {
+        // volume of unit ball in 5 dimensions is 8 * pi^2 / 15
+        double[] lower = {-1, -1, -1, -1, -1};
+        double[] upper = {1, 1, 1, 1, 1};
+        CalculationResult result = integrate(x -> {
+            double r = 0;
+            for (double value : x) {
+                r += value * value;
+            }
+            return r <= 1 ? 1.0 : 0.0;
+        }, lower, upper, 1e-3);
+        assertTrue(result.isSuccess(), result.toString());
+        double expected = 8 * Math.PI * Math.PI / 15;
+        // discontinuous function converges slowly, 5 standard errors is enough
+        assertEquals(expected, result.getResult(), 5 * result.getError() * Math.max(1, expected) + 1e-3);
+    }
+
+    @Test
+    void sameSeedGivesSameResult() {
+        MultiFunction func = x -> Math.cos(x[0]) * Math.sin(x[1]);
+        double[] lower = {0, 0};
+        double[] upper = {2, 3};
+        CalculationResult first = integrate(func, lower, upper, 1e-4);
+        CalculationResult second = integrate(func, lower, upper, 1e-4);
+        assertEquals(Math.sin(2) * (1 - Math.cos(3)), first.getResult(), 1e-3);
+        assertEquals(first.getResult(), second.getResult(), 0.0);
+        assertEquals(first.getEvaluationCount(), second.getEvaluationCount());
+        assertEquals(8, first.getTaskTimes().length);
+    }
+
+    @Test
+    void pointLimitIsReported() {
+        CalculationResult result = QuasiMonteCarloIntegral.newInstance(x -> x[0] > 0.5 ? 1.0 : 0.0, new double[]{0}, new double[]{1})
+                .calculate(1e-12, 1000, 4, 1, pool);
+        assertFalse(result.isSuccess());
+        assertEquals("Maximum point count", result.getFailureReason());
+        assertEquals(4000, result.getEvaluationCount());
+    }
+
+    @Test
+    void badParametersAreRejected() {
+        MultiFunction func = x -> 1.0;
+        assertThrows(IllegalArgumentException.class, () -> QuasiMonteCarloIntegral.newInstance(func, new double[]{0}, new double[]{0, 1}));
+        assertThrows(IllegalArgumentException.class, () -> QuasiMonteCarloIntegral.newInstance(func, new double[]{1}, new double[]{1}));
+        QuasiMonteCarloIntegral integral = QuasiMonteCarloIntegral.newInstance(func, new double[]{0}, new double[]{1});
+        assertThrows(IllegalArgumentException.class, () -> integral.calculate(1e-6, 1000, 1, 1, pool));
+        assertThrows(IllegalArgumentException.class, () -> integral.calculate(0, 1000, 2, 1, pool));
+        assertThrows(IllegalArgumentException.class, () -> NFunctionWrapper.newInstance(func, 2)
+                .getIntegral(new double[]{0}, new double[]{1}, 1e-6, 1000, 2, 1, pool));
+    }
+
+    private static CalculationResult integrate(MultiFunction func, double[] lower, double[] upper, double accuracy) {
+        return NFunctionWrapper.newInstance(func, lower.length).getIntegral(lower, upper, accuracy, 1 << 22, 8, 42, pool);
+    }
+}
@@ -0,0 +1,67 @@
+package com.cookbook.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RombergIntegralTest {
+
+    @Test
+    void smoothFunctionsMatchClosedForm() {
+        assertIntegral(Math::sin, 0, Math.PI, 2.0);
+        assertIntegral(Math::exp, -1, 2, Math.exp(2) - Math.exp(-1));
+        assertIntegral(x -> 1 / (1 + x * x), 0, 1, Math.PI / 4);
+        assertIntegral(Polynomial.newInstance(0, 0, 0, 4), 0, 2, 16.0);
+    }
+
+    @Test
+    void cubicIsExactAfterFirstExtrapolation() {
+        // Simpson rule (first Richardson column) is exact for cubics, so the second level confirms it
+        CalculationResult result = RombergIntegral.newInstance(x -> x * x * x - x, 0, 3, 30).calculate(1e-12);
+        assertTrue(result.isSuccess(), result.toString());
+        assertEquals(81.0 / 4 - 4.5, result.getResult(), 1e-12);
+        assertEquals(2, result.getIterationCount());
+    }
+
+    @Test
+    void everyPointIsEvaluatedOnce() {
+        AtomicLong calls = new AtomicLong();
+        MathFunction counted = x -> {
+            calls.incrementAndGet();
+            return Math.cos(x);
+        };
+        CalculationResult result = RombergIntegral.newInstance(counted, 0, 1, 30).calculate(1e-12);
+        assertTrue(result.isSuccess(), result.toString());
+        assertEquals(Math.sin(1), result.getResult(), 1e-12);
+        // level k adds 2^(k-1) midpoints to 2 ends, nothing is evaluated again
+        long levels = result.getIterationCount();
+        assertEquals((1L << levels) + 1, calls.get());
+        assertEquals(calls.get(), result.getEvaluationCount());
+    }
+
+    @Test
+    void levelLimitIsReported() {
+        CalculationResult result = RombergIntegral.newInstance(Math::sqrt, 0, 1, 3).calculate(1e-14);
+        assertFalse(result.isSuccess());
+        assertEquals("Maximum iteration count", result.getFailureReason());
+        assertEquals(3, result.getIterationCount());
+    }
+
+    @Test
+    void badParametersAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> RombergIntegral.newInstance(Math::sin, 2, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> RombergIntegral.newInstance(Math::sin, 0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> RombergIntegral.newInstance(Math::sin, 0, 1, 10).calculate(-1));
+    }
+
+    private static void assertIntegral(MathFunction func, double min, double max, double expected) {
+        CalculationResult result = FunctionWrapper.newInstance(func, min, max).getIntegral(IntegrationMethod.ROMBERG, 30, 1e-11);
+        assertTrue(result.isSuccess(), result.toString());
+        assertEquals(expected, result.getResult(), 1e-9 * Math.max(1, Math.abs(expected)));
+    }
+}
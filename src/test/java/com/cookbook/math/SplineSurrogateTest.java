@@ -0,0 +1,139 @@
+package com.cookbook.math;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SplineSurrogateTest {
+
+    private static final MathFunction func = x -> Math.sin(3 * x) * Math.exp(-0.2 * x);
+
+    @ParameterizedTest
+    @ValueSource(doubles = {1e-3, 1e-6, 1e-9})
+    void splineMeetsTolerance(double tolerance) {
+        SplineSurrogate spline = SplineSurrogate.newInstance(func, 0, 10, tolerance, 100_000);
+        assertTrue(spline.getError() <= tolerance, spline.toString());
+        assertEquals(0.0, spline.getMin());
+        assertEquals(10.0, spline.getMax());
+        // tolerance is checked at interval centers, dense grid shows it holds between knots too
+        double maxError = 0.0;
+        for (int i = 0; i <= 100_000; i++) {
+            double x = i * 1e-4;
+            maxError = Math.max(maxError, Math.abs(spline.getF(x) - func.getF(x)));
+        }
+        assertTrue(maxError <= 2 * tolerance, "error " + maxError + " for tolerance " + tolerance);
+        // knots are exact
+        assertEquals(func.getF(0), spline.getF(0), 0.0);
+        assertEquals(func.getF(10), spline.getF(10), 1e-15);
+    }
+
+    @Test
+    void smallerToleranceNeedsMoreKnots() {
+        int coarse = SplineSurrogate.newInstance(func, 0, 10, 1e-3, 100_000).getKnotCount();
+        int fine = SplineSurrogate.newInstance(func, 0, 10, 1e-8, 100_000).getKnotCount();
+        assertTrue(coarse < fine, coarse + " >= " + fine);
+    }
+
+    @Test
+    void tooFewKnotsAreReported() {
+        assertThrows(ArithmeticException.class, () -> SplineSurrogate.newInstance(func, 0, 10, 1e-12, 100));
+        assertThrows(ArithmeticException.class, () -> SplineSurrogate.newInstance(x -> x < 5 ? Double.NaN : x, 0, 10, 1e-3, 100));
+    }
+
+    @Test
+    void badParametersAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SplineSurrogate.newInstance(func, 1, 1, 1e-3, 100));
+        assertThrows(IllegalArgumentException.class, () -> SplineSurrogate.newInstance(func, 0, 1, 0, 100));
+        assertThrows(IllegalArgumentException.class, () -> SplineSurrogate.newInstance(func, 0, 1, 1e-3, 16));
+    }
+
+    @Test
+    void savedSplineIsLoadedWithSameValues(@TempDir Path dir) throws IOException {
+        SplineSurrogate spline = SplineSurrogate.newInstance(func, -2, 7, 1e-7, 100_000);
+        Path file = dir.resolve("spline.bin");
+        spline.save(file);
+        assertEquals(24 + 24L * spline.getKnotCount(), Files.size(file));
+
+        SplineSurrogate loaded = SplineSurrogate.load(file);
+        assertEquals(spline.getKnotCount(), loaded.getKnotCount());
+        assertEquals(spline.getError(), loaded.getError());
+        assertEquals(spline.getMin(), loaded.getMin());
+        assertEquals(spline.getMax(), loaded.getMax());
+        for (double x = -3; x <= 8; x += 0.001) {
+            assertEquals(spline.getF(x), loaded.getF(x), 0.0);
+        }
+        // loaded spline is saved again without changes
+        Path copy = dir.resolve("copy.bin");
+        loaded.save(copy);
+        assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(copy));
+    }
+
+    @Test
+    void saveReplacesLongerFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("spline.bin");
+        SplineSurrogate.newInstance(func, 0, 10, 1e-8, 100_000).save(file);
+        SplineSurrogate small = SplineSurrogate.newInstance(func, 0, 10, 1e-2, 100_000);
+        small.save(file);
+        assertEquals(small.getKnotCount(), SplineSurrogate.load(file).getKnotCount());
+    }
+
+    @Test
+    void truncatedFileIsRejected(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("spline.bin");
+        SplineSurrogate.newInstance(func, 0, 10, 1e-4, 100_000).save(file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        Path truncated = dir.resolve("truncated.bin");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 8));
+        IOException ex = assertThrows(IOException.class, () -> SplineSurrogate.load(truncated));
+        assertTrue(ex.getMessage().startsWith("Bad spline file length"), ex.getMessage());
+
+        Files.write(truncated, Arrays.copyOf(bytes, 20));
+        ex = assertThrows(IOException.class, () -> SplineSurrogate.load(truncated));
+        assertTrue(ex.getMessage().startsWith("Bad spline file format"), ex.getMessage());
+
+        Files.write(truncated, new byte[0]);
+        assertThrows(IOException.class, () -> SplineSurrogate.load(truncated));
+    }
+
+    @Test
+    void foreignFileIsRejected(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("spline.bin");
+        SplineSurrogate.newInstance(func, 0, 10, 1e-4, 100_000).save(file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        Path foreign = dir.resolve("foreign.bin");
+        byte[] otherMagic = bytes.clone();
+        otherMagic[0] ^= 1;
+        Files.write(foreign, otherMagic);
+        assertThrows(IOException.class, () -> SplineSurrogate.load(foreign));
+
+        byte[] otherVersion = bytes.clone();
+        ByteBuffer.wrap(otherVersion).putInt(4, 2);
+        Files.write(foreign, otherVersion);
+        assertThrows(IOException.class, () -> SplineSurrogate.load(foreign));
+
+        // header is valid, but knot count doesn't match length
+        byte[] otherCount = bytes.clone();
+        ByteBuffer.wrap(otherCount).putInt(8, ByteBuffer.wrap(bytes).getInt(8) + 1);
+        Files.write(foreign, otherCount);
+        assertThrows(IOException.class, () -> SplineSurrogate.load(foreign));
+
+        byte[] text = new byte[bytes.length];
+        Arrays.fill(text, (byte) 'a');
+        Files.write(foreign, text);
+        assertThrows(IOException.class, () -> SplineSurrogate.load(foreign));
+    }
+}
@@ -0,0 +1,193 @@
+package com.cookbook.math.expression;
+
+import com.cookbook.math.MathFunction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpressionCompilerTest {
+
+    private static double f(String expression, double x) {
+        return ExpressionCompiler.compile(expression).getF(x);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "2 + 3 * x; 2; 8",
+            "(2 + 3) * x; 2; 10",
+            "10 - x - 1; 2; 7",
+            "x / 2 / 4; 16; 2",
+            "x * 2 ^ 3; 1.5; 12",
+            "x ^ 3 ^ 2; 2; 512",
+            "2 ^ x ^ 2; 3; 512",
+            "1 + x * (2 + x) / 4; 2; 3"})
+    void operatorsFollowPrecedence(String expression, double x, double expected) {
+        assertEquals(expected, f(expression, x), 0.0);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "-x; 3; -3",
+            "--x; 3; 3",
+            "-(-x); 3; 3",
+            "+x; 3; 3",
+            "-x ^ 2; 3; -9",
+            "(-x) ^ 2; 3; 9",
+            "x ^ -1; 4; 0.25",
+            "-x * -x; 3; 9",
+            "2 - -x; 3; 5"})
+    void unaryMinusBindsWeakerThanPower(String expression, double x, double expected) {
+        assertEquals(expected, f(expression, x), 0.0);
+    }
+
+    @Test
+    void powerMatchesMathPow() {
+        for (double x : new double[]{-2.5, -1, 0, 0.3, 1, 7}) {
+            assertEquals(x * x, f("x^2", x), 0.0);
+            assertEquals(x * x * x, f("x^3", x), 0.0);
+            assertEquals(Math.pow(x, 4), f("x^4", x), 0.0);
+            assertEquals(Math.pow(x, 0.5), f("x^0.5", x), 0.0);
+            assertEquals(Math.pow(2, x), f("2^x", x), 0.0);
+            assertEquals(Math.pow(x, x), f("x^x", x), 0.0);
+        }
+        assertEquals(1.0, f("x^0", 5), 0.0);
+    }
+
+    @Test
+    void mathFunctionsAreCalled() {
+        double x = 0.7;
+        assertEquals(Math.sin(x), f("sin(x)", x), 0.0);
+        assertEquals(Math.cos(x), f("cos(x)", x), 0.0);
+        assertEquals(Math.exp(x), f("exp(x)", x), 0.0);
+        assertEquals(Math.log(x), f("log(x)", x), 0.0);
+        assertEquals(Math.sqrt(x), f("sqrt(x)", x), 0.0);
+        assertEquals(Math.abs(-x), f("abs(-x)", x), 0.0);
+        assertEquals(Math.cbrt(x), f("cbrt(x)", x), 0.0);
+        assertEquals(Math.atan2(x, 2), f("atan2(x, 2)", x), 0.0);
+        assertEquals(Math.hypot(x, 3), f("hypot(x, 3)", x), 0.0);
+        assertEquals(Math.min(x, 0.5), f("min(x, 0.5)", x), 0.0);
+        assertEquals(Math.max(x, 0.5), f("max(x, 0.5)", x), 0.0);
+        assertEquals(5 * Math.sin(2 * x) + x * x, f("5*sin(2*x) + x^2", x), 1e-15);
+    }
+
+    @Test
+    void namedConstantsAndNumbersAreParsed() {
+        assertEquals(Math.PI, f("pi", 0), 0.0);
+        assertEquals(Math.E, f("e", 0), 0.0);
+        assertEquals(1.5e-3, f("1.5e-3", 0), 0.0);
+        assertEquals(2e3 + 1, f("2E+3 + x", 1), 0.0);
+        assertEquals(0.5, f(".5", 0), 0.0);
+        // constant call is folded at compile time
+        assertEquals(Math.sin(1), f("sin(1)", 0), 0.0);
+    }
+
+    @Test
+    void equalSubtreesAndConstantsAreShared() {
+        Node sum = ExpressionParser.parse("sin(x + 2.5) * 2.5 + sin(2.5 + x - 0)");
+        assertEquals(Node.Type.ADD, sum.type);
+        Node product = sum.children[0];
+        assertEquals(Node.Type.MUL, product.type);
+        Node sin = product.children[0];
+        Node constant = product.children[1];
+        assertSame(constant, sin.children[0].children[1]);
+        assertEquals(Node.Type.CALL, sum.children[1].type);
+        // "2.5 + x" isn't reordered, only equal subtrees are shared
+        assertSame(constant, sum.children[1].children[0].children[0]);
+
+        Node folded = ExpressionParser.parse("2*3 + x*1 - 0");
+        assertEquals(Node.Type.ADD, folded.type);
+        assertEquals(6.0, folded.children[0].value, 0.0);
+        assertEquals(Node.Type.VARIABLE, folded.children[1].type);
+
+        Node shared = ExpressionParser.parse("(x*x + 1) / (x*x + 1)");
+        assertSame(shared.children[0], shared.children[1]);
+        double x = 1.7;
+        assertEquals(1.0, f("(x*x + 1) / (x*x + 1)", x), 0.0);
+        assertEquals(2 * Math.exp(x * x) + Math.exp(x * x) * Math.exp(x * x),
+                f("2*exp(x*x) + exp(x*x)*exp(x*x)", x), 1e-12);
+    }
+
+    @Test
+    void sourceIsReturnedByToString() {
+        MathFunction function = ExpressionCompiler.compile("x * 2");
+        assertEquals("x * 2", function.toString());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "x +; Unexpected end of expression at position 3",
+            "x + * 2; Unexpected symbol at position 4",
+            "2 * y; Unknown name y at position 4",
+            "(x + 1; Expected ')' at position 6",
+            "x 1; Unexpected symbol at position 2",
+            "foo(x); Unknown function foo with 1 arguments at position 4",
+            "sin(x, 1); Unknown function sin with 2 arguments at position 4",
+            "1..2 + x; Bad number at position 0",
+            "; Unexpected end of expression at position 0"})
+    void syntaxErrorReportsPosition(String expression, String message) {
+        String source = expression == null ? "" : expression;
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> ExpressionCompiler.compile(source));
+        assertEquals(message + " in expression: " + source, ex.getMessage());
+    }
+
+    @Test
+    void nullExpressionIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ExpressionCompiler.compile(null));
+    }
+
+    @Test
+    void tooBigCodeIsRejected() {
+        // every term is a call of Math.pow with own constant, it's ~9 bytes of code.
+        // Terms are grouped by parentheses, so tree isn't deep
+        StringBuilder expression = new StringBuilder("x");
+        for (int group = 0; group < 80; group++) {
+            expression.append("+(x");
+            for (int i = 0; i < 100; i++) {
+                expression.append("+x^").append(group * 100 + i + 4);
+            }
+            expression.append(')');
+        }
+        assertTrue(expression.length() < 65535);
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> ExpressionCompiler.compile(expression.toString()));
+        assertTrue(ex.getMessage().startsWith("Expression is too big: x+(x+x^4"), ex.getMessage());
+    }
+
+    @Test
+    void tooDeepExpressionIsRejected() {
+        String sum = "x" + "+x^2".repeat(15000);
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> ExpressionCompiler.compile(sum));
+        assertEquals("Expression is too big: it's nested too deep", ex.getMessage());
+        String parentheses = "(".repeat(30000) + "x" + ")".repeat(30000);
+        ex = assertThrows(IllegalArgumentException.class, () -> ExpressionCompiler.compile(parentheses));
+        assertEquals("Expression is too big: it's nested too deep", ex.getMessage());
+    }
+
+    @Test
+    void bigCodeUnderLimitIsCompiled() {
+        StringBuilder expression = new StringBuilder("x");
+        double expected = 0.5;
+        for (int i = 4; i < 1000; i++) {
+            expression.append("+x^").append(i);
+            expected += Math.pow(0.5, i);
+        }
+        assertEquals(expected, f(expression.toString(), 0.5), 1e-15);
+    }
+
+    @Test
+    void tooLongSourceIsRejected() {
+        String spaces = " ".repeat(70000);
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> ExpressionCompiler.compile("x" + spaces));
+        assertTrue(ex.getMessage().startsWith("Expression is too big"), ex.getMessage());
+        // em space is 3 bytes in class file, so 25000 of them are too long too
+        String emSpaces = " ".repeat(25000);
+        assertThrows(IllegalArgumentException.class, () -> ExpressionCompiler.compile("x" + emSpaces));
+        assertEquals(3.0, f("x" + " ".repeat(60000), 3), 0.0);
+    }
+}
@@ -0,0 +1,85 @@
+package com.cookbook.math.matrix;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LUDecompositionTest {
+
+    @Test
+    void solvesSystemWithPivoting() {
+        // zero at a11 needs row exchange
+        Matrix matrix = Matrix.newInstance(3, 3, new double[]{
+                0, 2, 1,
+                1, 1, 1,
+                2, 1, 3});
+        double[] x = matrix.solve(new double[]{7, 6, 13});
+        assertArrayEquals(new double[]{1, 2, 3}, x, 1e-12);
+    }
+
+    @Test
+    void solvesRandomSystemWithSmallResidual() {
+        int n = 150;
+        Random random = new Random(7);
+        double[] data = new double[n * n];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = random.nextDouble() - 0.5;
+        }
+        Matrix matrix = Matrix.newInstance(n, n, data);
+        double[] expected = new double[n];
+        for (int i = 0; i < n; i++) {
+            expected[i] = i % 7 - 3;
+        }
+        double[] x = matrix.solve(matrix.multiply(expected));
+        assertArrayEquals(expected, x, 1e-9);
+    }
+
+    @Test
+    void determinantKeepsPermutationSign() {
+        assertEquals(-2.0, Matrix.newInstance(2, 2, new double[]{1, 2, 3, 4}).lu().getDeterminant(), 1e-12);
+        // one row exchange
+        assertEquals(-1.0, Matrix.newInstance(2, 2, new double[]{0, 1, 1, 0}).lu().getDeterminant(), 0.0);
+        // cyclic permutation of 3 rows is even
+        assertEquals(1.0, Matrix.newInstance(3, 3, new double[]{0, 1, 0, 0, 0, 1, 1, 0, 0}).lu().getDeterminant(), 0.0);
+        // triangular matrix, product of diagonal
+        assertEquals(24.0, Matrix.newInstance(3, 3, new double[]{2, 5, 7, 0, 3, 1, 0, 0, 4}).lu().getDeterminant(), 1e-12);
+        assertEquals(1.0, Matrix.identity(10).lu().getDeterminant(), 0.0);
+    }
+
+    @Test
+    void numericallySingularMatrixIsDetected() {
+        // elimination leaves round-off instead of exact zero
+        Matrix matrix = Matrix.newInstance(3, 3, new double[]{
+                1, 2, 3,
+                4, 5, 6,
+                7, 8, 9});
+        LUDecomposition lu = matrix.lu();
+        assertTrue(lu.isSingular());
+        assertEquals(0.0, lu.getDeterminant(), 0.0);
+        assertThrows(ArithmeticException.class, () -> lu.solve(new double[]{1, 2, 3}));
+        assertTrue(Matrix.newInstance(2, 2, new double[]{1, 2, 2, 4}).lu().isSingular());
+        assertTrue(Matrix.newInstance(2, 2, new double[]{0.1, 0.3, 0.7, 2.1}).lu().isSingular());
+        assertTrue(Matrix.newInstance(3, 3).lu().isSingular());
+    }
+
+    @Test
+    void scaledMatrixIsNotSingular() {
+        // tolerance is relative, so small but well-conditioned matrix is regular
+        Matrix matrix = Matrix.newInstance(2, 2, new double[]{1e-200, 0, 0, 2e-200});
+        LUDecomposition lu = matrix.lu();
+        assertFalse(lu.isSingular());
+        assertArrayEquals(new double[]{1, 2}, lu.solve(new double[]{1e-200, 4e-200}), 1e-12);
+    }
+
+    @Test
+    void badArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Matrix.newInstance(2, 3).lu());
+        assertThrows(IllegalArgumentException.class, () -> Matrix.identity(3).lu().solve(new double[2]));
+    }
+}
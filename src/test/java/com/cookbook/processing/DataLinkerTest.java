@@ -0,0 +1,146 @@
+package com.cookbook.processing;
+
+import com.cookbook.processing.interfaces.BatchProducer;
+import com.cookbook.processing.interfaces.Producer;
+import com.cookbook.processing.processor.TestCompiler;
+import com.cookbook.processing.producers.SimpleProducer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataLinkerTest {
+
+    private static final Map<String, String> sources = Map.of(
+            "app.Source", "package app;\n"
+                    + "@com.cookbook.processing.annotation.Data_Source(name = \"source\")\n"
+                    + "public class Source implements com.cookbook.processing.interfaces.DataSource {\n"
+                    + "    public void setProducer(com.cookbook.processing.interfaces.Producer producer) {}\n"
+                    + "    public void getData() {}\n"
+                    + "}\n",
+            "app.Upper", "package app;\n"
+                    + "@com.cookbook.processing.annotation.Decode(name = \"upper\", dataSource = Source.class)\n"
+                    + "public class Upper implements com.cookbook.processing.interfaces.Decoder<String> {\n"
+                    + "    private com.cookbook.processing.interfaces.Consumer<String> consumer;\n"
+                    + "    public void setData(byte[] data) { consumer.notify(new String(data).toUpperCase()); }\n"
+                    + "    public void setConsumer(com.cookbook.processing.interfaces.Consumer<String> consumer) { this.consumer = consumer; }\n"
+                    + "}\n",
+            "app.Sink", "package app;\n"
+                    + "@com.cookbook.processing.annotation.Consume(name = \"sink\", decoder = {Upper.class})\n"
+                    + "public class Sink implements com.cookbook.processing.interfaces.Consumer<String> {\n"
+                    + "    public static final java.util.List<String> received = new java.util.concurrent.CopyOnWriteArrayList<>();\n"
+                    + "    public void notify(String data) { received.add(data); }\n"
+                    + "}\n",
+            "app.Main", "package app;\n"
+                    + "public class Main {}\n",
+            "app.old.Gone", "package app.old;\n"
+                    + "@com.cookbook.processing.annotation.Consume(name = \"gone\", decoder = {})\n"
+                    + "public class Gone implements com.cookbook.processing.interfaces.Consumer<String> {\n"
+                    + "    public void notify(String data) {}\n"
+                    + "}\n");
+
+    @Test
+    void linkerUsesIndexInJarAndSkipsStaleIndex(@TempDir Path dir) throws Exception {
+        TestCompiler result = TestCompiler.compile(sources, dir);
+        assertTrue(result.isSuccess(), result.getErrors().toString());
+        // class is removed after its index was generated, so the index fails with NoClassDefFoundError
+        Files.delete(dir.resolve("classes/app/old/Gone.class"));
+        Path jar = jar(dir.resolve("classes"), dir.resolve("app.jar"), true);
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, getClass().getClassLoader())) {
+            DataLinker linker = new DataLinker(loader.loadClass("app.Main"), SimpleProducer.class);
+            Producer producer = linker.getProducesForDataSourceByName("source");
+            assertNotNull(producer);
+            producer.notify("abc".getBytes(StandardCharsets.UTF_8));
+            producer.close();
+            assertEquals(List.of("ABC"), loader.loadClass("app.Sink").getField("received").get(null));
+        }
+    }
+
+    @Test
+    void batchOfProducerReachesBatchConsumerAsBatch(@TempDir Path dir) throws Exception {
+        Map<String, String> batchSources = Map.of(
+                "batch.Source", "package batch;\n"
+                        + "@com.cookbook.processing.annotation.Data_Source(name = \"source\")\n"
+                        + "public class Source implements com.cookbook.processing.interfaces.DataSource {\n"
+                        + "    public void setProducer(com.cookbook.processing.interfaces.Producer producer) {}\n"
+                        + "    public void getData() {}\n"
+                        + "}\n",
+                "batch.Second", "package batch;\n"
+                        + "@com.cookbook.processing.annotation.Decode(name = \"second\", dataSource = Source.class)\n"
+                        + "@com.cookbook.processing.annotation.CsvColumns({1})\n"
+                        + "public class Second implements com.cookbook.processing.csv.CsvDecoder<String> {\n"
+                        + "    private com.cookbook.processing.interfaces.Consumer<String> consumer;\n"
+                        + "    public void setRecord(com.cookbook.processing.csv.CsvTokenizer record) { consumer.notify(record.getString(1)); }\n"
+                        + "    public void setConsumer(com.cookbook.processing.interfaces.Consumer<String> consumer) { this.consumer = consumer; }\n"
+                        + "}\n",
+                "batch.Sink", "package batch;\n"
+                        + "@com.cookbook.processing.annotation.Consume(name = \"sink\", decoder = {Second.class})\n"
+                        + "public class Sink implements com.cookbook.processing.interfaces.BatchConsumer<String> {\n"
+                        + "    public static final java.util.List<java.util.List<String>> batches = new java.util.concurrent.CopyOnWriteArrayList<>();\n"
+                        + "    public void notifyBatch(java.util.List<String> data) { batches.add(new java.util.ArrayList<>(data)); }\n"
+                        + "    public void notify(String data) { batches.add(java.util.List.of(data)); }\n"
+                        + "}\n",
+                "batch.Main", "package batch;\n"
+                        + "public class Main {}\n");
+        TestCompiler result = TestCompiler.compile(batchSources, dir);
+        assertTrue(result.isSuccess(), result.getErrors().toString());
+        Path jar = jar(dir.resolve("classes"), dir.resolve("batch.jar"), true);
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, getClass().getClassLoader())) {
+            DataLinker linker = new DataLinker(loader.loadClass("batch.Main"), SimpleProducer.class);
+            BatchProducer producer = (BatchProducer) linker.getProducesForDataSourceByName("source");
+            producer.notifyBatch(List.of(bytes("a,1"), bytes("b"), bytes("c,2")));
+            producer.notify(bytes("d,3"));
+            producer.close();
+            assertEquals(List.of(List.of("1", "2"), List.of("3")), loader.loadClass("batch.Sink").getField("batches").get(null));
+        }
+    }
+
+    @Test
+    void jarWithoutIndexIsNotScanned(@TempDir Path dir) throws Exception {
+        TestCompiler result = TestCompiler.compile(sources, dir);
+        assertTrue(result.isSuccess(), result.getErrors().toString());
+        Path jar = jar(dir.resolve("classes"), dir.resolve("app.jar"), false);
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, getClass().getClassLoader())) {
+            // class directory scanning is the only way without index, and it doesn't work for jars
+            DataLinker linker = new DataLinker(loader.loadClass("app.Main"), SimpleProducer.class);
+            assertNull(linker.getProducesForDataSourceByName("source"));
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Path jar(Path classDir, Path jar, boolean withIndex) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar)); Stream<Path> files = Files.walk(classDir)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String name = classDir.relativize(file).toString().replace('\\', '/');
+                if (!withIndex && name.startsWith("META-INF/services/")) {
+                    continue;
+                }
+                out.putNextEntry(new JarEntry(name));
+                Files.copy(file, out);
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
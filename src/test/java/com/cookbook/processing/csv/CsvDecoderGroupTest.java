@@ -0,0 +1,186 @@
+package com.cookbook.processing.csv;
+
+import com.cookbook.processing.annotation.CsvColumns;
+import com.cookbook.processing.interfaces.BatchConsumer;
+import com.cookbook.processing.interfaces.Consumer;
+import org.junit.jupiter.api.Test;
+import other.test.examples.DecoderCsv1;
+import other.test.examples.DecoderCsv2;
+import other.test.examples.OutputResultCsv;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvDecoderGroupTest {
+
+    private final List<String> results = new ArrayList<>();
+    private final Consumer<Object> consumer = data -> {
+        OutputResultCsv result = (OutputResultCsv) data;
+        results.add(result.getField1() + "|" + result.getField2());
+    };
+
+    private CsvDecoderGroup newGroup() {
+        CsvDecoderGroup group = new CsvDecoderGroup();
+        group.addDecoder(new DecoderCsv1());
+        group.addDecoder(new DecoderCsv2());
+        group.setConsumer(consumer);
+        return group;
+    }
+
+    private static byte[] bytes(String record) {
+        return record.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void decodersGetRecordsWithTheirColumns() {
+        CsvDecoderGroup group = newGroup();
+        group.setData(bytes("a,b,c,d"));
+        group.setData(bytes("a,b,c"));
+        group.setData(bytes("a"));
+        assertEquals(List.of("a|b", "d|c", "a|b"), results);
+    }
+
+    @Test
+    void trailingEmptyFieldsAreColumns() {
+        // String.split(",") dropped trailing empty fields, so old example decoders skipped these records
+        CsvDecoderGroup group = newGroup();
+        group.setData(bytes("a,"));
+        group.setData(bytes("x,y,,,"));
+        group.setData(bytes(",,,"));
+        assertEquals(List.of("a|", "x|y", "|", "|", "|"), results);
+    }
+
+    @Test
+    void quotedFieldsAreDecoded() {
+        CsvDecoderGroup group = newGroup();
+        group.setData(bytes("\"a,1\",\"say \"\"hi\"\"\",c,\"\""));
+        assertEquals(List.of("a,1|say \"hi\"", "|c"), results);
+    }
+
+    @Test
+    void batchIsDecodedInOrder() {
+        CsvDecoderGroup group = newGroup();
+        group.setDataBatch(List.of(bytes("1,2"), bytes("3,4,5,6"), bytes("7")));
+        assertEquals(List.of("1|2", "3|4", "6|5"), results);
+    }
+
+    @Test
+    void batchConsumerGetsResultsOfBatchByOneCall() {
+        CsvDecoderGroup group = new CsvDecoderGroup();
+        DecoderCsv1 decoder1 = new DecoderCsv1();
+        DecoderCsv2 decoder2 = new DecoderCsv2();
+        group.addDecoder(decoder1);
+        group.addDecoder(decoder2);
+        RecordingBatchConsumer consumer1 = new RecordingBatchConsumer();
+        RecordingBatchConsumer consumer2 = new RecordingBatchConsumer();
+        group.setConsumer(decoder1, consumer1);
+        group.setConsumer(decoder2, consumer2);
+
+        group.setDataBatch(List.of(bytes("1,2"), bytes("3,4,5,6"), bytes("7")));
+        group.setDataBatch(List.of(bytes("8,9")));
+        group.setData(bytes("a,b,c,d"));
+        // decoder2 has no results in the first and second batches, so its consumer isn't called for them
+        assertEquals(List.of(List.of("1|2", "3|4"), List.of("8|9"), List.of("a|b")), consumer1.batches);
+        assertEquals(List.of(List.of("6|5"), List.of("d|c")), consumer2.batches);
+    }
+
+    @Test
+    void groupConsumerIsLinkedWithAllDecoders() {
+        CsvDecoderGroup group = newGroup();
+        RecordingBatchConsumer batchConsumer = new RecordingBatchConsumer();
+        group.setConsumer(batchConsumer);
+        group.setDataBatch(List.of(bytes("1,2,3,4"), bytes("5,6")));
+        assertEquals(List.of(List.of("1|2", "5|6"), List.of("4|3")), batchConsumer.batches);
+
+        // per-record consumer replaces batch one
+        group.setConsumer(consumer);
+        group.setDataBatch(List.of(bytes("7,8")));
+        assertEquals(2, batchConsumer.batches.size());
+        assertEquals(List.of("7|8"), results);
+    }
+
+    @Test
+    void resultsAreNotKeptAfterFailedConsumer() {
+        CsvDecoderGroup group = new CsvDecoderGroup();
+        DecoderCsv1 decoder = new DecoderCsv1();
+        group.addDecoder(decoder);
+        RecordingBatchConsumer consumer = new RecordingBatchConsumer();
+        consumer.isFailing = true;
+        group.setConsumer(decoder, consumer);
+        assertThrows(IllegalStateException.class, () -> group.setDataBatch(List.of(bytes("1,2"))));
+        consumer.isFailing = false;
+        group.setDataBatch(List.of(bytes("3,4")));
+        assertEquals(List.of(List.of("1|2"), List.of("3|4")), consumer.batches);
+    }
+
+    @Test
+    void consumerOfForeignDecoderIsRejected() {
+        CsvDecoderGroup group = newGroup();
+        assertThrows(IllegalArgumentException.class,
+                () -> group.setConsumer(new DecoderCsv1(), new RecordingBatchConsumer()));
+    }
+
+    @Test
+    void decoderWithoutColumnsGetsEveryRecord() {
+        CsvDecoderGroup group = new CsvDecoderGroup((byte) ';');
+        List<Integer> fieldCounts = new ArrayList<>();
+        group.addDecoder(new CsvDecoder<Object>() {
+            @Override
+            public void setRecord(CsvTokenizer record) {
+                fieldCounts.add(record.getFieldCount());
+            }
+
+            @Override
+            public void setConsumer(Consumer<Object> consumer) {
+            }
+        });
+        group.setData(bytes(""));
+        group.setData(bytes("a;b;c"));
+        assertEquals(List.of(1, 3), fieldCounts);
+        assertEquals(1, group.getDecoderCount());
+    }
+
+    @Test
+    void negativeColumnIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new CsvDecoderGroup().addDecoder(new BadColumns()));
+    }
+
+    // it keeps every batch as list of "field1|field2" strings
+    private static final class RecordingBatchConsumer implements BatchConsumer<Object> {
+        final List<List<String>> batches = new ArrayList<>();
+        boolean isFailing;
+
+        @Override
+        public void notifyBatch(List<Object> data) {
+            List<String> batch = new ArrayList<>();
+            for (Object result : data) {
+                OutputResultCsv csv = (OutputResultCsv) result;
+                batch.add(csv.getField1() + "|" + csv.getField2());
+            }
+            batches.add(batch);
+            if (isFailing) {
+                throw new IllegalStateException("Consumer failed");
+            }
+        }
+
+        @Override
+        public void notify(Object data) {
+            notifyBatch(List.of(data));
+        }
+    }
+
+    @CsvColumns({-1})
+    private static final class BadColumns implements CsvDecoder<Object> {
+        @Override
+        public void setRecord(CsvTokenizer record) {
+        }
+
+        @Override
+        public void setConsumer(Consumer<Object> consumer) {
+        }
+    }
+}
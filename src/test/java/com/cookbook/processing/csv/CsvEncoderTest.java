@@ -0,0 +1,110 @@
+package com.cookbook.processing.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvEncoderTest {
+
+    private final CsvEncoder encoder = new CsvEncoder();
+
+    private static String text(ByteBuffer record) {
+        byte[] bytes = new byte[record.remaining()];
+        record.get(record.position(), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void plainFieldsAreNotQuoted() {
+        encoder.addString("abc");
+        encoder.addLong(-42);
+        encoder.addDouble(1.5);
+        encoder.addString("");
+        assertEquals("abc,-42,1.5,", text(encoder.getRecord()));
+        assertEquals(4, encoder.getFieldCount());
+    }
+
+    @Test
+    void nullIsEmptyField() {
+        encoder.addNull();
+        encoder.addString(null);
+        encoder.addNull();
+        assertEquals(",,", text(encoder.getRecord()));
+        assertEquals(3, encoder.getFieldCount());
+    }
+
+    @Test
+    void fieldsWithDelimiterQuoteOrLineBreakAreQuoted() {
+        encoder.addString("a,b");
+        encoder.addString("say \"hi\"");
+        encoder.addString("line\nfeed");
+        encoder.addString("carriage\rreturn");
+        encoder.addString("\"");
+        assertEquals("\"a,b\",\"say \"\"hi\"\"\",\"line\nfeed\",\"carriage\rreturn\",\"\"\"\"", text(encoder.getRecord()));
+
+        CsvTokenizer tokenizer = new CsvTokenizer();
+        assertEquals(5, tokenizer.tokenize(encoder.getRecord()));
+        assertEquals("a,b", tokenizer.getString(0));
+        assertEquals("say \"hi\"", tokenizer.getString(1));
+        assertEquals("line\nfeed", tokenizer.getString(2));
+        assertEquals("carriage\rreturn", tokenizer.getString(3));
+        assertEquals("\"", tokenizer.getString(4));
+    }
+
+    @Test
+    void otherDelimiterIsQuotedInsteadOfComma() {
+        CsvEncoder semicolon = new CsvEncoder((byte) ';');
+        semicolon.addString("a,b");
+        semicolon.addString("c;d");
+        assertEquals("a,b;\"c;d\"", text(semicolon.getRecord()));
+        assertThrows(IllegalArgumentException.class, () -> new CsvEncoder((byte) '"'));
+    }
+
+    @Test
+    void textIsEncodedToUtf8() {
+        String[] values = {"ü", "€ and ß", "😀", "a😀b𝄞", "日本語,テキスト"};
+        for (String value : values) {
+            encoder.reset();
+            encoder.addString(value);
+            CsvTokenizer tokenizer = new CsvTokenizer();
+            tokenizer.tokenize(encoder.getRecord());
+            assertEquals(value, tokenizer.getString(0), value);
+        }
+        encoder.reset();
+        encoder.addString("a😀b𝄞");
+        assertArrayEquals("a😀b𝄞".getBytes(StandardCharsets.UTF_8), encoder.toByteArray());
+    }
+
+    @Test
+    void unpairedSurrogateIsReplacedAsByString() {
+        String value = "x\uD83Dy\uDE00";
+        encoder.addString(value);
+        assertArrayEquals(value.getBytes(StandardCharsets.UTF_8), encoder.toByteArray());
+    }
+
+    @Test
+    void longValuesAtEdges() {
+        encoder.addLong(Long.MIN_VALUE);
+        encoder.addLong(Long.MAX_VALUE);
+        encoder.addLong(0);
+        encoder.addLong(-1);
+        assertEquals("-9223372036854775808,9223372036854775807,0,-1", text(encoder.getRecord()));
+    }
+
+    @Test
+    void resetStartsNewRecordAndBufferGrows() {
+        String longValue = "x".repeat(10_000);
+        encoder.addString(longValue);
+        encoder.addString("y");
+        assertEquals(longValue + ",y", text(encoder.getRecord()));
+        encoder.reset();
+        encoder.addString("z");
+        assertEquals("z", text(encoder.getRecord()));
+        assertEquals(1, encoder.getFieldCount());
+    }
+}
@@ -0,0 +1,117 @@
+package com.cookbook.processing.csv;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvTokenizerTest {
+
+    private final CsvTokenizer tokenizer = new CsvTokenizer();
+
+    private static ByteBuffer buffer(String record) {
+        return ByteBuffer.wrap(record.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void emptyFieldsAreKept() {
+        assertEquals(1, tokenizer.tokenize(buffer("")));
+        assertEquals(2, tokenizer.tokenize(buffer("a,")));
+        assertEquals("", tokenizer.getString(1));
+        assertEquals(4, tokenizer.tokenize(buffer(",b,,")));
+        assertEquals("", tokenizer.getString(0));
+        assertEquals("b", tokenizer.getString(1));
+        assertEquals(0, tokenizer.getLength(3));
+    }
+
+    @Test
+    void quotedFieldsContainDelimiterQuotesAndLineFeeds() {
+        assertEquals(4, tokenizer.tokenize(buffer("\"a,b\",\"x\"\"y\"\"\",\"line\nfeed\",\"\"")));
+        assertEquals("a,b", tokenizer.getString(0));
+        assertEquals("x\"y\"", tokenizer.getString(1));
+        assertEquals(6, tokenizer.getLength(1));
+        assertEquals("line\nfeed", tokenizer.getString(2));
+        assertEquals("", tokenizer.getString(3));
+        assertTrue(tokenizer.equals(1, "x\"y\"".getBytes(StandardCharsets.US_ASCII)));
+        assertFalse(tokenizer.equals(1, "x\"\"y\"\"".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void malformedQuotesDontBreakTokenizing() {
+        // bytes after closing quote are ignored
+        assertEquals(2, tokenizer.tokenize(buffer("\"ab\"cd,e")));
+        assertEquals("ab", tokenizer.getString(0));
+        assertEquals("e", tokenizer.getString(1));
+        // unterminated quote takes the rest of record
+        assertEquals(1, tokenizer.tokenize(buffer("\"ab,cd")));
+        assertEquals("ab,cd", tokenizer.getString(0));
+        // quote inside unquoted field is a usual byte
+        assertEquals(2, tokenizer.tokenize(buffer("a\"b,c")));
+        assertEquals("a\"b", tokenizer.getString(0));
+    }
+
+    @Test
+    void scanningStopsAtMaxFieldNum() {
+        assertEquals(2, tokenizer.tokenize(buffer("a,b,c,d"), 2));
+        assertEquals(2, tokenizer.getFieldCount());
+        assertEquals("b", tokenizer.getString(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tokenizer.getString(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> tokenizer.getString(-1));
+    }
+
+    @Test
+    void wideRecordAndLongFieldsGrowBuffers() {
+        StringBuilder record = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            record.append(i == 0 ? "" : ",").append('"').append("v\"\"").append(i).append("x".repeat(i % 200)).append('"');
+        }
+        assertEquals(1000, tokenizer.tokenize(buffer(record.toString())));
+        for (int i = 0; i < 1000; i += 37) {
+            assertEquals("v\"" + i + "x".repeat(i % 200), tokenizer.getString(i));
+        }
+    }
+
+    @Test
+    void fieldsOfBufferRegionAndDirectBuffer() {
+        ByteBuffer data = buffer("skip|x,\"ü€😀\",3|skip");
+        data.position(5).limit(data.limit() - 5);
+        assertEquals(3, tokenizer.tokenize(data));
+        assertEquals("x", tokenizer.getString(0));
+        assertEquals("ü€😀", tokenizer.getString(1));
+        assertEquals(3, tokenizer.getLong(2));
+        assertEquals(5, data.position());
+
+        byte[] bytes = "1.5,\"q\"\"\"".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        assertEquals(2, tokenizer.tokenize(direct));
+        assertEquals(1.5, tokenizer.getDouble(0), 0.0);
+        assertEquals("q\"", tokenizer.getString(1));
+    }
+
+    @Test
+    void numbersAreParsedWithOverflowCheck() {
+        tokenizer.tokenize(buffer("9223372036854775807,-9223372036854775808,+42,9223372036854775808,-9223372036854775809,,-,1x"));
+        assertEquals(Long.MAX_VALUE, tokenizer.getLong(0));
+        assertEquals(Long.MIN_VALUE, tokenizer.getLong(1));
+        assertEquals(42, tokenizer.getLong(2));
+        for (int field = 3; field < 8; field++) {
+            int index = field;
+            assertThrows(NumberFormatException.class, () -> tokenizer.getLong(index), "field " + field);
+        }
+    }
+
+    @Test
+    void otherDelimiter() {
+        CsvTokenizer semicolon = new CsvTokenizer((byte) ';');
+        assertEquals(2, semicolon.tokenize(buffer("a,b;\"c;d\"")));
+        assertEquals("a,b", semicolon.getString(0));
+        assertEquals("c;d", semicolon.getString(1));
+        assertThrows(IllegalArgumentException.class, () -> new CsvTokenizer((byte) '"'));
+        assertThrows(IllegalArgumentException.class, () -> new CsvTokenizer((byte) '\n'));
+    }
+}
@@ -0,0 +1,231 @@
+package com.cookbook.processing.datasources;
+
+import com.cookbook.processing.csv.CsvTokenizer;
+import com.cookbook.processing.interfaces.Decoder;
+import com.cookbook.processing.interfaces.Producer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JdbcDataSourceTest {
+
+    private static final AtomicInteger dbNum = new AtomicInteger();
+
+    private final RecordProducer producer = new RecordProducer();
+    private String url;
+    // keeps in-memory data base alive between connections of data source
+    private Connection keeper;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        url = "jdbc:h2:mem:jdbc-data-source-" + dbNum.incrementAndGet();
+        keeper = DriverManager.getConnection(url);
+        try (Statement statement = keeper.createStatement()) {
+            statement.execute("CREATE TABLE item (id BIGINT PRIMARY KEY, name VARCHAR(100), amount INT, price DECIMAL(10, 2))");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        keeper.close();
+    }
+
+    @Test
+    void queryRowsAreSentInOrder() throws SQLException {
+        insert(1, "plain", 10, "1.50");
+        insert(2, "comma, inside", -3, "0.00");
+        insert(3, "quote \"here\"", 0, "12.25");
+        insert(4, "two\nlines", 7, "3.00");
+
+        JdbcDataSource dataSource = JdbcDataSource.forQuery(this::open, "SELECT id, name, amount, price FROM item ORDER BY id", 2);
+        dataSource.setProducer(producer);
+        dataSource.getData();
+
+        assertEquals(List.of(
+                List.of("1", "plain", "10", "1.50"),
+                List.of("2", "comma, inside", "-3", "0.00"),
+                List.of("3", "quote \"here\"", "0", "12.25"),
+                List.of("4", "two\nlines", "7", "3.00")), producer.getRecords());
+        assertEquals(4, dataSource.getRowCount());
+    }
+
+    @Test
+    void sqlNullIsEmptyField() throws SQLException {
+        insert(1, null, null, null);
+        insert(2, "", 0, null);
+
+        JdbcDataSource dataSource = JdbcDataSource.forQuery(this::open, "SELECT id, name, amount, price FROM item ORDER BY id", 10);
+        dataSource.setProducer(producer);
+        dataSource.getData();
+
+        assertEquals(List.of(List.of("1", "", "", ""), List.of("2", "", "0", "")), producer.getRecords());
+    }
+
+    @Test
+    void nonAsciiTextIsUtf8() throws SQLException {
+        String[] names = {"Grüße", "€ 5", "😀 emoji", "a𝄞b", "日本語,テキスト"};
+        for (int i = 0; i < names.length; i++) {
+            insert(i, names[i], i, null);
+        }
+
+        JdbcDataSource dataSource = JdbcDataSource.forQuery(this::open, "SELECT name FROM item ORDER BY id", 10);
+        dataSource.setProducer(producer);
+        dataSource.getData();
+
+        List<List<String>> records = producer.getRecords();
+        assertEquals(names.length, records.size());
+        for (int i = 0; i < names.length; i++) {
+            assertEquals(List.of(names[i]), records.get(i));
+        }
+    }
+
+    @Test
+    void partitionsDeliverEveryRowOnce() throws SQLException {
+        List<Long> keys = new ArrayList<>(List.of(Long.MIN_VALUE, Long.MIN_VALUE + 1, -1L, 0L, 1L, Long.MAX_VALUE - 1, Long.MAX_VALUE));
+        for (long key = -500; key < 500; key += 3) {
+            if (!keys.contains(key)) {
+                keys.add(key);
+            }
+        }
+        for (long key : keys) {
+            insert(key, "n" + key, (int) (key % 1000), null);
+        }
+
+        JdbcDataSource dataSource = JdbcDataSource.forTable(this::open, "item", "id", new String[]{"id", "name"}, 4, 16);
+        dataSource.setProducer(producer);
+        dataSource.getData();
+
+        List<Long> received = new ArrayList<>();
+        for (List<String> record : producer.getRecords()) {
+            long key = Long.parseLong(record.get(0));
+            assertEquals("n" + key, record.get(1));
+            received.add(key);
+        }
+        received.sort(Comparator.naturalOrder());
+        keys.sort(Comparator.naturalOrder());
+        assertEquals(keys, received);
+        assertEquals(keys.size(), dataSource.getRowCount());
+    }
+
+    @Test
+    void emptyTableSendsNothing() {
+        JdbcDataSource dataSource = JdbcDataSource.forTable(this::open, "item", "id", new String[]{"id"}, 3, 16);
+        dataSource.setProducer(producer);
+        dataSource.getData();
+        assertTrue(producer.getRecords().isEmpty());
+        assertEquals(0, dataSource.getRowCount());
+    }
+
+    @Test
+    void boundsCoverKeysAtLongEdges() {
+        long[] bounds = JdbcDataSource.bounds(Long.MIN_VALUE, Long.MAX_VALUE, 4);
+        assertArrayEquals(new long[]{Long.MIN_VALUE, -(1L << 62), 0, 1L << 62, Long.MAX_VALUE}, bounds);
+        for (long key : new long[]{Long.MIN_VALUE, -1, 0, 1, (1L << 62) - 1, 1L << 62, Long.MAX_VALUE - 1, Long.MAX_VALUE}) {
+            assertEquals(1, rangeCount(bounds, key), "key " + key);
+        }
+
+        bounds = JdbcDataSource.bounds(Long.MAX_VALUE - 2, Long.MAX_VALUE, 8);
+        assertArrayEquals(new long[]{Long.MAX_VALUE - 2, Long.MAX_VALUE - 1, Long.MAX_VALUE, Long.MAX_VALUE}, bounds);
+        for (long key = Long.MAX_VALUE - 2; key != Long.MIN_VALUE; key++) {
+            assertEquals(1, rangeCount(bounds, key), "key " + key);
+        }
+
+        assertArrayEquals(new long[]{Long.MIN_VALUE, Long.MIN_VALUE}, JdbcDataSource.bounds(Long.MIN_VALUE, Long.MIN_VALUE, 5));
+        assertArrayEquals(new long[]{7, 7}, JdbcDataSource.bounds(7, 7, 1));
+    }
+
+    @Test
+    void sqlErrorIsReported() {
+        JdbcDataSource dataSource = JdbcDataSource.forQuery(this::open, "SELECT missing FROM item", 10);
+        dataSource.setProducer(producer);
+        IllegalStateException ex = assertThrows(IllegalStateException.class, dataSource::getData);
+        assertInstanceOf(SQLException.class, ex.getCause());
+
+        JdbcDataSource partitioned = JdbcDataSource.forTable(this::open, "missing", "id", new String[]{"id"}, 2, 10);
+        partitioned.setProducer(producer);
+        assertThrows(IllegalStateException.class, partitioned::getData);
+    }
+
+    @Test
+    void namesMustBeIdentifiers() {
+        assertThrows(IllegalArgumentException.class,
+                () -> JdbcDataSource.forTable(this::open, "item; DROP TABLE item", "id", new String[]{"id"}, 2, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> JdbcDataSource.forTable(this::open, "item", "id", new String[]{"id", "1name"}, 2, 10));
+        assertThrows(IllegalArgumentException.class, () -> JdbcDataSource.forQuery(this::open, "SELECT 1", 0));
+    }
+
+    // count of ranges containing key, the last range includes its end
+    private static int rangeCount(long[] bounds, long key) {
+        int count = 0;
+        for (int i = 0; i < bounds.length - 1; i++) {
+            boolean isLast = i == bounds.length - 2;
+            if (key >= bounds[i] && (key < bounds[i + 1] || (isLast && key == bounds[i + 1]))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Connection open() throws SQLException {
+        return DriverManager.getConnection(url);
+    }
+
+    private void insert(long id, String name, Integer amount, String price) throws SQLException {
+        try (PreparedStatement statement = keeper.prepareStatement("INSERT INTO item VALUES (?, ?, ?, ?)")) {
+            statement.setLong(1, id);
+            statement.setString(2, name);
+            if (amount == null) {
+                statement.setNull(3, Types.INTEGER);
+            } else {
+                statement.setInt(3, amount);
+            }
+            statement.setString(4, price);
+            statement.executeUpdate();
+        }
+    }
+
+    // decodes records back to fields, partitions notify from several threads
+    private static final class RecordProducer implements Producer {
+
+        private final CsvTokenizer tokenizer = new CsvTokenizer();
+        private final List<List<String>> records = new ArrayList<>();
+
+        @Override
+        public synchronized void notify(byte[] data) {
+            int fieldNum = tokenizer.tokenize(ByteBuffer.wrap(data));
+            String[] fields = new String[fieldNum];
+            for (int i = 0; i < fieldNum; i++) {
+                fields[i] = tokenizer.getString(i);
+            }
+            records.add(Arrays.asList(fields));
+        }
+
+        @Override
+        public void addDecoder(Decoder decoder) {
+        }
+
+        synchronized List<List<String>> getRecords() {
+            return new ArrayList<>(records);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.cookbook.processing.datasources;
+
+import com.cookbook.processing.interfaces.BatchProducer;
+import com.cookbook.processing.interfaces.Decoder;
+import com.cookbook.processing.interfaces.Producer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedFileDataSourceTest {
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterAll
+    static void shutdown() {
+        executor.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 5, 7, 16, 1000})
+    void orderedAndUnorderedModesSendSameLines(long chunkSize, @TempDir Path dir) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("line").append(i).append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i % 50 == 0) {
+                text.append('\n');
+            }
+        }
+        Path file = write(dir, text.toString());
+        List<String> expected = lines(text.toString());
+
+        assertEquals(expected, read(file, chunkSize, true));
+        assertEquals(sorted(expected), sorted(read(file, chunkSize, false)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void chunkEndOnLineFeedAndRightAfterIt(boolean isOrdered, @TempDir Path dir) throws IOException {
+        // lines are 4 bytes with line feed: chunk size 3 ends on line feed, chunk size 4 ends right after it
+        Path file = write(dir, "aaa\nbbb\nccc\nddd\n");
+        List<String> expected = List.of("aaa", "bbb", "ccc", "ddd");
+        for (long chunkSize : new long[]{3, 4, 5}) {
+            List<String> lines = read(file, chunkSize, isOrdered);
+            assertEquals(expected, isOrdered ? lines : sorted(lines), "chunk size " + chunkSize);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void lineLongerThanChunkIsNotSplit(boolean isOrdered, @TempDir Path dir) throws IOException {
+        // long line is longer than read buffer used for chunk alignment too
+        String longLine = "x".repeat(10_000);
+        Path file = write(dir, "a\n" + longLine + "\nb\n");
+        List<String> expected = List.of("a", longLine, "b");
+        List<String> lines = read(file, 2, isOrdered);
+        assertEquals(isOrdered ? expected : sorted(expected), isOrdered ? lines : sorted(lines));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void carriageReturnIsStrippedBeforeLineFeedOnly(boolean isOrdered, @TempDir Path dir) throws IOException {
+        Path file = write(dir, "a\r\nb\rc\r\n\r\n\rd\n");
+        List<String> lines = read(file, 1000, isOrdered);
+        assertEquals(List.of("a", "b\rc", "", "\rd"), lines);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void lastLineWithoutLineFeedIsSent(boolean isOrdered, @TempDir Path dir) throws IOException {
+        Path file = write(dir, "a\nb\nlast\r");
+        List<String> lines = read(file, 2, isOrdered);
+        assertEquals(List.of("a", "b", "last"), isOrdered ? lines : sorted(lines));
+        assertEquals(List.of("single"), read(write(dir, "single"), 1000, isOrdered));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void emptyFileHasNoLines(boolean isOrdered, @TempDir Path dir) throws IOException {
+        assertEquals(List.of(), read(write(dir, ""), 1000, isOrdered));
+        assertEquals(List.of("", ""), read(write(dir, "\n\n"), 1000, isOrdered));
+    }
+
+    @Test
+    void missingFileIsReported(@TempDir Path dir) {
+        MappedFileDataSource source = new MappedFileDataSource(dir.resolve("missing.csv"), 1000, executor, 2, true);
+        source.setProducer(new LineRecorder());
+        assertThrows(UncheckedIOException.class, source::getData);
+    }
+
+    @Test
+    void badParametersAreRejected(@TempDir Path dir) {
+        Path file = dir.resolve("data.csv");
+        assertThrows(IllegalArgumentException.class, () -> new MappedFileDataSource(null, 1000, executor, 2, true));
+        assertThrows(IllegalArgumentException.class, () -> new MappedFileDataSource(file, 1000, null, 2, true));
+        assertThrows(IllegalArgumentException.class, () -> new MappedFileDataSource(file, 0, executor, 2, true));
+        assertThrows(IllegalArgumentException.class, () -> new MappedFileDataSource(file, Integer.MAX_VALUE, executor, 2, true));
+        assertThrows(IllegalArgumentException.class, () -> new MappedFileDataSource(file, 1000, executor, 0, true));
+    }
+
+    @Test
+    void unorderedModeSendsBatchesToBatchProducer(@TempDir Path dir) throws IOException {
+        StringBuilder text = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            text.append(i).append(i % 2 == 0 ? "\n" : "\r\n");
+            expected.add(Integer.toString(i));
+        }
+        Path file = write(dir, text.toString());
+        BatchRecorder producer = new BatchRecorder();
+        // the whole file is one chunk, direct executor keeps batches in file order
+        MappedFileDataSource source = new MappedFileDataSource(file, 1 << 20, Runnable::run, 1, false);
+        source.setProducer(producer);
+        source.getData();
+
+        assertEquals(List.of(MappedFileDataSource.batch_size, MappedFileDataSource.batch_size, 600 - 2 * MappedFileDataSource.batch_size),
+                producer.batchSizes);
+        assertEquals(expected, producer.records);
+        assertTrue(producer.viewRecords.isEmpty());
+    }
+
+    private static Path write(Path dir, String text) throws IOException {
+        Path file = dir.resolve("data.csv");
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> read(Path file, long chunkSize, boolean isOrdered) {
+        LineRecorder producer = new LineRecorder();
+        MappedFileDataSource source = new MappedFileDataSource(file, chunkSize, executor, 3, isOrdered);
+        source.setProducer(producer);
+        source.getData();
+        return producer.lines;
+    }
+
+    private static List<String> sorted(List<String> lines) {
+        List<String> result = new ArrayList<>(lines);
+        result.sort(null);
+        return result;
+    }
+
+    // lines without line feeds and carriage returns before them
+    private static List<String> lines(String text) {
+        List<String> lines = new ArrayList<>(Arrays.asList(text.split("\n", -1)));
+        lines.remove(lines.size() - 1);
+        lines.replaceAll(line -> line.endsWith("\r") ? line.substring(0, line.length() - 1) : line);
+        return lines;
+    }
+
+    // producer which keeps lines sent as views
+    private static final class LineRecorder implements Producer {
+        final List<String> lines = new ArrayList<>();
+
+        @Override
+        public synchronized void notify(ByteBuffer data) {
+            lines.add(StandardCharsets.UTF_8.decode(data.duplicate()).toString());
+        }
+
+        @Override
+        public synchronized void notify(byte[] data) {
+            lines.add(new String(data, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void addDecoder(Decoder decoder) {
+        }
+    }
+
+    // batch producer which keeps records sent by batches and by views separately
+    private static final class BatchRecorder implements BatchProducer {
+        final List<Integer> batchSizes = new ArrayList<>();
+        final List<String> records = new ArrayList<>();
+        final List<String> viewRecords = new ArrayList<>();
+
+        @Override
+        public synchronized void notifyBatch(List<byte[]> data) {
+            batchSizes.add(data.size());
+            for (byte[] record : data) {
+                records.add(new String(record, StandardCharsets.UTF_8));
+            }
+        }
+
+        @Override
+        public synchronized void notify(byte[] data) {
+            records.add(new String(data, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public synchronized void notify(ByteBuffer data) {
+            viewRecords.add(StandardCharsets.UTF_8.decode(data.duplicate()).toString());
+        }
+
+        @Override
+        public void addDecoder(Decoder decoder) {
+        }
+    }
+}
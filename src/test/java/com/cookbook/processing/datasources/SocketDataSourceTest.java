@@ -0,0 +1,279 @@
+package com.cookbook.processing.datasources;
+
+import com.cookbook.processing.interfaces.Decoder;
+import com.cookbook.processing.interfaces.Producer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class SocketDataSourceTest {
+
+    private static final long timeout_millis = 10_000;
+
+    private final QueueProducer producer = new QueueProducer();
+    private SocketDataSource dataSource;
+    private Thread loop;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+        if (loop != null) {
+            loop.join(timeout_millis);
+            assertFalse(loop.isAlive(), "getData() must return after close()");
+        }
+    }
+
+    @Test
+    void splitsStreamByLineFeed() throws Exception {
+        start(Framing.delimited((byte) '\n', 16), false);
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            out.write(bytes("first\nsec"));
+            out.flush();
+            assertEquals("first", producer.take());
+            out.write(bytes("ond\r\n\nlast"));
+        }
+        // the last record has no delimiter, it's sent when peer closes connection
+        assertEquals(List.of("second", "", "last"), producer.take(3));
+        awaitTrue(() -> dataSource.getConnectionCount() == 0);
+        assertEquals(0, dataSource.getFramingErrorCount());
+    }
+
+    @Test
+    void splitsStreamByLengthPrefix() throws Exception {
+        start(Framing.lengthPrefixed(16), false);
+        ByteBuffer stream = ByteBuffer.allocate(64);
+        stream.putInt(3).put(bytes("abc")).putInt(0).putInt(5).put(bytes("hello"));
+        stream.flip();
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            // byte by byte, so prefix and record are split between reads
+            while (stream.hasRemaining()) {
+                out.write(stream.get());
+                out.flush();
+            }
+            assertEquals(List.of("abc", "", "hello"), producer.take(3));
+        }
+        awaitTrue(() -> dataSource.getConnectionCount() == 0);
+        assertEquals(0, dataSource.getFramingErrorCount());
+    }
+
+    @Test
+    void closesConnectionSendingOversizedLine() throws Exception {
+        start(Framing.delimited((byte) '\n', 4), false);
+        try (Socket socket = connect()) {
+            socket.getOutputStream().write(bytes("ok\ntoo long record\nlost\n"));
+            assertEquals("ok", producer.take());
+            awaitTrue(() -> dataSource.getFramingErrorCount() == 1);
+            awaitTrue(() -> dataSource.getConnectionCount() == 0);
+            assertTrue(socket.getInputStream().read() < 0, "connection must be closed by data source");
+        } catch (IOException ex) {
+            // connection reset is also closing
+        }
+        assertNull(producer.records.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void closesConnectionSendingOversizedLength() throws Exception {
+        start(Framing.lengthPrefixed(4), false);
+        try (Socket socket = connect()) {
+            ByteBuffer stream = ByteBuffer.allocate(32);
+            stream.putInt(2).put(bytes("ok")).putInt(5).put(bytes("12345"));
+            socket.getOutputStream().write(stream.array(), 0, stream.position());
+            assertEquals("ok", producer.take());
+            awaitTrue(() -> dataSource.getFramingErrorCount() == 1);
+            awaitTrue(() -> dataSource.getConnectionCount() == 0);
+        }
+        assertNull(producer.records.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void receivesEveryDatagramAsRecord() throws Exception {
+        start(Framing.delimited((byte) '\n', 64), true);
+        try (DatagramChannel channel = DatagramChannel.open()) {
+            channel.connect(dataSource.getLocalAddress());
+            // delimiter isn't special in datagrams
+            channel.write(ByteBuffer.wrap(bytes("one\ntwo")));
+            channel.write(ByteBuffer.wrap(bytes("three")));
+        }
+        assertEquals(List.of("one\ntwo", "three"), producer.take(2));
+        assertEquals(0, dataSource.getConnectionCount());
+    }
+
+    @Test
+    void dropsDatagramLongerThanMaxRecordSize() throws Exception {
+        start(Framing.delimited((byte) '\n', 8), true);
+        try (DatagramChannel channel = DatagramChannel.open()) {
+            channel.connect(dataSource.getLocalAddress());
+            channel.write(ByteBuffer.wrap(bytes("12345678")));
+            // 9 bytes fill the buffer, longer datagram is truncated to it
+            channel.write(ByteBuffer.wrap(bytes("123456789")));
+            channel.write(ByteBuffer.wrap(bytes("much longer datagram")));
+            channel.write(ByteBuffer.wrap(bytes("last")));
+        }
+        assertEquals(List.of("12345678", "last"), producer.take(2));
+        assertEquals(2, dataSource.getFramingErrorCount());
+    }
+
+    @Test
+    void closeBeforeStartClosesSockets() {
+        dataSource = new SocketDataSource(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), Framing.lengthPrefixed(16), 2, true);
+        dataSource.setProducer(producer);
+        dataSource.close();
+        dataSource.close();
+        assertThrows(IllegalStateException.class, dataSource::getData);
+    }
+
+    @Test
+    void closeRacingWithStartIsSafe() throws InterruptedException {
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            SocketDataSource source = new SocketDataSource(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                    Framing.delimited((byte) '\n', 16), 2, false);
+            source.setProducer(producer);
+            Thread thread = new Thread(() -> {
+                try {
+                    source.getData();
+                } catch (IllegalStateException ex) {
+                    // close() was the first
+                } catch (Throwable ex) {
+                    failures.add(ex);
+                }
+            });
+            thread.start();
+            source.close();
+            thread.join(timeout_millis);
+            assertFalse(thread.isAlive(), "getData() must return after close()");
+        }
+        assertEquals(List.of(), failures);
+    }
+
+    @Test
+    void doesNotReadWhileProducerIsFull() throws Exception {
+        producer.isFull = true;
+        start(Framing.delimited((byte) '\n', 64), false);
+        byte[] line = bytes("0123456789012345678901234567890123456789\n");
+        int lineCount = 0;
+        try (SocketChannel channel = SocketChannel.open(dataSource.getLocalAddress())) {
+            awaitTrue(() -> dataSource.getConnectionCount() == 1);
+            channel.configureBlocking(false);
+            // socket buffers are filled and nothing is read, so the sender has to stop
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            long deadline = System.currentTimeMillis() + timeout_millis;
+            while (true) {
+                int count = channel.write(buffer);
+                if (!buffer.hasRemaining()) {
+                    lineCount++;
+                    buffer.rewind();
+                } else if (count == 0) {
+                    Thread.sleep(50);
+                    if (channel.write(buffer) == 0) {
+                        break;
+                    }
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    fail("Sender isn't stopped by full producer");
+                }
+            }
+            assertTrue(producer.records.isEmpty(), "nothing is read while producer is full");
+
+            producer.isFull = false;
+            channel.configureBlocking(true);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            lineCount++;
+        }
+        List<String> records = producer.take(lineCount);
+        assertEquals(lineCount, records.size());
+        for (String record : records) {
+            assertEquals(line.length - 1, record.length());
+        }
+    }
+
+    private void start(Framing framing, boolean isUdpEnabled) {
+        dataSource = new SocketDataSource(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), framing, 1, isUdpEnabled);
+        dataSource.setProducer(producer);
+        loop = new Thread(dataSource::getData, "socket-data-source-test");
+        loop.start();
+    }
+
+    private Socket connect() throws IOException {
+        return new Socket(dataSource.getLocalAddress().getAddress(), dataSource.getLocalAddress().getPort());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout_millis;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition isn't met in " + timeout_millis + " ms");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    // keeps records as strings, it can pretend to be full
+    private static final class QueueProducer implements Producer {
+
+        final LinkedBlockingQueue<String> records = new LinkedBlockingQueue<>();
+        volatile boolean isFull;
+
+        @Override
+        public void notify(byte[] data) {
+            records.add(new String(data, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void addDecoder(Decoder decoder) {
+        }
+
+        @Override
+        public boolean isFull() {
+            return isFull;
+        }
+
+        String take() throws InterruptedException {
+            String record = records.poll(timeout_millis, TimeUnit.MILLISECONDS);
+            if (record == null) {
+                fail("Record isn't received in " + timeout_millis + " ms");
+            }
+            return record;
+        }
+
+        List<String> take(int count) throws InterruptedException {
+            List<String> result = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                result.add(take());
+            }
+            return result;
+        }
+    }
+}
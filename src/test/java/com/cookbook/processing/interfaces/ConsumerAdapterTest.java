@@ -0,0 +1,35 @@
+package com.cookbook.processing.interfaces;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ConsumerAdapterTest {
+
+    @Test
+    void batchIsConsumedResultByResult() {
+        List<String> results = new ArrayList<>();
+        BatchConsumer<String> adapter = BatchConsumer.of(results::add);
+        adapter.notifyBatch(List.of("a", "b"));
+        adapter.notify("c");
+        assertEquals(List.of("a", "b", "c"), results);
+    }
+
+    @Test
+    void batchConsumerIsNotWrapped() {
+        BatchConsumer<String> consumer = new BatchConsumer<String>() {
+            @Override
+            public void notifyBatch(List<String> data) {
+            }
+
+            @Override
+            public void notify(String data) {
+            }
+        };
+        assertSame(consumer, BatchConsumer.of(consumer));
+    }
+}
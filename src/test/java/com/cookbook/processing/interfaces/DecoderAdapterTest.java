@@ -0,0 +1,88 @@
+package com.cookbook.processing.interfaces;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DecoderAdapterTest {
+
+    @Test
+    void batchIsDecodedRecordByRecord() {
+        StringDecoder decoder = new StringDecoder();
+        BatchDecoder<String> adapter = BatchDecoder.of(decoder);
+        adapter.setDataBatch(List.of(bytes("a"), bytes("b")));
+        adapter.setData(bytes("c"));
+        assertEquals(List.of("a", "b", "c"), decoder.records);
+    }
+
+    @Test
+    void bufferIsPassedWithoutCopy() {
+        StringDecoder decoder = new StringDecoder();
+        BatchDecoder<String> adapter = BatchDecoder.of(decoder);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes("xyz"));
+        buffer.position(1).limit(2);
+        adapter.setData(buffer);
+        assertSame(buffer, decoder.buffer);
+        assertEquals(List.of("y"), decoder.records);
+    }
+
+    @Test
+    void consumerIsForwarded() {
+        StringDecoder decoder = new StringDecoder();
+        Consumer<String> consumer = data -> {
+        };
+        BatchDecoder.of(decoder).setConsumer(consumer);
+        assertSame(consumer, decoder.consumer);
+    }
+
+    @Test
+    void batchDecoderIsNotWrapped() {
+        BatchDecoder<String> decoder = new BatchDecoder<String>() {
+            @Override
+            public void setDataBatch(List<byte[]> data) {
+            }
+
+            @Override
+            public void setData(byte[] data) {
+            }
+
+            @Override
+            public void setConsumer(Consumer<String> consumer) {
+            }
+        };
+        assertSame(decoder, BatchDecoder.of(decoder));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // per-record decoder which keeps records as strings
+    private static final class StringDecoder implements Decoder<String> {
+        final List<String> records = new ArrayList<>();
+        ByteBuffer buffer;
+        Consumer<String> consumer;
+
+        @Override
+        public void setData(byte[] data) {
+            records.add(new String(data, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void setData(ByteBuffer data) {
+            buffer = data;
+            records.add(StandardCharsets.UTF_8.decode(data.duplicate()).toString());
+        }
+
+        @Override
+        public void setConsumer(Consumer<String> consumer) {
+            this.consumer = consumer;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.cookbook.processing.interfaces;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProducerAdapterTest {
+
+    @Test
+    void fullStateIsForwarded() {
+        FlagProducer producer = new FlagProducer();
+        BatchProducer adapter = BatchProducer.of(producer);
+        assertFalse(adapter.isFull());
+        producer.isFull = true;
+        assertTrue(adapter.isFull());
+    }
+
+    @Test
+    void recordsAndCloseAreForwarded() {
+        FlagProducer producer = new FlagProducer();
+        BatchProducer adapter = BatchProducer.of(producer);
+        adapter.notify(bytes("a"));
+        adapter.notifyBatch(List.of(bytes("b"), bytes("c")));
+        ByteBuffer buffer = ByteBuffer.wrap(bytes("xdy"));
+        buffer.position(1).limit(2);
+        adapter.notify(buffer);
+        assertEquals(1, buffer.position());
+        adapter.close();
+        assertEquals(List.of("a", "b", "c", "d"), producer.records);
+        assertTrue(producer.isClosed);
+    }
+
+    @Test
+    void batchProducerIsNotWrapped() {
+        BatchProducer producer = new BatchProducer() {
+            @Override
+            public void notifyBatch(List<byte[]> data) {
+            }
+
+            @Override
+            public void notify(byte[] data) {
+            }
+
+            @Override
+            public void addDecoder(Decoder decoder) {
+            }
+        };
+        assertSame(producer, BatchProducer.of(producer));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // per-record producer which keeps records as strings
+    private static final class FlagProducer implements Producer {
+        final List<String> records = new ArrayList<>();
+        volatile boolean isFull;
+        boolean isClosed;
+
+        @Override
+        public void notify(byte[] data) {
+            records.add(new String(data, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void addDecoder(Decoder decoder) {
+        }
+
+        @Override
+        public boolean isFull() {
+            return isFull;
+        }
+
+        @Override
+        public void close() {
+            isClosed = true;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.cookbook.processing.processor;
+
+import com.cookbook.processing.LinkerIndex;
+import com.cookbook.processing.interfaces.Decoder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LinkerIndexProcessorTest {
+
+    private static final String service_file = "META-INF/services/com.cookbook.processing.LinkerIndex";
+
+    static final Map<String, String> app_sources = Map.of(
+            "app.Source", "package app;\n"
+                    + "@com.cookbook.processing.annotation.Data_Source(name = \"source\")\n"
+                    + "public class Source implements com.cookbook.processing.interfaces.DataSource {\n"
+                    + "    public Source(String path) {}\n"
+                    + "    public void setProducer(com.cookbook.processing.interfaces.Producer producer) {}\n"
+                    + "    public void getData() {}\n"
+                    + "}\n",
+            "app.Upper", "package app;\n"
+                    + "@com.cookbook.processing.annotation.Decode(name = \"upper\", dataSource = Source.class)\n"
+                    + "public class Upper implements com.cookbook.processing.interfaces.Decoder<String> {\n"
+                    + "    private com.cookbook.processing.interfaces.Consumer<String> consumer;\n"
+                    + "    public void setData(byte[] data) { consumer.notify(new String(data).toUpperCase()); }\n"
+                    + "    public void setConsumer(com.cookbook.processing.interfaces.Consumer<String> consumer) { this.consumer = consumer; }\n"
+                    + "}\n",
+            "app.Sink", "package app;\n"
+                    + "@com.cookbook.processing.annotation.Consume(name = \"sink\", decoder = {Upper.class})\n"
+                    + "public class Sink implements com.cookbook.processing.interfaces.Consumer<String> {\n"
+                    + "    public static final java.util.List<String> received = new java.util.concurrent.CopyOnWriteArrayList<>();\n"
+                    + "    public void notify(String data) { received.add(data); }\n"
+                    + "}\n",
+            "app.Main", "package app;\n"
+                    + "public class Main {}\n");
+
+    @Test
+    void indexIsGeneratedAndRegistered(@TempDir Path dir) throws Exception {
+        TestCompiler result = TestCompiler.compile(app_sources, dir);
+        assertTrue(result.isSuccess(), result.getErrors().toString());
+        assertTrue(Files.exists(dir.resolve("src/app/GeneratedLinkerIndex.java")));
+        assertEquals(List.of("app.GeneratedLinkerIndex"), Files.readAllLines(dir.resolve("classes").resolve(service_file)));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{dir.resolve("classes").toUri().toURL()}, getClass().getClassLoader())) {
+            List<LinkerIndex> indexes = new ArrayList<>();
+            // parent class path has index of the library examples
+            ServiceLoader.load(LinkerIndex.class, loader).stream()
+                    .filter(provider -> provider.type().getClassLoader() == loader)
+                    .forEach(provider -> indexes.add(provider.get()));
+            assertEquals(1, indexes.size());
+            Map<Class<?>, Supplier<?>> factories = indexes.get(0).getFactories();
+            assertEquals(3, factories.size());
+            // data source is created by application
+            assertNull(factories.get(loader.loadClass("app.Source")));
+            Class<?> upper = loader.loadClass("app.Upper");
+            Object decoder = factories.get(upper).get();
+            assertInstanceOf(Decoder.class, decoder);
+            assertEquals(upper, decoder.getClass());
+            assertEquals(loader.loadClass("app.Sink"), factories.get(loader.loadClass("app.Sink")).get().getClass());
+        }
+    }
+
+    @Test
+    void invalidClassesAreCompileErrors(@TempDir Path dir) {
+        Map<String, String> sources = Map.of(
+                "bad.PrivateConstructor", "package bad;\n"
+                        + "@com.cookbook.processing.annotation.Consume(name = \"c\", decoder = {})\n"
+                        + "public class PrivateConstructor implements com.cookbook.processing.interfaces.Consumer<String> {\n"
+                        + "    private PrivateConstructor() {}\n"
+                        + "    public void notify(String data) {}\n"
+                        + "}\n",
+                "bad.NotDecoder", "package bad;\n"
+                        + "@com.cookbook.processing.annotation.Decode(name = \"d\", dataSource = Object.class)\n"
+                        + "public class NotDecoder {}\n",
+                "bad.AbstractSource", "package bad;\n"
+                        + "@com.cookbook.processing.annotation.Data_Source(name = \"s\")\n"
+                        + "public abstract class AbstractSource implements com.cookbook.processing.interfaces.DataSource {}\n",
+                "bad.Outer", "package bad;\n"
+                        + "public class Outer {\n"
+                        + "    @com.cookbook.processing.annotation.Consume(name = \"c\", decoder = {})\n"
+                        + "    public class Inner implements com.cookbook.processing.interfaces.Consumer<String> {\n"
+                        + "        public void notify(String data) {}\n"
+                        + "    }\n"
+                        + "}\n",
+                "bad.Marker", "package bad;\n"
+                        + "@com.cookbook.processing.annotation.Consume(name = \"c\", decoder = {})\n"
+                        + "public interface Marker {}\n");
+        TestCompiler result = TestCompiler.compile(sources, dir);
+        assertFalse(result.isSuccess());
+        assertEquals(List.of(
+                "@Consume is allowed for classes only",
+                "@Decode class must implement Decoder",
+                "Linked class must be public and not abstract",
+                "Linked class must have public no-arg constructor",
+                "Linked nested class must be static"), result.getErrors().stream().sorted().toList());
+        assertFalse(Files.exists(dir.resolve("src/bad/GeneratedLinkerIndex.java")));
+    }
+
+    @Test
+    void serviceFileKeepsOnlyExistingIndexes(@TempDir Path dir) throws Exception {
+        Map<String, String> kept = Map.of("kept.Sink", "package kept;\n"
+                + "@com.cookbook.processing.annotation.Consume(name = \"sink\", decoder = {})\n"
+                + "public class Sink implements com.cookbook.processing.interfaces.Consumer<String> {\n"
+                + "    public void notify(String data) {}\n"
+                + "}\n");
+        assertTrue(TestCompiler.compile(kept, dir).isSuccess());
+        // index of removed package is left by previous compilation
+        Path serviceFile = dir.resolve("classes").resolve(service_file);
+        Files.writeString(serviceFile, "kept.GeneratedLinkerIndex\ngone.GeneratedLinkerIndex\n", StandardCharsets.UTF_8);
+
+        TestCompiler result = TestCompiler.compile(app_sources, dir);
+        assertTrue(result.isSuccess(), result.getErrors().toString());
+        assertEquals(List.of("kept.GeneratedLinkerIndex", "app.GeneratedLinkerIndex"), Files.readAllLines(serviceFile));
+    }
+}
@@ -0,0 +1,71 @@
+package com.cookbook.processing.processor;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// test helper: compiles sources from memory with LinkerIndexProcessor, like build of application using the library
+public final class TestCompiler {
+
+    private final List<String> errors = new ArrayList<>();
+    private final boolean success;
+
+    private TestCompiler(boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+        this.success = success;
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic.getMessage(null));
+            }
+        }
+    }
+
+    /**
+     * @param sources - source by qualified class name
+     * @param dir - directory for sources, generated sources and classes (dir/classes), it's also added to class path
+     */
+    public static TestCompiler compile(Map<String, String> sources, Path dir) {
+        try {
+            Path sourceDir = Files.createDirectories(dir.resolve("src"));
+            Path classDir = Files.createDirectories(dir.resolve("classes"));
+            List<File> files = new ArrayList<>();
+            for (Map.Entry<String, String> entry : sources.entrySet()) {
+                Path file = sourceDir.resolve(entry.getKey().replace('.', '/') + ".java");
+                Files.createDirectories(file.getParent());
+                Files.writeString(file, entry.getValue(), StandardCharsets.UTF_8);
+                files.add(file.toFile());
+            }
+            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+                List<String> options = List.of("-d", classDir.toString(), "-s", sourceDir.toString(),
+                        "-classpath", System.getProperty("java.class.path") + File.pathSeparator + classDir);
+                JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+                        fileManager.getJavaFileObjectsFromFiles(files));
+                task.setProcessors(List.of(new LinkerIndexProcessor()));
+                return new TestCompiler(task.call(), diagnostics.getDiagnostics());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
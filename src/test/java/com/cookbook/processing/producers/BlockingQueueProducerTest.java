@@ -0,0 +1,148 @@
+package com.cookbook.processing.producers;
+
+import com.cookbook.processing.interfaces.Consumer;
+import com.cookbook.processing.interfaces.Decoder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static com.cookbook.processing.producers.RecordingDecoder.range;
+import static com.cookbook.processing.producers.RecordingDecoder.record;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class BlockingQueueProducerTest {
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    void deliversAllDataInOrder(WaitStrategy waitStrategy) {
+        // spinning threads need own cores, see WaitStrategy.SPIN
+        assumeTrue(waitStrategy != WaitStrategy.SPIN || Runtime.getRuntime().availableProcessors() >= 4);
+        BlockingQueueProducer producer = new BlockingQueueProducer(64, waitStrategy, OverflowPolicy.BLOCK);
+        RecordingDecoder first = new RecordingDecoder();
+        RecordingDecoder second = new RecordingDecoder();
+        producer.addDecoder(first);
+        producer.addDecoder(second);
+        for (int i = 0; i < 20_000; i++) {
+            producer.notify(record(i));
+        }
+        producer.close();
+        assertEquals(range(20_000), first.getRecords());
+        assertEquals(range(20_000), second.getRecords());
+        assertEquals(0, producer.getDroppedCount());
+    }
+
+    @Test
+    void dropPolicyCountsOverflow() {
+        CountDownLatch gate = new CountDownLatch(1);
+        BlockingQueueProducer producer = new BlockingQueueProducer(8, WaitStrategy.BLOCK, OverflowPolicy.DROP);
+        RecordingDecoder decoder = new RecordingDecoder(gate);
+        producer.addDecoder(decoder);
+        for (int i = 0; i < 100; i++) {
+            producer.notify(record(i));
+        }
+        assertTrue(producer.isFull());
+        gate.countDown();
+        producer.close();
+        List<Integer> records = decoder.getRecords();
+        assertTrue(producer.getDroppedCount() > 0);
+        assertEquals(100, records.size() + producer.getDroppedCount());
+        // accepted data keeps its order
+        assertEquals(records.stream().sorted().toList(), records);
+    }
+
+    @Test
+    void closeWaitsForQueuedData() {
+        CountDownLatch gate = new CountDownLatch(1);
+        BlockingQueueProducer producer = new BlockingQueueProducer(1000, WaitStrategy.PARK, OverflowPolicy.BLOCK);
+        RecordingDecoder decoder = new RecordingDecoder(gate);
+        producer.addDecoder(decoder);
+        for (int i = 0; i < 1000; i++) {
+            producer.notify(record(i));
+        }
+        gate.countDown();
+        producer.close();
+        assertEquals(range(1000), decoder.getRecords());
+        assertThrows(IllegalStateException.class, () -> producer.notify(record(0)));
+        assertThrows(IllegalStateException.class, () -> producer.addDecoder(new RecordingDecoder()));
+        // second close does nothing
+        producer.close();
+    }
+
+    @Test
+    void failedDeliveryIsCountedAndOthersContinue() {
+        BlockingQueueProducer producer = new BlockingQueueProducer(16, WaitStrategy.BLOCK, OverflowPolicy.BLOCK);
+        RecordingDecoder decoder = new RecordingDecoder();
+        producer.addDecoder(new FailingDecoder(new IllegalArgumentException("bad record")));
+        producer.addDecoder(decoder);
+        for (int i = 0; i < 500; i++) {
+            producer.notify(record(i));
+        }
+        producer.close();
+        assertEquals(range(500), decoder.getRecords());
+        assertTrue(producer.getFailedCount() > 0);
+    }
+
+    @Test
+    void closeReturnsWhenDispatcherHasDied() {
+        BlockingQueueProducer producer = new BlockingQueueProducer(4, WaitStrategy.BLOCK, OverflowPolicy.DROP);
+        // Error isn't caught by dispatcher, so its thread dies
+        FailingDecoder decoder = new FailingDecoder(new AssertionError("decoder is broken"));
+        producer.addDecoder(decoder);
+        producer.notify(record(0));
+        decoder.awaitFailure();
+        for (int i = 1; i <= 10; i++) {
+            producer.notify(record(i));
+        }
+        assertTrue(producer.isFull());
+        assertTimeoutPreemptively(Duration.ofSeconds(10), producer::close);
+        // 4 queued records are lost, 6 records were dropped by full queue
+        assertEquals(10, producer.getDroppedCount());
+    }
+
+    @Test
+    void badArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BlockingQueueProducer(0, WaitStrategy.BLOCK, OverflowPolicy.BLOCK));
+        assertThrows(IllegalArgumentException.class, () -> new BlockingQueueProducer(8, null, OverflowPolicy.BLOCK));
+    }
+
+    // decoder which always throws
+    static final class FailingDecoder implements Decoder<Object> {
+        private final Throwable failure;
+        private final CountDownLatch failed = new CountDownLatch(1);
+
+        FailingDecoder(Throwable failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public void setData(byte[] data) {
+            failed.countDown();
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw (RuntimeException) failure;
+        }
+
+        @Override
+        public void setConsumer(Consumer<Object> consumer) {
+        }
+
+        void awaitFailure() {
+            try {
+                failed.await();
+                // let the thread finish
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
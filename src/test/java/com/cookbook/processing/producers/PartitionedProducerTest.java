@@ -0,0 +1,174 @@
+package com.cookbook.processing.producers;
+
+import com.cookbook.processing.interfaces.Consumer;
+import com.cookbook.processing.interfaces.Decoder;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.cookbook.processing.producers.RecordingDecoder.range;
+import static com.cookbook.processing.producers.RecordingDecoder.record;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedProducerTest {
+
+    @Test
+    void recordsWithEqualKeyKeepOrder() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            PartitionedProducer producer = new PartitionedProducer(executor, 8, 64, PartitionedProducer.fieldKey(0, (byte) ','));
+            KeyDecoder decoder = new KeyDecoder();
+            producer.addDecoder(decoder);
+            for (int i = 0; i < 30_000; i++) {
+                producer.notify(("key" + i % 13 + "," + i).getBytes(StandardCharsets.US_ASCII));
+            }
+            producer.close();
+            assertEquals(13, decoder.sequences.size());
+            int total = 0;
+            for (Map.Entry<String, List<Integer>> entry : decoder.sequences.entrySet()) {
+                List<Integer> sequence = entry.getValue();
+                for (int i = 1; i < sequence.size(); i++) {
+                    assertTrue(sequence.get(i - 1) < sequence.get(i), entry.getKey() + " is out of order");
+                }
+                total += sequence.size();
+            }
+            assertEquals(30_000, total);
+            assertEquals(0, producer.getDroppedCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void fieldKeyHashesOnlySelectedField() {
+        assertEquals(PartitionedProducer.fieldKey(1, (byte) ';').applyAsInt("a;k;x".getBytes(StandardCharsets.US_ASCII)),
+                PartitionedProducer.fieldKey(1, (byte) ';').applyAsInt("b;k;y;z".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(0, PartitionedProducer.fieldKey(3, (byte) ';').applyAsInt("a;b".getBytes(StandardCharsets.US_ASCII)));
+        assertThrows(IllegalArgumentException.class, () -> PartitionedProducer.fieldKey(-1, (byte) ','));
+    }
+
+    @Test
+    void closeWaitsForNotifiedRecords() {
+        PartitionedProducer producer = new PartitionedProducer(data -> 0);
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingDecoder decoder = new RecordingDecoder(gate);
+        producer.addDecoder(decoder);
+        for (int i = 0; i < 1000; i++) {
+            producer.notify(record(i));
+        }
+        gate.countDown();
+        producer.close();
+        // one lane, so all records are in order
+        assertEquals(range(1000), decoder.getRecords());
+        assertThrows(IllegalStateException.class, () -> producer.notify(record(0)));
+    }
+
+    @Test
+    void recordsWithoutDecoderAreCountedAsDropped() {
+        PartitionedProducer producer = new PartitionedProducer();
+        producer.notify(record(1));
+        producer.notify(record(2));
+        producer.close();
+        assertEquals(2, producer.getDroppedCount());
+    }
+
+    @Test
+    void shutDownExecutorDropsRecordsAndCloseReturns() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        PartitionedProducer producer = new PartitionedProducer(executor, 2, 16, data -> data[0]);
+        RecordingDecoder decoder = new RecordingDecoder();
+        producer.addDecoder(decoder);
+        executor.shutdown();
+        assertThrows(RejectedExecutionException.class, () -> producer.notify(record(1)));
+        assertThrows(RejectedExecutionException.class, () -> producer.notify(record(2)));
+        assertEquals(2, producer.getDroppedCount());
+        assertTimeoutPreemptively(Duration.ofSeconds(10), producer::close);
+    }
+
+    @Test
+    void saturatedExecutorRejectsOtherLane() throws InterruptedException {
+        // one thread without queue: the second lane is rejected while the first one is running
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+        try {
+            CountDownLatch gate = new CountDownLatch(1);
+            PartitionedProducer producer = new PartitionedProducer(executor, 2, 16, data -> data[0]);
+            RecordingDecoder decoder = new RecordingDecoder(gate);
+            producer.addDecoder(decoder);
+            // "0" and "1" have different lanes
+            producer.notify(record(0));
+            assertThrows(RejectedExecutionException.class, () -> producer.notify(record(1)));
+            gate.countDown();
+            assertTimeoutPreemptively(Duration.ofSeconds(10), producer::close);
+            assertEquals(List.of(0), decoder.getRecords());
+            assertEquals(1, producer.getDroppedCount());
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void decoderFailureIsCounted() {
+        PartitionedProducer producer = new PartitionedProducer(data -> 0);
+        producer.addDecoder(new BlockingQueueProducerTest.FailingDecoder(new IllegalStateException("bad record")));
+        for (int i = 0; i < 10; i++) {
+            producer.notify(record(i));
+        }
+        producer.close();
+        assertTrue(producer.getFailedCount() > 0);
+    }
+
+    @Test
+    void decoderErrorDoesNotWedgeLane() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            PartitionedProducer producer = new PartitionedProducer(executor, 1, 4, data -> 0);
+            BlockingQueueProducerTest.FailingDecoder decoder = new BlockingQueueProducerTest.FailingDecoder(new AssertionError("decoder is broken"));
+            producer.addDecoder(decoder);
+            // every batch kills executor thread, lane is scheduled again on a new one and permits come back
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                for (int i = 0; i < 20; i++) {
+                    producer.notify(record(i));
+                }
+                producer.close();
+            });
+            assertTrue(producer.getFailedCount() > 0);
+            assertEquals(0, producer.getDroppedCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // decoder for "key,sequence" records, it keeps sequences per key
+    private static final class KeyDecoder implements Decoder<Object> {
+        private final Map<String, List<Integer>> sequences = new ConcurrentHashMap<>();
+
+        @Override
+        public void setData(byte[] data) {
+            String[] fields = new String(data, StandardCharsets.US_ASCII).split(",");
+            List<Integer> sequence = sequences.computeIfAbsent(fields[0], key -> new ArrayList<>());
+            synchronized (sequence) {
+                sequence.add(Integer.parseInt(fields[1]));
+            }
+        }
+
+        @Override
+        public void setConsumer(Consumer<Object> consumer) {
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.cookbook.processing.producers;
+
+import com.cookbook.processing.interfaces.Consumer;
+import com.cookbook.processing.interfaces.Decoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// test decoder, it keeps received records (decimal numbers) and can hold the delivering thread until it's opened
+class RecordingDecoder implements Decoder<Object> {
+
+    private final List<Integer> records = new ArrayList<>();
+    private final CountDownLatch gate;
+
+    RecordingDecoder() {
+        this(new CountDownLatch(0));
+    }
+
+    RecordingDecoder(CountDownLatch gate) {
+        this.gate = gate;
+    }
+
+    static byte[] record(int value) {
+        return Integer.toString(value).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    static List<Integer> range(int count) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            result.add(i);
+        }
+        return result;
+    }
+
+    @Override
+    public void setData(byte[] data) {
+        try {
+            gate.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (records) {
+            records.add(Integer.parseInt(new String(data, StandardCharsets.US_ASCII)));
+        }
+    }
+
+    @Override
+    public void setConsumer(Consumer<Object> consumer) {
+    }
+
+    List<Integer> getRecords() {
+        synchronized (records) {
+            return new ArrayList<>(records);
+        }
+    }
+}
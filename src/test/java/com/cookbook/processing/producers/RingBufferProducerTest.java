@@ -0,0 +1,151 @@
+package com.cookbook.processing.producers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static com.cookbook.processing.producers.RecordingDecoder.range;
+import static com.cookbook.processing.producers.RecordingDecoder.record;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class RingBufferProducerTest {
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    void everyDecoderGetsAllDataInOrder(WaitStrategy waitStrategy) {
+        // spinning threads need own cores, see WaitStrategy.SPIN
+        assumeTrue(waitStrategy != WaitStrategy.SPIN || Runtime.getRuntime().availableProcessors() >= 4);
+        // small ring, so producer wraps many times and waits for slow decoder
+        RingBufferProducer producer = new RingBufferProducer(16, waitStrategy, OverflowPolicy.BLOCK);
+        RecordingDecoder first = new RecordingDecoder();
+        RecordingDecoder second = new RecordingDecoder();
+        producer.addDecoder(first);
+        producer.addDecoder(second);
+        for (int i = 0; i < 20_000; i++) {
+            producer.notify(record(i));
+        }
+        producer.close();
+        assertEquals(range(20_000), first.getRecords());
+        assertEquals(range(20_000), second.getRecords());
+        assertEquals(0, producer.getDroppedCount());
+    }
+
+    @Test
+    void dataWithoutDecoderIsCountedAsDropped() {
+        RingBufferProducer producer = new RingBufferProducer();
+        for (int i = 0; i < 5; i++) {
+            producer.notify(record(i));
+        }
+        assertEquals(5, producer.getDroppedCount());
+        RecordingDecoder decoder = new RecordingDecoder();
+        producer.addDecoder(decoder);
+        producer.notify(record(5));
+        producer.close();
+        assertEquals(List.of(5), decoder.getRecords());
+        assertEquals(5, producer.getDroppedCount());
+    }
+
+    @Test
+    void dropPolicyCountsOverflow() {
+        CountDownLatch gate = new CountDownLatch(1);
+        RingBufferProducer producer = new RingBufferProducer(8, WaitStrategy.BLOCK, OverflowPolicy.DROP);
+        RecordingDecoder decoder = new RecordingDecoder(gate);
+        producer.addDecoder(decoder);
+        for (int i = 0; i < 100; i++) {
+            producer.notify(record(i));
+        }
+        assertTrue(producer.isFull());
+        gate.countDown();
+        producer.close();
+        List<Integer> records = decoder.getRecords();
+        assertEquals(92, producer.getDroppedCount());
+        assertEquals(range(8), records);
+    }
+
+    @Test
+    void closeWaitsForPublishedData() {
+        CountDownLatch gate = new CountDownLatch(1);
+        RingBufferProducer producer = new RingBufferProducer(1024, WaitStrategy.YIELD, OverflowPolicy.BLOCK);
+        RecordingDecoder decoder = new RecordingDecoder(gate);
+        producer.addDecoder(decoder);
+        for (int i = 0; i < 1000; i++) {
+            producer.notify(record(i));
+        }
+        gate.countDown();
+        producer.close();
+        assertEquals(range(1000), decoder.getRecords());
+        assertFalse(producer.isFull());
+        assertThrows(IllegalStateException.class, () -> producer.notify(record(0)));
+        producer.close();
+    }
+
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(16, new RingBufferProducer(9, WaitStrategy.BLOCK, OverflowPolicy.BLOCK).getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new RingBufferProducer(0, WaitStrategy.BLOCK, OverflowPolicy.BLOCK));
+    }
+
+    @Test
+    void deadDecoderThreadDoesNotBlockProducer() {
+        RingBufferProducer producer = new RingBufferProducer(8, WaitStrategy.BLOCK, OverflowPolicy.BLOCK);
+        BlockingQueueProducerTest.FailingDecoder broken = new BlockingQueueProducerTest.FailingDecoder(new AssertionError("decoder is broken"));
+        RecordingDecoder decoder = new RecordingDecoder();
+        producer.addDecoder(broken);
+        producer.addDecoder(decoder);
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            // ring is wrapped many times after the broken thread has died
+            for (int i = 0; i < 1000; i++) {
+                producer.notify(record(i));
+            }
+            producer.close();
+        });
+        assertEquals(range(1000), decoder.getRecords());
+        assertEquals(1, producer.getFailedCount());
+    }
+
+    @Test
+    void dataAfterTheLastDecoderThreadDiedIsDropped() throws InterruptedException {
+        RingBufferProducer producer = new RingBufferProducer(4, WaitStrategy.BLOCK, OverflowPolicy.BLOCK);
+        BlockingQueueProducerTest.FailingDecoder broken = new BlockingQueueProducerTest.FailingDecoder(new AssertionError("decoder is broken"));
+        producer.addDecoder(broken);
+        producer.notify(record(0));
+        broken.awaitFailure();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 1; i <= 10; i++) {
+                producer.notify(record(i));
+            }
+            assertFalse(producer.isFull());
+            producer.close();
+        });
+        assertEquals(1, producer.getFailedCount());
+        assertEquals(10, producer.getDroppedCount());
+    }
+
+    @Test
+    void deliveredDataIsNotKeptByRing() {
+        RingBufferProducer producer = new RingBufferProducer(64, WaitStrategy.BLOCK, OverflowPolicy.BLOCK);
+        producer.addDecoder(new RecordingDecoder());
+        List<WeakReference<byte[]>> references = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            byte[] data = record(i);
+            references.add(new WeakReference<>(data));
+            producer.notify(data);
+        }
+        producer.close();
+        for (int attempt = 0; attempt < 10 && references.stream().anyMatch(reference -> reference.get() != null); attempt++) {
+            System.gc();
+        }
+        assertEquals(0, references.stream().filter(reference -> reference.get() != null).count());
+    }
+}
@@ -0,0 +1,85 @@
+package com.cookbook.processing.producers;
+
+import com.cookbook.processing.interfaces.BatchDecoder;
+import com.cookbook.processing.interfaces.Consumer;
+import com.cookbook.processing.interfaces.Decoder;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SimpleProducerTest {
+
+    @Test
+    void everyDecoderGetsSameBufferWithRestoredBounds() {
+        SimpleProducer producer = new SimpleProducer();
+        ConsumingDecoder first = new ConsumingDecoder();
+        ConsumingDecoder second = new ConsumingDecoder();
+        producer.addDecoder(first);
+        producer.addDecoder(second);
+
+        ByteBuffer buffer = ByteBuffer.wrap("skip,abc,tail".getBytes(StandardCharsets.US_ASCII));
+        buffer.position(5).limit(8);
+        producer.notify(buffer);
+        assertEquals(List.of("abc"), first.records);
+        assertEquals(List.of("abc"), second.records);
+        assertSame(buffer, first.buffers.get(0));
+        assertSame(buffer, second.buffers.get(0));
+        assertEquals(5, buffer.position());
+        assertEquals(8, buffer.limit());
+    }
+
+    @Test
+    void arraysAndBatchesArePassedToAllDecoders() {
+        SimpleProducer producer = new SimpleProducer();
+        ConsumingDecoder first = new ConsumingDecoder();
+        List<Integer> batchSizes = new ArrayList<>();
+        producer.addDecoder(first);
+        producer.addDecoder(new BatchDecoder<Object>() {
+            @Override
+            public void setDataBatch(List<byte[]> data) {
+                batchSizes.add(data.size());
+            }
+
+            @Override
+            public void setData(byte[] data) {
+                batchSizes.add(1);
+            }
+
+            @Override
+            public void setConsumer(Consumer<Object> consumer) {
+            }
+        });
+        producer.notify("a".getBytes(StandardCharsets.US_ASCII));
+        producer.notifyBatch(List.of("b".getBytes(StandardCharsets.US_ASCII), "c".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(List.of("a", "b", "c"), first.records);
+        assertEquals(List.of(1, 2), batchSizes);
+    }
+
+    // decoder which reads record to the end and moves limit, as careless zero-copy decoder can do
+    private static final class ConsumingDecoder implements Decoder<Object> {
+        final List<String> records = new ArrayList<>();
+        final List<ByteBuffer> buffers = new ArrayList<>();
+
+        @Override
+        public void setData(byte[] data) {
+            records.add(new String(data, StandardCharsets.US_ASCII));
+        }
+
+        @Override
+        public void setData(ByteBuffer data) {
+            buffers.add(data);
+            records.add(StandardCharsets.US_ASCII.decode(data).toString());
+            data.limit(data.position());
+        }
+
+        @Override
+        public void setConsumer(Consumer<Object> consumer) {
+        }
+    }
+}
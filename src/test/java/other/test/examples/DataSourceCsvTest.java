@@ -0,0 +1,104 @@
+package other.test.examples;
+
+import com.cookbook.processing.csv.CsvDecoderGroup;
+import com.cookbook.processing.interfaces.Decoder;
+import com.cookbook.processing.interfaces.Producer;
+import com.cookbook.processing.producers.SimpleProducer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DataSourceCsvTest {
+
+    @Test
+    void linesLongerThanBufferAreSentWhole(@TempDir Path dir) throws IOException {
+        // the first long line doubles 64 KiB buffer twice, the second one fits into grown buffer
+        String longLine = "x".repeat(200_000);
+        String otherLongLine = "y".repeat(100_000);
+        List<String> lines = read(dir, "a\n" + longLine + "\nb\n" + otherLongLine + "\nc");
+        assertEquals(List.of("a", longLine, "b", otherLongLine, "c"), lines);
+    }
+
+    @Test
+    void linesCrossingBufferBoundaryAreJoined(@TempDir Path dir) throws IOException {
+        StringBuilder text = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        // 7-byte lines don't divide 64 KiB, so lines cross every read boundary at different offsets
+        for (int i = 0; i < 50_000; i++) {
+            String line = String.format("%06d", i);
+            text.append(line).append('\n');
+            expected.add(line);
+        }
+        assertEquals(expected, read(dir, text.toString()));
+    }
+
+    @Test
+    void carriageReturnIsStrippedBeforeLineFeed(@TempDir Path dir) throws IOException {
+        assertEquals(List.of("a", "b\rc", "", "last"), read(dir, "a\r\nb\rc\n\r\nlast\r"));
+    }
+
+    @Test
+    void lastLineWithoutLineFeedIsSent(@TempDir Path dir) throws IOException {
+        assertEquals(List.of("a", "b"), read(dir, "a\nb"));
+        assertEquals(List.of("a", "b"), read(dir, "a\nb\n"));
+        assertEquals(List.of(), read(dir, ""));
+    }
+
+    @Test
+    void trailingEmptyFieldIsDecoded(@TempDir Path dir) throws IOException {
+        // before the zero-copy path decoders used String.split(","), which dropped trailing empty fields,
+        // so "a," had one field and DecoderCsv1 skipped it. Now it's two fields, the second one is empty
+        Path file = write(dir, "a,\n1,2,,\nx\n");
+        List<String> results = new ArrayList<>();
+        CsvDecoderGroup group = new CsvDecoderGroup();
+        group.addDecoder(new DecoderCsv1());
+        group.addDecoder(new DecoderCsv2());
+        group.setConsumer(data -> {
+            OutputResultCsv result = (OutputResultCsv) data;
+            results.add(result.getField1() + "|" + result.getField2());
+        });
+        SimpleProducer producer = new SimpleProducer();
+        producer.addDecoder(group);
+        DataSourceCsv source = new DataSourceCsv(file.toString());
+        source.setProducer(producer);
+        source.getData();
+        assertEquals(List.of("a|", "1|2", "|"), results);
+    }
+
+    private static Path write(Path dir, String text) throws IOException {
+        Path file = dir.resolve("data.csv");
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> read(Path dir, String text) throws IOException {
+        List<String> lines = new ArrayList<>();
+        DataSourceCsv source = new DataSourceCsv(write(dir, text).toString());
+        source.setProducer(new Producer() {
+            @Override
+            public void notify(ByteBuffer data) {
+                lines.add(StandardCharsets.UTF_8.decode(data.duplicate()).toString());
+            }
+
+            @Override
+            public void notify(byte[] data) {
+                lines.add(new String(data, StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void addDecoder(Decoder decoder) {
+            }
+        });
+        source.getData();
+        return lines;
+    }
+}